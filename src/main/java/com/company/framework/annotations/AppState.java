@@ -0,0 +1,23 @@
+package com.company.framework.annotations;
+
+import com.company.framework.enums.ResetLevel;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Khai báo trạng thái app mà test yêu cầu khi bắt đầu (dùng khi session được tái sử dụng)
+ * Đặt trên method để override giá trị trên class, nếu không có sẽ dùng APP_RESET_LEVEL trong config
+ *
+ * <pre>
+ * &#64;AppState(ResetLevel.CLEAR_DATA)
+ * public void testLoginFirstTime() { ... }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface AppState {
+    ResetLevel value();
+}
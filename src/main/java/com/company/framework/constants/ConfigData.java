@@ -7,6 +7,9 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 
 public class ConfigData {
 
@@ -36,11 +39,45 @@ public class ConfigData {
     public static final String SCREENSHOT_PASS = PropertiesHelpers.getValue("SCREENSHOT_PASS");
     public static final String SCREENSHOT_ALL_STEP = PropertiesHelpers.getValue("SCREENSHOT_ALL_STEP");
     public static final String SCREENSHOT_PATH = PropertiesHelpers.getValue("SCREENSHOT_PATH");
+    public static final String SCREENSHOT_ASYNC_ENABLED = PropertiesHelpers.getValue("SCREENSHOT_ASYNC_ENABLED");
+    public static final String SCREENSHOT_ASYNC_THREADS = PropertiesHelpers.getValue("SCREENSHOT_ASYNC_THREADS");
+    public static final String SCREENSHOT_ASYNC_QUEUE_SIZE = PropertiesHelpers.getValue("SCREENSHOT_ASYNC_QUEUE_SIZE");
+    public static final String SCREENSHOT_STEP_FORMAT = PropertiesHelpers.getValue("SCREENSHOT_STEP_FORMAT");
+    public static final String SCREENSHOT_DEDUP_ENABLED = PropertiesHelpers.getValue("SCREENSHOT_DEDUP_ENABLED");
+    public static final String SCREENSHOT_DEDUP_THRESHOLD = PropertiesHelpers.getValue("SCREENSHOT_DEDUP_THRESHOLD");
+    public static final String SCREENSHOT_CAPTURE_MODE = PropertiesHelpers.getValue("SCREENSHOT_CAPTURE_MODE");
+    public static final String MJPEG_MAX_FRAME_AGE = PropertiesHelpers.getValue("MJPEG_MAX_FRAME_AGE");
     public static final String RECORD_VIDEO = PropertiesHelpers.getValue("RECORD_VIDEO");
     public static final String RECORD_VIDEO_PATH = PropertiesHelpers.getValue("RECORD_VIDEO_PATH");
     public static final String AUTO_SETUP_CHROMEDRIVER = PropertiesHelpers.getValue("AUTO_SETUP_CHROMEDRIVER");
     public static final String CHROMEDRIVER_VERSION = PropertiesHelpers.getValue("CHROMEDRIVER_VERSION");
     public static final String CHROME_BROWSER_VERSION = PropertiesHelpers.getValue("CHROME_BROWSER_VERSION");
+    public static final String APPIUM_SERVER_LIFECYCLE = PropertiesHelpers.getValue("APPIUM_SERVER_LIFECYCLE");
+    public static final String APPIUM_SERVER_POOL_SIZE = PropertiesHelpers.getValue("APPIUM_SERVER_POOL_SIZE");
+    public static final String DRIVER_POOL_ENABLED = PropertiesHelpers.getValue("DRIVER_POOL_ENABLED");
+    public static final String DEVICE_SCHEDULER_ENABLED = PropertiesHelpers.getValue("DEVICE_SCHEDULER_ENABLED");
+    public static final String APP_RESET_LEVEL = PropertiesHelpers.getValue("APP_RESET_LEVEL");
+    public static final String SESSION_PREWARM_ENABLED = PropertiesHelpers.getValue("SESSION_PREWARM_ENABLED");
+    public static final String DRIVER_CREATE_TIMEOUT = PropertiesHelpers.getValue("DRIVER_CREATE_TIMEOUT");
+    public static final String DRIVER_CREATE_MAX_RETRIES = PropertiesHelpers.getValue("DRIVER_CREATE_MAX_RETRIES");
+    public static final String DRIVER_CREATE_BACKOFF_MILLIS = PropertiesHelpers.getValue("DRIVER_CREATE_BACKOFF_MILLIS");
+    public static final String HTTP_CONNECTION_TIMEOUT = PropertiesHelpers.getValue("HTTP_CONNECTION_TIMEOUT");
+    public static final String HTTP_READ_TIMEOUT = PropertiesHelpers.getValue("HTTP_READ_TIMEOUT");
+    public static final String HTTP_KEEPALIVE_TIMEOUT = PropertiesHelpers.getValue("HTTP_KEEPALIVE_TIMEOUT");
+    public static final String HTTP_CONNECTION_POOL_SIZE = PropertiesHelpers.getValue("HTTP_CONNECTION_POOL_SIZE");
+    public static final String WAIT_POLL_INITIAL_MILLIS = PropertiesHelpers.getValue("WAIT_POLL_INITIAL_MILLIS");
+    public static final String WAIT_POLL_MAX_MILLIS = PropertiesHelpers.getValue("WAIT_POLL_MAX_MILLIS");
+    public static final String WAIT_POLL_BACKOFF = PropertiesHelpers.getValue("WAIT_POLL_BACKOFF");
+    public static final String PACING_MODE = PropertiesHelpers.getValue("PACING_MODE");
+    public static final String PACING_KEYWORD_OVERRIDES = PropertiesHelpers.getValue("PACING_KEYWORD_OVERRIDES");
+    public static final String LOCAL_XPATH_ENABLED = PropertiesHelpers.getValue("LOCAL_XPATH_ENABLED");
+    public static final String LOCATOR_OPTIMIZER_ENABLED = PropertiesHelpers.getValue("LOCATOR_OPTIMIZER_ENABLED");
+    public static final String LOCATOR_OPTIMIZER_MEASURE = PropertiesHelpers.getValue("LOCATOR_OPTIMIZER_MEASURE");
+    public static final String ELEMENT_CACHE_ENABLED = PropertiesHelpers.getValue("ELEMENT_CACHE_ENABLED");
+    public static final String JFR_RECORDING_ENABLED = PropertiesHelpers.getValue("JFR_RECORDING_ENABLED");
+    public static final String JFR_RECORDING_PATH = PropertiesHelpers.getValue("JFR_RECORDING_PATH");
+    public static final String TRACE_ENABLED = PropertiesHelpers.getValue("TRACE_ENABLED");
+    public static final String TIME_ACCOUNTING_ENABLED = PropertiesHelpers.getValue("TIME_ACCOUNTING_ENABLED");
 
 
     /**
@@ -91,4 +128,29 @@ public class ConfigData {
         System.out.println("*** " + propertyName + ": " + result);
         return result;
     }
+
+    /**
+     * Hàm lấy danh sách platform được khai báo trong device.json (ví dụ: android, ios)
+     */
+    public static List<String> getPlatformNamesJsonConfig() {
+        loadJsonConfig();
+        List<String> platforms = new ArrayList<>();
+        Iterator<String> names = rootNode.path("platforms").fieldNames();
+        names.forEachRemaining(platforms::add);
+        return platforms;
+    }
+
+    /**
+     * Hàm lấy danh sách tên device profile dưới platforms.{platform}.devices
+     */
+    public static List<String> getDeviceNamesJsonConfig(String platform) {
+        loadJsonConfig();
+        List<String> devices = new ArrayList<>();
+        Iterator<String> names = rootNode.path("platforms")
+                .path(platform.trim().toLowerCase())
+                .path("devices")
+                .fieldNames();
+        names.forEachRemaining(devices::add);
+        return devices;
+    }
 }
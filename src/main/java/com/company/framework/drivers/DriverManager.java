@@ -1,6 +1,11 @@
 package com.company.framework.drivers;
 
+import com.company.framework.drivers.manager.PortManager;
+import com.company.framework.helpers.screenshot.MjpegStreamReader;
 import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.SessionId;
 
 public class DriverManager {
     private static ThreadLocal<AppiumDriver> driver = new ThreadLocal<>();
@@ -21,8 +26,37 @@ public class DriverManager {
 
     public static void quitDriver() {
         if (driver.get() != null) {
-            getDriver().quit();
-            driver.remove();
+            SessionId sessionId = getDriver().getSessionId();
+            try {
+                getDriver().quit();
+            } finally {
+                driver.remove();
+                // Trả lại các port đã cấp cho session
+                PortManager.releaseSessionPorts(sessionId != null ? sessionId.toString() : null);
+                MjpegStreamReader.stop(sessionId != null ? sessionId.toString() : null);
+            }
         }
     }
+
+    /**
+     * Activity hiện tại của session Android (null với platform khác hoặc khi không đọc được)
+     * Dùng để nhận biết màn hình native đã đổi
+     */
+    public static String getCurrentActivity() {
+        if (!(getDriver() instanceof AndroidDriver androidDriver)) {
+            return null;
+        }
+        try {
+            return androidDriver.currentActivity();
+        } catch (WebDriverException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gỡ driver khỏi thread hiện tại nhưng không quit session (dùng khi trả session về pool)
+     */
+    public static void unloadDriver() {
+        driver.remove();
+    }
 }
@@ -0,0 +1,227 @@
+package com.company.framework.drivers.factory;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.drivers.manager.PortManager;
+import com.company.framework.enums.AppType;
+import com.company.framework.enums.Platform;
+import com.company.framework.helpers.screenshot.MjpegStreamReader;
+import com.company.framework.reports.TraceRecorder;
+import com.company.framework.utils.LogUtils;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.remote.SessionId;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tạo AppiumDriver bất đồng bộ (CompletableFuture) với timeout, retry có giới hạn và backoff ngẫu nhiên (jitter)
+ * Chỉ retry các lỗi tạm thời (instrumentation crash, mất kết nối tới server, xcodebuild lỗi 65...),
+ * mỗi lần thử đều log thời gian từng phase: HTTP connect, new-session và command đầu tiên
+ */
+public class AsyncDriverFactory {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    // Chỉ các thông báo lỗi tạm thời cụ thể: "uiautomator2" / "webdriveragent" / "timed out" xuất hiện trong cả lỗi cố định
+    // (sai automationName, appPackage, appActivity...) nên không dùng để nhận diện
+    private static final String[] TRANSIENT_MESSAGES = {
+            "instrumentation process is not running", "cannot be proxied to uiautomator2 server",
+            "could not proxy command to the remote server", "socket hang up", "econnreset", "econnrefused",
+            "xcodebuild failed with code 65"
+    };
+
+    private static final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "driver-creator");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private AsyncDriverFactory() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Tạo driver trên thread nền, retry khi gặp lỗi tạm thời
+     * Future hoàn thành với TimeoutException nếu vượt quá DRIVER_CREATE_TIMEOUT,
+     * khi đó vòng retry dừng lại và driver được tạo muộn sau timeout sẽ tự động bị quit
+     */
+    public static CompletableFuture<AppiumDriver> createDriverAsync(
+            AppType appType,
+            Platform platform,
+            String host,
+            String port,
+            DriverFactory.DriverConfig config) {
+
+        // Span tạo session trên thread nền được ghi vào trace của test đang chờ driver
+        TraceRecorder.Trace trace = TraceRecorder.getTrace();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        CompletableFuture<AppiumDriver> attempts = CompletableFuture.supplyAsync(
+                () -> TraceRecorder.runWith(trace, () -> createWithRetry(appType, platform, host, port, config, cancelled)), executor);
+
+        // Timeout đặt trên bản copy: attempts vẫn hoàn thành với driver thật để có thể quit driver tạo muộn
+        CompletableFuture<AppiumDriver> result = attempts.copy().orTimeout(getCreateTimeoutSeconds(), TimeUnit.SECONDS);
+        result.whenComplete((driver, error) -> {
+            if (error instanceof TimeoutException) {
+                LogUtils.error("❌ [AsyncDriver] Quá thời gian tạo driver (" + getCreateTimeoutSeconds() + "s)");
+                cancelled.set(true);
+                attempts.thenAccept(AsyncDriverFactory::quitQuietly);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Tạo driver và chờ kết quả (dùng cho các luồng setup đồng bộ như @BeforeMethod)
+     */
+    public static AppiumDriver createDriver(
+            AppType appType,
+            Platform platform,
+            String host,
+            String port,
+            DriverFactory.DriverConfig config) {
+        try {
+            return createDriverAsync(appType, platform, host, port, config).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException("Không thể tạo driver", cause);
+        }
+    }
+
+    private static AppiumDriver createWithRetry(
+            AppType appType,
+            Platform platform,
+            String host,
+            String port,
+            DriverFactory.DriverConfig config,
+            AtomicBoolean cancelled) {
+
+        int maxAttempts = getMaxRetries() + 1;
+        for (int attempt = 1; ; attempt++) {
+            if (cancelled.get()) {
+                // Bên gọi đã timeout, không tạo thêm session
+                throw new CancellationException("Đã hủy tạo driver sau timeout (attempt " + attempt + "/" + maxAttempts + ")");
+            }
+            long connectMillis = measureConnect(host, port);
+            long sessionStart = System.currentTimeMillis();
+            try {
+                AppiumDriver driver = DriverFactory.createDriver(appType, platform, host, port, config);
+                long newSessionMillis = System.currentTimeMillis() - sessionStart;
+
+                long commandStart = System.currentTimeMillis();
+                try {
+                    driver.manage().timeouts().getImplicitWaitTimeout();
+                } catch (RuntimeException e) {
+                    // Session được tạo nhưng không phản hồi command đầu tiên
+                    quitQuietly(driver);
+                    throw e;
+                }
+                long firstCommandMillis = System.currentTimeMillis() - commandStart;
+
+                LogUtils.info("⏱️ [AsyncDriver] Attempt " + attempt + "/" + maxAttempts
+                        + " | connect: " + connectMillis + "ms"
+                        + " | new-session: " + newSessionMillis + "ms"
+                        + " | first command: " + firstCommandMillis + "ms");
+                return driver;
+            } catch (RuntimeException e) {
+                LogUtils.warn("⚠️ [AsyncDriver] Attempt " + attempt + "/" + maxAttempts + " thất bại sau "
+                        + (System.currentTimeMillis() - sessionStart) + "ms (connect: " + connectMillis + "ms): " + e.getMessage());
+                if (attempt >= maxAttempts || !isTransient(e)) {
+                    throw e;
+                }
+                sleepBackoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Lỗi tạm thời là lỗi mất kết nối hoặc lỗi khởi động driver phía device, có thể thành công khi thử lại
+     */
+    public static boolean isTransient(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof ConnectException || current instanceof SocketTimeoutException
+                    || current instanceof HttpTimeoutException) {
+                return true;
+            }
+            if (current instanceof WebDriverException) {
+                String message = String.valueOf(current.getMessage()).toLowerCase();
+                for (String transientMessage : TRANSIENT_MESSAGES) {
+                    if (message.contains(transientMessage)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void sleepBackoff(int attempt) {
+        long base = getBackoffMillis() * (1L << (attempt - 1));
+        long delay = base / 2 + ThreadLocalRandom.current().nextLong(base + 1);
+        LogUtils.info("🔁 [AsyncDriver] Thử lại sau " + delay + "ms...");
+        try (TraceRecorder.Span ignored = TraceRecorder.begin("AsyncDriverFactory.backoff", TraceRecorder.SLEEP, delay + "ms")) {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Bị gián đoạn khi chờ tạo lại driver", e);
+        }
+    }
+
+    /**
+     * Đo thời gian mở kết nối TCP tới Appium server (-1 nếu không kết nối được)
+     */
+    private static long measureConnect(String host, String port) {
+        long start = System.currentTimeMillis();
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(host, Integer.parseInt(port)), CONNECT_TIMEOUT_MILLIS);
+            return System.currentTimeMillis() - start;
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+    }
+
+    private static void quitQuietly(AppiumDriver driver) {
+        SessionId sessionId = driver.getSessionId();
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            LogUtils.warn("⚠️ [AsyncDriver] Lỗi khi quit driver tạo muộn: " + e.getMessage());
+        }
+        PortManager.releaseSessionPorts(sessionId != null ? sessionId.toString() : null);
+        MjpegStreamReader.stop(sessionId != null ? sessionId.toString() : null);
+    }
+
+    private static long getCreateTimeoutSeconds() {
+        return parseOrDefault(ConfigData.DRIVER_CREATE_TIMEOUT, 300);
+    }
+
+    private static int getMaxRetries() {
+        return (int) parseOrDefault(ConfigData.DRIVER_CREATE_MAX_RETRIES, 0);
+    }
+
+    private static long getBackoffMillis() {
+        return parseOrDefault(ConfigData.DRIVER_CREATE_BACKOFF_MILLIS, 2000);
+    }
+
+    private static long parseOrDefault(String value, long defaultValue) {
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Long.parseLong(value.trim());
+    }
+}
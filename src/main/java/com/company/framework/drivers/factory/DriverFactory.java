@@ -1,12 +1,18 @@
 package com.company.framework.drivers.factory;
 
+import com.company.framework.drivers.manager.PortManager;
 import com.company.framework.enums.AppType;
 import com.company.framework.enums.BrowserType;
 import com.company.framework.enums.Platform;
+import com.company.framework.enums.PortType;
+import com.company.framework.helpers.CaptureHelpers;
+import com.company.framework.helpers.screenshot.MjpegStreamReader;
+import com.company.framework.reports.TraceRecorder;
 import com.company.framework.utils.LogUtils;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.ios.IOSDriver;
+import lombok.EqualsAndHashCode;
 
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -46,18 +52,31 @@ public class DriverFactory {
                 var options = DriverOptionsFactory.createAndroidOptions(
                         platformVersion, deviceName, udid, automationName,
                         appPackage, appActivity, appPath,
-                        noReset, fullReset, autoGrantPermissions, systemPort);
+                        noReset, fullReset, autoGrantPermissions,
+                        PortManager.resolvePort(systemPort, PortType.SYSTEM_PORT));
+                options.setChromedriverPort(Integer.parseInt(PortManager.resolvePort(null, PortType.CHROMEDRIVER_PORT)));
 
-                AndroidDriver driver = new AndroidDriver(serverUrl, options);
+                String mjpegServerPort = resolveMjpegServerPort();
+                DriverOptionsFactory.setMjpegServerPort(options, mjpegServerPort);
+
+                AndroidDriver driver = new AndroidDriver(HttpClientFactory.createClientConfig(serverUrl), options);
+                registerSession(driver);
+                startScreenStream(driver, host, mjpegServerPort);
                 LogUtils.info("✅ Android Native Driver đã được tạo thành công");
                 return driver;
 
             } else if (platform == Platform.IOS) {
                 var options = DriverOptionsFactory.createIOSOptions(
                         platformVersion, deviceName, udid, automationName,
-                        bundleId, appPath, noReset, fullReset, wdaLocalPort);
+                        bundleId, appPath, noReset, fullReset,
+                        PortManager.resolvePort(wdaLocalPort, PortType.WDA_LOCAL_PORT));
+
+                String mjpegServerPort = resolveMjpegServerPort();
+                DriverOptionsFactory.setMjpegServerPort(options, mjpegServerPort);
 
-                IOSDriver driver = new IOSDriver(serverUrl, options);
+                IOSDriver driver = new IOSDriver(HttpClientFactory.createClientConfig(serverUrl), options);
+                registerSession(driver);
+                startScreenStream(driver, host, mjpegServerPort);
                 LogUtils.info("✅ iOS Native Driver đã được tạo thành công");
                 return driver;
 
@@ -68,6 +87,10 @@ public class DriverFactory {
         } catch (MalformedURLException e) {
             LogUtils.error("❌ Lỗi URL không hợp lệ: " + e.getMessage());
             throw new RuntimeException("Không thể tạo driver do URL không hợp lệ", e);
+        } catch (RuntimeException e) {
+            // Trả lại các port đã cấp nếu tạo session thất bại
+            PortManager.releaseReservedPorts();
+            throw e;
         }
     }
 
@@ -130,18 +153,30 @@ public class DriverFactory {
                 var options = DriverOptionsFactory.createAndroidFlutterOptions(
                         platformVersion, deviceName, udid,
                         appPackage, appActivity, appPath,
-                        noReset, fullReset, autoGrantPermissions, systemPort);
+                        noReset, fullReset, autoGrantPermissions,
+                        PortManager.resolvePort(systemPort, PortType.SYSTEM_PORT));
+
+                String mjpegServerPort = resolveMjpegServerPort();
+                DriverOptionsFactory.setMjpegServerPort(options, mjpegServerPort);
 
-                AndroidDriver driver = new AndroidDriver(serverUrl, options);
+                AndroidDriver driver = new AndroidDriver(HttpClientFactory.createClientConfig(serverUrl), options);
+                registerSession(driver);
+                startScreenStream(driver, host, mjpegServerPort);
                 LogUtils.info("✅ Android Flutter Driver đã được tạo thành công");
                 return driver;
 
             } else if (platform == Platform.IOS) {
                 var options = DriverOptionsFactory.createIOSFlutterOptions(
                         platformVersion, deviceName, udid,
-                        bundleId, appPath, noReset, fullReset, wdaLocalPort);
+                        bundleId, appPath, noReset, fullReset,
+                        PortManager.resolvePort(wdaLocalPort, PortType.WDA_LOCAL_PORT));
 
-                IOSDriver driver = new IOSDriver(serverUrl, options);
+                String mjpegServerPort = resolveMjpegServerPort();
+                DriverOptionsFactory.setMjpegServerPort(options, mjpegServerPort);
+
+                IOSDriver driver = new IOSDriver(HttpClientFactory.createClientConfig(serverUrl), options);
+                registerSession(driver);
+                startScreenStream(driver, host, mjpegServerPort);
                 LogUtils.info("✅ iOS Flutter Driver đã được tạo thành công");
                 return driver;
 
@@ -152,6 +187,10 @@ public class DriverFactory {
         } catch (MalformedURLException e) {
             LogUtils.error("❌ Lỗi URL không hợp lệ: " + e.getMessage());
             throw new RuntimeException("Không thể tạo Flutter driver do URL không hợp lệ", e);
+        } catch (RuntimeException e) {
+            // Trả lại các port đã cấp nếu tạo session thất bại
+            PortManager.releaseReservedPorts();
+            throw e;
         }
     }
 
@@ -177,17 +216,30 @@ public class DriverFactory {
 
             if (platform == Platform.ANDROID) {
                 var options = DriverOptionsFactory.createAndroidBrowserOptions(
-                        platformVersion, deviceName, udid, browserType.getValue(), systemPort);
+                        platformVersion, deviceName, udid, browserType.getValue(),
+                        PortManager.resolvePort(systemPort, PortType.SYSTEM_PORT));
+                options.setChromedriverPort(Integer.parseInt(PortManager.resolvePort(null, PortType.CHROMEDRIVER_PORT)));
+
+                String mjpegServerPort = resolveMjpegServerPort();
+                DriverOptionsFactory.setMjpegServerPort(options, mjpegServerPort);
 
-                AndroidDriver driver = new AndroidDriver(serverUrl, options);
+                AndroidDriver driver = new AndroidDriver(HttpClientFactory.createClientConfig(serverUrl), options);
+                registerSession(driver);
+                startScreenStream(driver, host, mjpegServerPort);
                 LogUtils.info("✅ Android Mobile Web Driver đã được tạo thành công");
                 return driver;
 
             } else if (platform == Platform.IOS) {
                 var options = DriverOptionsFactory.createIOSBrowserOptions(
-                        platformVersion, deviceName, udid, browserType.getValue(), wdaLocalPort);
+                        platformVersion, deviceName, udid, browserType.getValue(),
+                        PortManager.resolvePort(wdaLocalPort, PortType.WDA_LOCAL_PORT));
 
-                IOSDriver driver = new IOSDriver(serverUrl, options);
+                String mjpegServerPort = resolveMjpegServerPort();
+                DriverOptionsFactory.setMjpegServerPort(options, mjpegServerPort);
+
+                IOSDriver driver = new IOSDriver(HttpClientFactory.createClientConfig(serverUrl), options);
+                registerSession(driver);
+                startScreenStream(driver, host, mjpegServerPort);
                 LogUtils.info("✅ iOS Mobile Web Driver đã được tạo thành công");
                 return driver;
 
@@ -198,6 +250,10 @@ public class DriverFactory {
         } catch (MalformedURLException e) {
             LogUtils.error("❌ Lỗi URL không hợp lệ: " + e.getMessage());
             throw new RuntimeException("Không thể tạo driver do URL không hợp lệ", e);
+        } catch (RuntimeException e) {
+            // Trả lại các port đã cấp nếu tạo session thất bại
+            PortManager.releaseReservedPorts();
+            throw e;
         }
     }
 
@@ -211,46 +267,74 @@ public class DriverFactory {
             String port,
             DriverConfig config) {
 
-        switch (appType) {
-            case NATIVE:
-                return createNativeDriver(platform, host, port,
-                        config.platformVersion, config.deviceName, config.udid,
-                        config.automationName, config.appPackage, config.appActivity,
-                        config.appPath, config.noReset, config.fullReset,
-                        config.autoGrantPermissions, config.systemPort,
-                        config.wdaLocalPort, config.bundleId);
-
-            case HYBRID:
-                return createHybridDriver(platform, host, port,
-                        config.platformVersion, config.deviceName, config.udid,
-                        config.automationName, config.appPackage, config.appActivity,
-                        config.appPath, config.noReset, config.fullReset,
-                        config.autoGrantPermissions, config.systemPort,
-                        config.wdaLocalPort, config.bundleId);
-
-            case MOBILE_WEB:
-                BrowserType browserType = config.browserType != null ?
-                        BrowserType.fromString(config.browserType) : BrowserType.CHROME;
-                return createMobileWebDriver(platform, browserType, host, port,
-                        config.platformVersion, config.deviceName, config.udid,
-                        config.systemPort, config.wdaLocalPort);
-
-            case FLUTTER:
-                return createFlutterDriver(platform, host, port,
-                        config.platformVersion, config.deviceName, config.udid,
-                        config.appPackage, config.appActivity, config.appPath,
-                        config.noReset, config.fullReset,
-                        config.autoGrantPermissions, config.systemPort,
-                        config.wdaLocalPort, config.bundleId);
-
-            default:
-                throw new IllegalArgumentException("AppType không được hỗ trợ: " + appType);
+        try (TraceRecorder.Span ignored = TraceRecorder.begin("DriverFactory.createDriver", TraceRecorder.SESSION, appType + " " + platform)) {
+            switch (appType) {
+                case NATIVE:
+                    return createNativeDriver(platform, host, port,
+                            config.platformVersion, config.deviceName, config.udid,
+                            config.automationName, config.appPackage, config.appActivity,
+                            config.appPath, config.noReset, config.fullReset,
+                            config.autoGrantPermissions, config.systemPort,
+                            config.wdaLocalPort, config.bundleId);
+
+                case HYBRID:
+                    return createHybridDriver(platform, host, port,
+                            config.platformVersion, config.deviceName, config.udid,
+                            config.automationName, config.appPackage, config.appActivity,
+                            config.appPath, config.noReset, config.fullReset,
+                            config.autoGrantPermissions, config.systemPort,
+                            config.wdaLocalPort, config.bundleId);
+
+                case MOBILE_WEB:
+                    BrowserType browserType = config.browserType != null ?
+                            BrowserType.fromString(config.browserType) : BrowserType.CHROME;
+                    return createMobileWebDriver(platform, browserType, host, port,
+                            config.platformVersion, config.deviceName, config.udid,
+                            config.systemPort, config.wdaLocalPort);
+
+                case FLUTTER:
+                    return createFlutterDriver(platform, host, port,
+                            config.platformVersion, config.deviceName, config.udid,
+                            config.appPackage, config.appActivity, config.appPath,
+                            config.noReset, config.fullReset,
+                            config.autoGrantPermissions, config.systemPort,
+                            config.wdaLocalPort, config.bundleId);
+
+                default:
+                    throw new IllegalArgumentException("AppType không được hỗ trợ: " + appType);
+            }
+        }
+    }
+
+    /**
+     * Gắn các port được PortManager cấp tự động vào session vừa tạo
+     * để trả lại khi session kết thúc
+     */
+    private static void registerSession(AppiumDriver driver) {
+        PortManager.bindReservedPorts(driver.getSessionId().toString());
+    }
+
+    /**
+     * Cấp mjpegServerPort khi SCREENSHOT_CAPTURE_MODE = mjpeg, null nếu dùng lệnh screenshot
+     */
+    private static String resolveMjpegServerPort() {
+        return CaptureHelpers.isMjpegMode() ? PortManager.resolvePort(null, PortType.MJPEG_SERVER_PORT) : null;
+    }
+
+    /**
+     * Mở stream reader cho session vừa tạo (Appium server forward mjpegServerPort từ device về host)
+     */
+    private static void startScreenStream(AppiumDriver driver, String host, String mjpegServerPort) {
+        if (mjpegServerPort != null) {
+            MjpegStreamReader.start(driver.getSessionId().toString(), "http://" + host + ":" + mjpegServerPort);
         }
     }
 
     /**
      * Inner class để chứa driver configuration
+     * equals/hashCode dùng làm key cho session pool
      */
+    @EqualsAndHashCode
     public static class DriverConfig {
         public String platformVersion;
         public String deviceName;
@@ -266,5 +266,23 @@ public class DriverOptionsFactory {
 
         return options;
     }
+
+    /**
+     * Bật MJPEG screen stream của UiAutomator2 trên port chỉ định (bỏ qua nếu port rỗng)
+     */
+    public static void setMjpegServerPort(UiAutomator2Options options, String mjpegServerPort) {
+        if (mjpegServerPort != null && !mjpegServerPort.isEmpty()) {
+            options.setMjpegServerPort(Integer.parseInt(mjpegServerPort));
+        }
+    }
+
+    /**
+     * Bật MJPEG screen stream của WebDriverAgent trên port chỉ định (bỏ qua nếu port rỗng)
+     */
+    public static void setMjpegServerPort(XCUITestOptions options, String mjpegServerPort) {
+        if (mjpegServerPort != null && !mjpegServerPort.isEmpty()) {
+            options.setMjpegServerPort(Integer.parseInt(mjpegServerPort));
+        }
+    }
 }
 
@@ -0,0 +1,135 @@
+package com.company.framework.drivers.factory;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.reports.CommandMetrics;
+import com.company.framework.reports.CurrentTest;
+import com.company.framework.reports.TimingStats;
+import com.company.framework.reports.TraceRecorder;
+import com.company.framework.reports.jfr.DriverCommandEvent;
+import com.company.framework.utils.LogUtils;
+import io.appium.java_client.AppiumClientConfig;
+import org.openqa.selenium.remote.http.Filter;
+
+import java.net.URL;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Cấu hình HTTP client dùng chung cho tất cả AndroidDriver/IOSDriver
+ * - Connection timeout, read timeout cho từng command lấy từ config.properties
+ * - Keep-alive và kích thước connection pool của JDK HttpClient (client mặc định của Selenium)
+ * - Filter đo latency từng loại command và số request đang chạy đồng thời
+ * - Filter cũng ghi histogram theo command và test case (CommandMetrics) cho mọi driver tạo từ DriverFactory
+ */
+public class HttpClientFactory {
+
+    private static final Pattern SESSION_ID = Pattern.compile("/session/[^/]+");
+    private static final Pattern ELEMENT_ID = Pattern.compile("/element/[^/]+");
+
+    private static final Map<String, TimingStats> commandStats = new ConcurrentHashMap<>();
+    private static final AtomicInteger inFlightRequests = new AtomicInteger();
+    private static final AtomicInteger peakInFlightRequests = new AtomicInteger();
+    private static final AtomicLong totalRequests = new AtomicLong();
+
+    static {
+        // JDK HttpClient chỉ đọc các property này khi khởi tạo lần đầu, nên phải set trước khi tạo driver
+        setIfAbsent("jdk.httpclient.keepalive.timeout", ConfigData.HTTP_KEEPALIVE_TIMEOUT);
+        setIfAbsent("jdk.httpclient.connectionPoolSize", ConfigData.HTTP_CONNECTION_POOL_SIZE);
+    }
+
+    private HttpClientFactory() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Tạo client config cho driver kết nối tới Appium server
+     *
+     * @param serverUrl URL của Appium server
+     */
+    public static AppiumClientConfig createClientConfig(URL serverUrl) {
+        return AppiumClientConfig.defaultConfig()
+                .baseUrl(serverUrl)
+                .connectionTimeout(Duration.ofSeconds(parseOrDefault(ConfigData.HTTP_CONNECTION_TIMEOUT, 10)))
+                .readTimeout(Duration.ofSeconds(parseOrDefault(ConfigData.HTTP_READ_TIMEOUT, 180)))
+                .withFilter(metricsFilter());
+    }
+
+    /**
+     * In latency của từng loại command (sắp xếp theo tổng thời gian) và số request đồng thời cao nhất
+     * Gọi từ TestListener.onFinish(ISuite)
+     */
+    public static void logMetrics() {
+        if (totalRequests.get() == 0) {
+            return;
+        }
+        LogUtils.info("📊 [HttpClient] Requests: " + totalRequests.get()
+                + " | Peak in-flight: " + peakInFlightRequests.get());
+        commandStats.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, TimingStats> entry) -> entry.getValue().getTotalMillis()).reversed())
+                .forEach(entry -> LogUtils.info("   " + entry.getKey() + " | " + entry.getValue().summary()));
+    }
+
+    public static long getTotalRequests() {
+        return totalRequests.get();
+    }
+
+    public static int getInFlightRequests() {
+        return inFlightRequests.get();
+    }
+
+    public static int getPeakInFlightRequests() {
+        return peakInFlightRequests.get();
+    }
+
+    private static Filter metricsFilter() {
+        return next -> request -> {
+            String path = normalize(request.getUri());
+            String command = request.getMethod() + " " + path;
+            peakInFlightRequests.accumulateAndGet(inFlightRequests.incrementAndGet(), Math::max);
+            DriverCommandEvent event = new DriverCommandEvent();
+            event.begin();
+            long start = System.currentTimeMillis();
+            try (TraceRecorder.Span ignored = TraceRecorder.begin(
+                    CommandMetrics.toCommandName(request.getMethod().toString(), path), TraceRecorder.COMMAND, command)) {
+                return next.execute(request);
+            } finally {
+                long millis = System.currentTimeMillis() - start;
+                inFlightRequests.decrementAndGet();
+                totalRequests.incrementAndGet();
+                commandStats.computeIfAbsent(command, key -> new TimingStats()).record(millis);
+                CommandMetrics.record(request.getMethod().toString(), path, millis);
+                event.end();
+                if (event.shouldCommit()) {
+                    event.command = CommandMetrics.toCommandName(request.getMethod().toString(), path);
+                    event.path = path;
+                    event.testName = CurrentTest.getName();
+                    event.commit();
+                }
+            }
+        };
+    }
+
+    private static String normalize(String uri) {
+        String path = SESSION_ID.matcher(uri).replaceFirst("/session/:id");
+        return ELEMENT_ID.matcher(path).replaceAll("/element/:id");
+    }
+
+    private static void setIfAbsent(String property, String value) {
+        if (System.getProperty(property) == null && value != null && !value.trim().isEmpty()
+                && Integer.parseInt(value.trim()) > 0) {
+            System.setProperty(property, value.trim());
+        }
+    }
+
+    private static long parseOrDefault(String value, long defaultValue) {
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Long.parseLong(value.trim());
+    }
+}
@@ -0,0 +1,140 @@
+package com.company.framework.drivers.manager;
+
+import com.company.framework.annotations.AppState;
+import com.company.framework.constants.ConfigData;
+import com.company.framework.drivers.factory.DriverFactory;
+import com.company.framework.enums.AppType;
+import com.company.framework.enums.Platform;
+import com.company.framework.enums.ResetLevel;
+import com.company.framework.helpers.wait.ElementCache;
+import com.company.framework.reports.TimingStats;
+import com.company.framework.utils.LogUtils;
+import io.appium.java_client.AppiumDriver;
+import io.appium.java_client.InteractsWithApps;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reset trạng thái app giữa các test trên session được tái sử dụng
+ * Các level được thử từ level test yêu cầu trở lên (NONE < RELAUNCH < CLEAR_DATA < REINSTALL < NEW_SESSION),
+ * level rẻ nhất thành công sẽ được dùng. NEW_SESSION nghĩa là session phải được tạo lại.
+ */
+public class AppResetManager {
+
+    private static final Map<ResetLevel, TimingStats> resetStats = new ConcurrentHashMap<>();
+
+    private AppResetManager() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Level mặc định từ config (APP_RESET_LEVEL), mặc định là RELAUNCH
+     */
+    public static ResetLevel getDefaultLevel() {
+        return ResetLevel.fromString(ConfigData.APP_RESET_LEVEL);
+    }
+
+    /**
+     * Đọc level yêu cầu của test từ @AppState trên method, rồi đến class, cuối cùng là config
+     */
+    public static ResetLevel getRequiredLevel(Method testMethod) {
+        if (testMethod != null) {
+            AppState state = testMethod.getAnnotation(AppState.class);
+            if (state == null) {
+                state = testMethod.getDeclaringClass().getAnnotation(AppState.class);
+            }
+            if (state != null) {
+                return state.value();
+            }
+        }
+        return getDefaultLevel();
+    }
+
+    /**
+     * Reset app với level rẻ nhất đáp ứng yêu cầu
+     *
+     * @return Level đã được áp dụng, NEW_SESSION nếu không level nào thành công (cần tạo session mới)
+     */
+    public static ResetLevel reset(AppiumDriver driver, AppType appType, Platform platform,
+                                   DriverFactory.DriverConfig config, ResetLevel requiredLevel) {
+        ResetLevel[] levels = ResetLevel.values();
+        for (int i = requiredLevel.ordinal(); i < levels.length; i++) {
+            ResetLevel level = levels[i];
+            if (level == ResetLevel.NEW_SESSION) {
+                break;
+            }
+            long start = System.currentTimeMillis();
+            try {
+                apply(driver, appType, platform, config, level);
+                ElementCache.invalidate();
+                long millis = System.currentTimeMillis() - start;
+                resetStats.computeIfAbsent(level, key -> new TimingStats()).record(millis);
+                LogUtils.info("🔄 [AppReset] " + level + " trong " + millis + "ms");
+                return level;
+            } catch (Exception e) {
+                LogUtils.warn("⚠️ [AppReset] " + level + " không thực hiện được, thử level cao hơn: " + e.getMessage());
+            }
+        }
+        resetStats.computeIfAbsent(ResetLevel.NEW_SESSION, key -> new TimingStats()).record(0);
+        return ResetLevel.NEW_SESSION;
+    }
+
+    /**
+     * In số lần và thời gian trung bình/max của từng level reset
+     */
+    public static void logResetStats() {
+        resetStats.forEach((level, stats) -> LogUtils.info("📊 [AppReset] " + level + " | " + stats.summary()));
+    }
+
+    public static long getResetCount(ResetLevel level) {
+        TimingStats stats = resetStats.get(level);
+        return stats == null ? 0 : stats.getCount();
+    }
+
+    private static void apply(AppiumDriver driver, AppType appType, Platform platform,
+                              DriverFactory.DriverConfig config, ResetLevel level) {
+        if (level == ResetLevel.NONE) {
+            return;
+        }
+
+        if (appType == AppType.MOBILE_WEB) {
+            if (level == ResetLevel.REINSTALL) {
+                throw new UnsupportedOperationException("Mobile Web không hỗ trợ reinstall");
+            }
+            if (level == ResetLevel.CLEAR_DATA) {
+                driver.manage().deleteAllCookies();
+            }
+            driver.get("about:blank");
+            return;
+        }
+
+        String appId = platform == Platform.IOS ? config.bundleId : config.appPackage;
+        if (appId == null || appId.isEmpty()) {
+            throw new IllegalStateException("Không có appPackage/bundleId để reset app");
+        }
+        InteractsWithApps apps = (InteractsWithApps) driver;
+
+        switch (level) {
+            case RELAUNCH:
+                apps.terminateApp(appId);
+                break;
+            case CLEAR_DATA:
+                // mobile: clearApp được hỗ trợ bởi UiAutomator2 và XCUITest (chỉ simulator)
+                apps.terminateApp(appId);
+                driver.executeScript("mobile: clearApp", Map.of(platform == Platform.IOS ? "bundleId" : "appId", appId));
+                break;
+            case REINSTALL:
+                if (config.appPath == null || config.appPath.isEmpty()) {
+                    throw new IllegalStateException("Không có appPath để cài lại app");
+                }
+                apps.removeApp(appId);
+                apps.installApp(config.appPath);
+                break;
+            default:
+                throw new IllegalArgumentException("ResetLevel không được hỗ trợ: " + level);
+        }
+        apps.activateApp(appId);
+    }
+}
@@ -2,16 +2,24 @@ package com.company.framework.drivers.manager;
 
 import com.company.framework.constants.ConfigData;
 import com.company.framework.helpers.SystemHelpers;
+import com.company.framework.reports.TimingStats;
 import com.company.framework.utils.LogUtils;
 import io.appium.java_client.service.local.AppiumDriverLocalService;
 import io.appium.java_client.service.local.AppiumServiceBuilder;
 import io.appium.java_client.service.local.flags.GeneralServerFlag;
 import lombok.Getter;
 
+import java.net.HttpURLConnection;
+import java.net.URL;
 import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Quản lý Appium Server - khởi động và dừng server
+ * Lifecycle "suite": mỗi port có một server riêng (worker song song cấu hình port khác nhau không dùng chung server),
+ * các server được khởi động khi suite bắt đầu và dừng khi suite kết thúc
  */
 public class AppiumServerManager {
 
@@ -19,6 +27,12 @@ public class AppiumServerManager {
     private static AppiumDriverLocalService service;
     private static String currentHost;
     private static String currentPort;
+    // Server của lifecycle "suite", theo port
+    private static final Map<String, AppiumDriverLocalService> suiteServers = new ConcurrentHashMap<>();
+
+    private static final int STATUS_TIMEOUT_MILLIS = 2000;
+    private static final AtomicInteger restartCount = new AtomicInteger();
+    private static final TimingStats startupStats = new TimingStats();
 
     /**
      * Khởi động Appium server với host và port được chỉ định
@@ -33,17 +47,18 @@ public class AppiumServerManager {
             return service;
         }
 
-        // Set default values
-        if (host == null || host.isEmpty()) {
-            host = "127.0.0.1";
-        }
-        if (port == null || port.isEmpty()) {
-            port = "4723";
-        }
-
+        host = resolveHost(host);
+        port = resolvePort(port);
         currentHost = host;
         currentPort = port;
+        service = launch(host, port);
+        return service;
+    }
 
+    /**
+     * Build và khởi động một Appium server mới trên host:port
+     */
+    private static AppiumDriverLocalService launch(String host, String port) {
         int timeoutService = Integer.parseInt(ConfigData.TIMEOUT_SERVICE);
 
         SystemHelpers.killProcessOnPort(port);
@@ -56,17 +71,27 @@ public class AppiumServerManager {
         builder.withTimeout(Duration.ofSeconds(timeoutService));
 
         // Start the server
-        service = AppiumDriverLocalService.buildService(builder);
-        service.start();
+        long startTime = System.currentTimeMillis();
+        AppiumDriverLocalService server = AppiumDriverLocalService.buildService(builder);
+        server.start();
+        recordStartup(System.currentTimeMillis() - startTime);
 
-        if (service.isRunning()) {
+        if (server.isRunning()) {
             LogUtils.info("✅ Appium server đã khởi động thành công trên " + host + ":" + port);
         } else {
             LogUtils.error("❌ Không thể khởi động Appium server trên " + host + ":" + port);
             throw new RuntimeException("Failed to start Appium server");
         }
 
-        return service;
+        return server;
+    }
+
+    private static String resolveHost(String host) {
+        return host == null || host.isEmpty() ? "127.0.0.1" : host;
+    }
+
+    private static String resolvePort(String port) {
+        return port == null || port.isEmpty() ? "4723" : port;
     }
 
     /**
@@ -88,5 +113,133 @@ public class AppiumServerManager {
         return service != null && service.isRunning();
     }
 
+    /**
+     * Kiểm tra config có dùng server lifecycle theo suite không (APPIUM_SERVER_LIFECYCLE = suite)
+     */
+    public static boolean isSuiteLifecycle() {
+        return ConfigData.APPIUM_SERVER_LIFECYCLE != null && ConfigData.APPIUM_SERVER_LIFECYCLE.trim().equalsIgnoreCase("suite");
+    }
+
+    /**
+     * Kiểm tra config có dùng pool nhiều server cho các worker song song không (APPIUM_SERVER_LIFECYCLE = pool)
+     */
+    public static boolean isPoolLifecycle() {
+        return ConfigData.APPIUM_SERVER_LIFECYCLE != null && ConfigData.APPIUM_SERVER_LIFECYCLE.trim().equalsIgnoreCase("pool");
+    }
+
+    /**
+     * Chuẩn bị Appium server cho test method hiện tại
+     * - Lifecycle "method": khởi động server như cũ
+     * - Lifecycle "suite": mỗi port một server, khởi động một lần (thường từ lúc suite bắt đầu), các test sau chỉ kiểm tra /status
+     * - Lifecycle "pool": mỗi worker mượn một server riêng trên port động từ AppiumServerPool
+     *
+     * @return Port mà driver cần kết nối tới
+     */
+    public static String prepareServer(String host, String port) {
+        if (isPoolLifecycle()) {
+            return AppiumServerPool.acquireServer(host);
+        }
+        if (isSuiteLifecycle()) {
+            ensureServerRunning(host, port);
+            return resolvePort(port);
+        }
+        startServer(host, port);
+        return currentPort;
+    }
+
+    /**
+     * Giải phóng server sau test method
+     * Server chỉ bị dừng khi lifecycle là "method" và session không được pool lại
+     */
+    public static void releaseServer() {
+        if (isPoolLifecycle()) {
+            AppiumServerPool.releaseServer();
+        } else if (!isSuiteLifecycle() && !DriverPoolManager.isPoolEnabled()) {
+            stopServer();
+        }
+    }
+
+    /**
+     * Đảm bảo server của port đang chạy (lifecycle "suite"): khởi động lần đầu, các lần sau kiểm tra endpoint /status
+     * và chỉ khởi động lại khi server đã chết. Mỗi port có server riêng nên worker cấu hình port khác không dùng chung server
+     */
+    public static synchronized AppiumDriverLocalService ensureServerRunning(String host, String port) {
+        host = resolveHost(host);
+        port = resolvePort(port);
+        AppiumDriverLocalService server = suiteServers.get(port);
+        if (server != null) {
+            if (server.isRunning() && isServerHealthy(host, port)) {
+                return server;
+            }
+            restartCount.incrementAndGet();
+            LogUtils.warn("⚠️ Appium server trên " + host + ":" + port + " không phản hồi /status, đang khởi động lại...");
+            stopSuiteServer(port, server);
+        }
+        server = launch(host, port);
+        suiteServers.put(port, server);
+        return server;
+    }
+
+    private static void stopSuiteServer(String port, AppiumDriverLocalService server) {
+        suiteServers.remove(port);
+        if (server.isRunning()) {
+            server.stop();
+            LogUtils.info("✅ Appium server đã dừng trên port " + port);
+        }
+        SystemHelpers.killProcessOnPort(port);
+    }
+
+    /**
+     * Gọi endpoint /status của Appium server
+     *
+     * @return true nếu server trả về HTTP 200
+     */
+    public static boolean isServerHealthy(String host, String port) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL("http://" + host + ":" + port + "/status").openConnection();
+            connection.setConnectTimeout(STATUS_TIMEOUT_MILLIS);
+            connection.setReadTimeout(STATUS_TIMEOUT_MILLIS);
+            return connection.getResponseCode() == HttpURLConnection.HTTP_OK;
+        } catch (Exception e) {
+            return false;
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    /**
+     * Dừng server (và các server trong pool) khi kết thúc suite, in báo cáo thời gian khởi động / số lần restart
+     */
+    public static synchronized void shutdown() {
+        stopServer();
+        suiteServers.forEach(AppiumServerManager::stopSuiteServer);
+        AppiumServerPool.shutdown();
+        logServerReport();
+    }
+
+    /**
+     * In báo cáo: số lần khởi động, thời gian khởi động trung bình/lớn nhất và số lần restart
+     */
+    public static void logServerReport() {
+        if (startupStats.getCount() == 0) {
+            return;
+        }
+        LogUtils.info("📊 [AppiumServer] Starts: " + startupStats.getCount()
+                + " | Restarts: " + restartCount.get()
+                + " | Startup avg/max: " + startupStats.getAverageMillis() + "ms/" + startupStats.getMaxMillis() + "ms"
+                + " | Total startup time: " + startupStats.getTotalMillis() + "ms");
+    }
+
+    public static int getRestartCount() {
+        return restartCount.get();
+    }
+
+    private static void recordStartup(long startupMillis) {
+        startupStats.record(startupMillis);
+    }
+
 }
 
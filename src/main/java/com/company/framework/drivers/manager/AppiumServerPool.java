@@ -0,0 +1,183 @@
+package com.company.framework.drivers.manager;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.enums.PortType;
+import com.company.framework.utils.LogUtils;
+import io.appium.java_client.service.local.AppiumDriverLocalService;
+import io.appium.java_client.service.local.AppiumServiceBuilder;
+import io.appium.java_client.service.local.flags.GeneralServerFlag;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Pool nhiều Appium server cho các TestNG worker chạy song song
+ * Mỗi worker mượn một AppiumDriverLocalService riêng trên port do PortManager cấp phát,
+ * số server chạy đồng thời bị giới hạn bởi APPIUM_SERVER_POOL_SIZE (mặc định = số CPU core)
+ * Lease "dính" theo worker: khi mượn lại, worker ưu tiên đúng server đã dùng ở test trước (nếu server đó đang rảnh)
+ * vì session trong DriverPoolManager tiếp tục chạy trên server đã tạo ra nó
+ */
+public class AppiumServerPool {
+
+    private static final int POOL_SIZE = resolvePoolSize();
+    private static final Semaphore capacity = new Semaphore(POOL_SIZE, true);
+    private static final ConcurrentLinkedDeque<AppiumDriverLocalService> idleServers = new ConcurrentLinkedDeque<>();
+    private static final List<AppiumDriverLocalService> allServers = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<AppiumDriverLocalService> leasedServer = new ThreadLocal<>();
+    private static final ThreadLocal<AppiumDriverLocalService> lastServer = new ThreadLocal<>();
+
+    static {
+        // Teardown hook: dừng toàn bộ server khi JVM kết thúc
+        Runtime.getRuntime().addShutdownHook(new Thread(AppiumServerPool::shutdown));
+    }
+
+    private AppiumServerPool() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Mượn một Appium server cho worker hiện tại
+     * Ưu tiên server worker đã dùng ở test trước, sau đó tới server đang rảnh, nếu chưa đủ POOL_SIZE thì khởi động server mới,
+     * nếu đã đủ thì chờ đến khi có worker trả server
+     *
+     * @param host Địa chỉ host để bind server
+     * @return Port của server được cấp cho worker
+     */
+    public static String acquireServer(String host) {
+        AppiumDriverLocalService current = leasedServer.get();
+        if (current != null) {
+            if (current.isRunning()) {
+                return String.valueOf(current.getUrl().getPort());
+            }
+            // Server worker đang giữ đã chết: loại khỏi pool và trả permit trước khi mượn server khác
+            LogUtils.warn("⚠️ [AppiumServerPool] Server " + current.getUrl() + " của worker đã chết, đang loại khỏi pool...");
+            stopQuietly(current);
+            leasedServer.remove();
+            lastServer.remove();
+            capacity.release();
+        }
+
+        capacity.acquireUninterruptibly();
+        try {
+            AppiumDriverLocalService service = lastServer.get();
+            if (service == null || !idleServers.remove(service)) {
+                // Server cũ đã bị worker khác mượn: lấy server rảnh lâu nhất, tránh tranh server "dính" của worker khác
+                service = idleServers.pollLast();
+            }
+            if (service != null && !isAlive(service)) {
+                LogUtils.warn("⚠️ [AppiumServerPool] Server " + service.getUrl() + " đã chết, đang khởi động server mới...");
+                stopQuietly(service);
+                service = null;
+            }
+            if (service == null) {
+                service = startNewServer(host);
+            }
+            leasedServer.set(service);
+            lastServer.set(service);
+            return String.valueOf(service.getUrl().getPort());
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Trả server của worker hiện tại về pool (server vẫn chạy để worker khác dùng lại)
+     */
+    public static void releaseServer() {
+        AppiumDriverLocalService service = leasedServer.get();
+        if (service == null) {
+            return;
+        }
+        leasedServer.remove();
+        // Server vừa trả nằm ở đầu hàng đợi, worker khác lấy từ cuối (pollLast) nên thường được chính worker này mượn lại
+        idleServers.offerFirst(service);
+        capacity.release();
+    }
+
+    /**
+     * Dừng toàn bộ server trong pool
+     */
+    public static synchronized void shutdown() {
+        if (allServers.isEmpty()) {
+            return;
+        }
+        int stopped = allServers.size();
+        for (AppiumDriverLocalService service : allServers) {
+            stopQuietly(service);
+        }
+        LogUtils.info("✅ [AppiumServerPool] Đã dừng " + stopped + " Appium server");
+        idleServers.clear();
+    }
+
+    public static int getPoolSize() {
+        return POOL_SIZE;
+    }
+
+    private static AppiumDriverLocalService startNewServer(String host) {
+        if (host == null || host.isEmpty()) {
+            host = "127.0.0.1";
+        }
+
+        AppiumServiceBuilder builder = new AppiumServiceBuilder();
+        builder.withIPAddress(host);
+        int port = PortManager.reservePort(PortType.APPIUM);
+        builder.usingPort(port);
+        builder.withArgument(GeneralServerFlag.LOG_LEVEL, "info");
+        builder.withTimeout(Duration.ofSeconds(Integer.parseInt(ConfigData.TIMEOUT_SERVICE)));
+
+        AppiumDriverLocalService service = AppiumDriverLocalService.buildService(builder);
+        try {
+            service.start();
+        } catch (RuntimeException e) {
+            PortManager.releasePort(port);
+            throw e;
+        }
+
+        if (!service.isRunning()) {
+            PortManager.releasePort(port);
+            LogUtils.error("❌ [AppiumServerPool] Không thể khởi động Appium server trên " + host);
+            throw new RuntimeException("Failed to start pooled Appium server");
+        }
+
+        allServers.add(service);
+        LogUtils.info("✅ [AppiumServerPool] Appium server đã khởi động tại " + service.getUrl()
+                + " (" + allServers.size() + "/" + POOL_SIZE + ")");
+        return service;
+    }
+
+    private static boolean isAlive(AppiumDriverLocalService service) {
+        return service.isRunning() && AppiumServerManager.isServerHealthy(
+                service.getUrl().getHost(), String.valueOf(service.getUrl().getPort()));
+    }
+
+    private static void stopQuietly(AppiumDriverLocalService service) {
+        try {
+            service.stop();
+        } catch (Exception e) {
+            LogUtils.warn("⚠️ [AppiumServerPool] Lỗi khi dừng server " + service.getUrl() + ": " + e.getMessage());
+        }
+        allServers.remove(service);
+        PortManager.releasePort(service.getUrl().getPort());
+    }
+
+    private static int resolvePoolSize() {
+        int poolSize = parseOrDefault(ConfigData.APPIUM_SERVER_POOL_SIZE, 0);
+        return poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+    }
+
+    private static int parseOrDefault(String value, int defaultValue) {
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            LogUtils.warn("⚠️ [AppiumServerPool] APPIUM_SERVER_POOL_SIZE không hợp lệ: " + value + ", dùng giá trị mặc định");
+            return defaultValue;
+        }
+    }
+}
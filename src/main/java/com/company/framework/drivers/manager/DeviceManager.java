@@ -0,0 +1,142 @@
+package com.company.framework.drivers.manager;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.enums.PortType;
+import com.company.framework.utils.LogUtils;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Device scheduler - cho các test chạy song song mượn (lease) device profile từ device.json
+ * Mỗi device chỉ được cấp cho một test tại một thời điểm, khi tất cả device đều bận
+ * thì test sẽ chờ theo thứ tự FIFO (fair) đến khi có device được trả lại
+ */
+public class DeviceManager {
+
+    private static final Map<String, BlockingQueue<DeviceLease>> availableDevices = new ConcurrentHashMap<>();
+    private static final ThreadLocal<DeviceLease> currentLease = new ThreadLocal<>();
+
+    private DeviceManager() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Kiểm tra device scheduler có được bật trong config không
+     */
+    public static boolean isSchedulerEnabled() {
+        return ConfigData.DEVICE_SCHEDULER_ENABLED != null && ConfigData.DEVICE_SCHEDULER_ENABLED.trim().equalsIgnoreCase("true");
+    }
+
+    /**
+     * Mượn một device của platform, chờ nếu tất cả device đều đang được dùng
+     *
+     * @param platformName Tên platform (Android/iOS), mặc định là Android nếu null
+     * @return DeviceLease chứa tên device profile, udid và các port riêng của device
+     */
+    public static DeviceLease acquireDevice(String platformName) {
+        DeviceLease current = currentLease.get();
+        if (current != null) {
+            return current;
+        }
+
+        String platformKey = (platformName == null || platformName.trim().isEmpty()) ? "android" : platformName.trim().toLowerCase();
+        BlockingQueue<DeviceLease> queue = getQueue(platformKey);
+
+        if (queue.isEmpty()) {
+            LogUtils.info("⏳ [DeviceManager] Tất cả device " + platformKey + " đang bận, đang chờ...");
+        }
+        try {
+            DeviceLease lease = queue.take();
+            currentLease.set(lease);
+            LogUtils.info("📱 [DeviceManager] Đã lease device: " + lease.getDeviceConfigName()
+                    + " (systemPort=" + lease.getSystemPort() + ", wdaLocalPort=" + lease.getWdaLocalPort() + ")");
+            return lease;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Bị gián đoạn khi chờ device " + platformKey, e);
+        }
+    }
+
+    /**
+     * Trả device của test hiện tại về scheduler
+     */
+    public static void releaseDevice() {
+        DeviceLease lease = currentLease.get();
+        if (lease == null) {
+            return;
+        }
+        currentLease.remove();
+        getQueue(lease.getPlatformKey()).offer(lease);
+        LogUtils.info("🔙 [DeviceManager] Đã trả device: " + lease.getDeviceConfigName());
+    }
+
+    /**
+     * Lấy device đang được lease bởi thread hiện tại (null nếu không có)
+     */
+    public static DeviceLease getCurrentLease() {
+        return currentLease.get();
+    }
+
+    private static BlockingQueue<DeviceLease> getQueue(String platformKey) {
+        if (availableDevices.isEmpty()) {
+            loadDevices();
+        }
+        BlockingQueue<DeviceLease> queue = availableDevices.get(platformKey);
+        if (queue == null) {
+            throw new IllegalArgumentException("Không có device nào cho platform '" + platformKey + "' trong device.json");
+        }
+        return queue;
+    }
+
+    /**
+     * Đọc tất cả device profile dưới platforms.*.devices và cấp port riêng cho từng device
+     * Port được giữ bởi PortManager trong suốt vòng đời JVM nên không trùng với process khác
+     */
+    private static synchronized void loadDevices() {
+        if (!availableDevices.isEmpty()) {
+            return;
+        }
+
+        for (String platformKey : ConfigData.getPlatformNamesJsonConfig()) {
+            List<DeviceLease> leases = new ArrayList<>();
+            for (String deviceName : ConfigData.getDeviceNamesJsonConfig(platformKey)) {
+                String platformName = ConfigData.getValueJsonConfig(platformKey, deviceName, "platformName");
+                String udid = ConfigData.getValueJsonConfig(platformKey, deviceName, "udid");
+                leases.add(new DeviceLease(
+                        platformKey,
+                        platformName.isEmpty() ? platformKey : platformName,
+                        deviceName,
+                        udid.isEmpty() ? null : udid,
+                        String.valueOf(PortManager.reservePort(PortType.SYSTEM_PORT)),
+                        String.valueOf(PortManager.reservePort(PortType.WDA_LOCAL_PORT))));
+            }
+            if (!leases.isEmpty()) {
+                BlockingQueue<DeviceLease> queue = new ArrayBlockingQueue<>(leases.size(), true);
+                queue.addAll(leases);
+                availableDevices.put(platformKey, queue);
+                LogUtils.info("📋 [DeviceManager] Đã nạp " + leases.size() + " device cho platform " + platformKey);
+            }
+        }
+    }
+
+    /**
+     * Thông tin device được cấp cho một test
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class DeviceLease {
+        private final String platformKey;
+        private final String platformName;
+        private final String deviceConfigName;
+        private final String udid;
+        private final String systemPort;
+        private final String wdaLocalPort;
+    }
+}
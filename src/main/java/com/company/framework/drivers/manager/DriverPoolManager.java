@@ -0,0 +1,285 @@
+package com.company.framework.drivers.manager;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.drivers.DriverManager;
+import com.company.framework.drivers.factory.AsyncDriverFactory;
+import com.company.framework.drivers.factory.DriverFactory;
+import com.company.framework.enums.AppType;
+import com.company.framework.enums.Platform;
+import com.company.framework.enums.ResetLevel;
+import com.company.framework.helpers.screenshot.MjpegStreamReader;
+import com.company.framework.reports.TimingStats;
+import com.company.framework.reports.TraceRecorder;
+import com.company.framework.utils.LogUtils;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.remote.SessionId;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Quản lý pool AppiumDriver session - tái sử dụng session giữa các test method
+ * Session được giữ theo device (udid) + app + capabilities (DriverConfig) + AppType, không theo port của Appium server:
+ * cùng một device chỉ có một session sống trong pool, dù worker đang dùng server nào (APPIUM_SERVER_LIFECYCLE=pool)
+ * Mỗi test mượn (lease) một session còn sống, app được reset giữa các test (AppResetManager)
+ * và chỉ tạo lại session khi health probe hoặc reset thất bại
+ */
+public class DriverPoolManager {
+
+    private static final Map<PoolKey, PooledSession> sessions = new ConcurrentHashMap<>();
+    private static final ThreadLocal<PooledSession> leasedSession = new ThreadLocal<>();
+
+    private static final AtomicLong hitCount = new AtomicLong();
+    private static final AtomicLong missCount = new AtomicLong();
+    private static final AtomicLong recreateCount = new AtomicLong();
+    private static final TimingStats leaseWaitStats = new TimingStats();
+
+    static {
+        // Đảm bảo các session còn lại được đóng khi JVM kết thúc
+        Runtime.getRuntime().addShutdownHook(new Thread(DriverPoolManager::shutdown));
+    }
+
+    private DriverPoolManager() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Kiểm tra session pool có được bật trong config không
+     */
+    public static boolean isPoolEnabled() {
+        return ConfigData.DRIVER_POOL_ENABLED != null && ConfigData.DRIVER_POOL_ENABLED.trim().equalsIgnoreCase("true");
+    }
+
+    /**
+     * Lấy driver cho test hiện tại với reset level mặc định (APP_RESET_LEVEL)
+     */
+    public static AppiumDriver acquireDriver(
+            AppType appType,
+            Platform platform,
+            String host,
+            String port,
+            DriverFactory.DriverConfig config) {
+        return acquireDriver(appType, platform, host, port, config, AppResetManager.getDefaultLevel());
+    }
+
+    /**
+     * Lấy driver cho test hiện tại và set vào DriverManager
+     * Nếu pool bị tắt, driver luôn được tạo mới qua DriverFactory (hoặc lấy từ session đã pre-warm)
+     * Nếu session được tái sử dụng, app được reset theo level rẻ nhất đáp ứng requiredReset
+     *
+     * @return AppiumDriver đã sẵn sàng cho test
+     */
+    public static AppiumDriver acquireDriver(
+            AppType appType,
+            Platform platform,
+            String host,
+            String port,
+            DriverFactory.DriverConfig config,
+            ResetLevel requiredReset) {
+
+        try (TraceRecorder.Span ignored = TraceRecorder.begin("DriverPoolManager.acquireDriver", TraceRecorder.SESSION, appType + " " + platform)) {
+            SessionPrewarmer.SessionRequest request = new SessionPrewarmer.SessionRequest(appType, platform, host, port, config);
+
+            if (!isPoolEnabled()) {
+                AppiumDriver driver = SessionPrewarmer.takeWarmSession(request);
+                if (driver == null) {
+                    driver = AsyncDriverFactory.createDriver(appType, platform, host, port, config);
+                }
+                DriverManager.setDriver(driver);
+                // Tạo sẵn session cho test kế tiếp trong khi test hiện tại chạy
+                SessionPrewarmer.prewarmNext(request);
+                return driver;
+            }
+
+            PoolKey key = new PoolKey(appType, platform, config);
+            PooledSession session = sessions.computeIfAbsent(key, k -> new PooledSession());
+
+            long waitStart = System.currentTimeMillis();
+            session.lease.acquireUninterruptibly();
+            recordLeaseWait(System.currentTimeMillis() - waitStart);
+
+            try {
+                if (session.driver != null && isHealthy(session.driver)
+                        && AppResetManager.reset(session.driver, appType, platform, config, requiredReset) != ResetLevel.NEW_SESSION) {
+                    hitCount.incrementAndGet();
+                    LogUtils.info("♻️ [DriverPool] Tái sử dụng session: " + session.driver.getSessionId());
+                } else {
+                    if (session.driver != null) {
+                        recreateCount.incrementAndGet();
+                        LogUtils.warn("⚠️ [DriverPool] Session không dùng lại được, đang tạo lại: " + session.driver.getSessionId());
+                        quitQuietly(session.driver);
+                        session.driver = null;
+                    }
+                    missCount.incrementAndGet();
+                    closeOtherSessionsOnDevice(key);
+                    AppiumDriver warmDriver = SessionPrewarmer.takeWarmSession(request);
+                    session.driver = warmDriver != null ? warmDriver : AsyncDriverFactory.createDriver(appType, platform, host, port, config);
+                    LogUtils.info("🆕 [DriverPool] Đã tạo session mới: " + session.driver.getSessionId());
+                }
+            } catch (RuntimeException e) {
+                session.lease.release();
+                throw e;
+            }
+
+            leasedSession.set(session);
+            DriverManager.setDriver(session.driver);
+            // Tạo sẵn session cho test kế tiếp (device khác) trong khi test hiện tại chạy
+            SessionPrewarmer.prewarmNext(request);
+            return session.driver;
+        }
+    }
+
+    /**
+     * Trả driver của test hiện tại về pool
+     * Nếu pool bị tắt (hoặc driver không được mượn từ pool), driver sẽ bị quit
+     */
+    public static void releaseDriver() {
+        PooledSession session = leasedSession.get();
+        if (session == null) {
+            DriverManager.quitDriver();
+            return;
+        }
+
+        leasedSession.remove();
+        DriverManager.unloadDriver();
+        session.lease.release();
+        LogUtils.info("🔙 [DriverPool] Đã trả session về pool");
+    }
+
+    /**
+     * Đóng toàn bộ session trong pool và in metrics
+     */
+    public static synchronized void shutdown() {
+        SessionPrewarmer.shutdown();
+        if (sessions.isEmpty()) {
+            return;
+        }
+        for (PooledSession session : sessions.values()) {
+            if (session.driver != null) {
+                quitQuietly(session.driver);
+                session.driver = null;
+            }
+        }
+        sessions.clear();
+        logPoolStats();
+    }
+
+    /**
+     * In metrics của pool: hit/miss, số lần tạo lại và thời gian chờ lease
+     */
+    public static void logPoolStats() {
+        LogUtils.info("📊 [DriverPool] Leases: " + leaseWaitStats.getCount()
+                + " | Hits: " + hitCount.get()
+                + " | Misses: " + missCount.get()
+                + " | Recreated: " + recreateCount.get()
+                + " | Lease wait avg/max: " + leaseWaitStats.getAverageMillis() + "ms/" + leaseWaitStats.getMaxMillis() + "ms");
+        AppResetManager.logResetStats();
+    }
+
+    /**
+     * Pool đã có session cho request (test dùng request này sẽ lease session đó thay vì tạo mới)
+     */
+    static boolean hasSession(SessionPrewarmer.SessionRequest request) {
+        if (!isPoolEnabled()) {
+            return false;
+        }
+        PooledSession session = sessions.get(new PoolKey(request.appType(), request.platform(), request.config()));
+        return session != null && session.driver != null;
+    }
+
+    public static long getHitCount() {
+        return hitCount.get();
+    }
+
+    public static long getMissCount() {
+        return missCount.get();
+    }
+
+    public static long getRecreateCount() {
+        return recreateCount.get();
+    }
+
+    public static long getTotalLeaseWaitMillis() {
+        return leaseWaitStats.getTotalMillis();
+    }
+
+    private static void recordLeaseWait(long waitMillis) {
+        leaseWaitStats.record(waitMillis);
+    }
+
+    /**
+     * Đóng các session khác của pool trên cùng device trước khi tạo session mới
+     * (hai session cùng điều khiển một device sẽ tranh nhau instrumentation / WDA)
+     * Session đang được test khác mượn thì không đóng được, chỉ cảnh báo
+     */
+    private static void closeOtherSessionsOnDevice(PoolKey key) {
+        String device = key.device();
+        if (device == null) {
+            return;
+        }
+        sessions.forEach((otherKey, other) -> {
+            if (otherKey.equals(key) || !device.equals(otherKey.device()) || other.driver == null) {
+                return;
+            }
+            if (!other.lease.tryAcquire()) {
+                LogUtils.warn("⚠️ [DriverPool] Device " + device + " đang có session khác được sử dụng: " + other.driver.getSessionId());
+                return;
+            }
+            try {
+                if (other.driver != null) {
+                    LogUtils.info("🔁 [DriverPool] Đóng session cũ trên device " + device + ": " + other.driver.getSessionId());
+                    quitQuietly(other.driver);
+                    other.driver = null;
+                }
+            } finally {
+                other.lease.release();
+            }
+        });
+    }
+
+    /**
+     * Health probe: gửi một command nhẹ tới session, lỗi bất kỳ nghĩa là session đã chết
+     */
+    private static boolean isHealthy(AppiumDriver driver) {
+        try {
+            driver.manage().timeouts().getImplicitWaitTimeout();
+            return driver.getSessionId() != null;
+        } catch (Exception e) {
+            LogUtils.warn("⚠️ [DriverPool] Health probe thất bại: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void quitQuietly(AppiumDriver driver) {
+        SessionId sessionId = driver.getSessionId();
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            LogUtils.warn("⚠️ [DriverPool] Lỗi khi quit session: " + e.getMessage());
+        }
+        PortManager.releaseSessionPorts(sessionId != null ? sessionId.toString() : null);
+        MjpegStreamReader.stop(sessionId != null ? sessionId.toString() : null);
+    }
+
+    /**
+     * Key của pool: cùng AppType, platform và DriverConfig (udid, app, capabilities) thì dùng chung session
+     * Host/port của server không thuộc key: session đã tạo trên server nào thì tiếp tục chạy trên server đó
+     */
+    private record PoolKey(AppType appType, Platform platform, DriverFactory.DriverConfig config) {
+
+        /**
+         * Device của session: udid, hoặc deviceName khi không chỉ định udid (null nếu Appium tự chọn device)
+         */
+        private String device() {
+            String id = config.udid != null && !config.udid.trim().isEmpty() ? config.udid : config.deviceName;
+            return id == null || id.trim().isEmpty() ? null : platform + ":" + id.trim();
+        }
+    }
+
+    private static class PooledSession {
+        private final Semaphore lease = new Semaphore(1, true);
+        private volatile AppiumDriver driver;
+    }
+}
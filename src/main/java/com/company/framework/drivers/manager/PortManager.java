@@ -0,0 +1,174 @@
+package com.company.framework.drivers.manager;
+
+import com.company.framework.enums.PortType;
+import com.company.framework.utils.LogUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cấp phát port không xung đột cho systemPort, wdaLocalPort, chromedriverPort và Appium server
+ * - An toàn giữa các thread: mỗi port chỉ được giữ bởi một reservation trong JVM
+ * - An toàn giữa các process: mỗi port được khóa bằng file lock trong thư mục temp của hệ thống
+ * - Port chỉ được cấp khi thực sự bind được trên máy (không có process nào khác đang dùng)
+ */
+public class PortManager {
+
+    private static final File LOCK_DIR = new File(System.getProperty("java.io.tmpdir"), "appium-port-locks");
+
+    private static final Map<Integer, PortLock> reservedPorts = new ConcurrentHashMap<>();
+    private static final Map<String, List<Integer>> sessionPorts = new ConcurrentHashMap<>();
+    private static final ThreadLocal<List<Integer>> pendingPorts = ThreadLocal.withInitial(ArrayList::new);
+
+    private PortManager() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Giữ một port trống trong dải port của PortType
+     *
+     * @return Port đã được giữ, cần gọi releasePort khi không dùng nữa
+     */
+    public static int reservePort(PortType portType) {
+        for (int port = portType.getRangeStart(); port <= portType.getRangeEnd(); port++) {
+            if (reservedPorts.containsKey(port)) {
+                continue;
+            }
+            PortLock lock = tryLock(port);
+            if (lock == null) {
+                continue;
+            }
+            if (reservedPorts.putIfAbsent(port, lock) != null) {
+                lock.release();
+                continue;
+            }
+            if (!isPortFree(port)) {
+                releasePort(port);
+                continue;
+            }
+            LogUtils.info("🔌 [PortManager] Đã cấp " + portType + " port: " + port);
+            return port;
+        }
+        throw new IllegalStateException("Không còn port trống cho " + portType
+                + " trong dải " + portType.getRangeStart() + "-" + portType.getRangeEnd());
+    }
+
+    /**
+     * Trả port về cho các thread/process khác sử dụng
+     */
+    public static void releasePort(int port) {
+        PortLock lock = reservedPorts.remove(port);
+        if (lock != null) {
+            lock.release();
+        }
+    }
+
+    /**
+     * Trả về port được cấu hình nếu có, nếu không thì cấp port mới cho session sắp tạo
+     * Port mới được giữ ở trạng thái "pending" cho đến khi bindReservedPorts gắn nó vào session
+     */
+    public static String resolvePort(String configuredPort, PortType portType) {
+        if (configuredPort != null && !configuredPort.trim().isEmpty()) {
+            return configuredPort;
+        }
+        int port = reservePort(portType);
+        pendingPorts.get().add(port);
+        return String.valueOf(port);
+    }
+
+    /**
+     * Gắn các port pending của thread hiện tại vào session vừa được tạo
+     */
+    public static void bindReservedPorts(String sessionId) {
+        List<Integer> ports = pendingPorts.get();
+        if (!ports.isEmpty()) {
+            sessionPorts.put(sessionId, new ArrayList<>(ports));
+            ports.clear();
+        }
+    }
+
+    /**
+     * Trả các port pending khi tạo session thất bại
+     */
+    public static void releaseReservedPorts() {
+        List<Integer> ports = pendingPorts.get();
+        for (int port : ports) {
+            releasePort(port);
+        }
+        ports.clear();
+    }
+
+    /**
+     * Trả toàn bộ port đã gắn với session (gọi khi session kết thúc)
+     */
+    public static void releaseSessionPorts(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        List<Integer> ports = sessionPorts.remove(sessionId);
+        if (ports != null) {
+            ports.forEach(PortManager::releasePort);
+        }
+    }
+
+    /**
+     * Kiểm tra port có đang trống trên máy hay không bằng cách thử bind
+     */
+    public static boolean isPortFree(int port) {
+        try (ServerSocket socket = new ServerSocket()) {
+            socket.setReuseAddress(false);
+            socket.bind(new InetSocketAddress("127.0.0.1", port));
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static PortLock tryLock(int port) {
+        RandomAccessFile file = null;
+        try {
+            LOCK_DIR.mkdirs();
+            file = new RandomAccessFile(new File(LOCK_DIR, port + ".lock"), "rw");
+            FileChannel channel = file.getChannel();
+            FileLock lock = channel.tryLock();
+            if (lock != null) {
+                return new PortLock(file, lock);
+            }
+        } catch (IOException | OverlappingFileLockException e) {
+            // Port đang bị process/thread khác giữ
+        }
+        closeQuietly(file);
+        return null;
+    }
+
+    private static void closeQuietly(RandomAccessFile file) {
+        if (file != null) {
+            try {
+                file.close();
+            } catch (IOException ignored) {
+                // Không cần xử lý
+            }
+        }
+    }
+
+    private record PortLock(RandomAccessFile file, FileLock lock) {
+        void release() {
+            try {
+                lock.release();
+            } catch (IOException ignored) {
+                // Không cần xử lý
+            }
+            closeQuietly(file);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.company.framework.drivers.manager;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.drivers.factory.AsyncDriverFactory;
+import com.company.framework.drivers.factory.DriverFactory;
+import com.company.framework.enums.AppType;
+import com.company.framework.enums.Platform;
+import com.company.framework.helpers.screenshot.MjpegStreamReader;
+import com.company.framework.utils.LogUtils;
+import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.remote.SessionId;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pre-warm session - tạo sẵn session cho test kế tiếp trên thread nền trong khi test hiện tại đang chạy
+ * Session kế tiếp được lấy từ hàng đợi DriverConfig (enqueue, ví dụ SessionLookahead đọc parameters của test kế tiếp),
+ * hàng đợi rỗng thì không pre-warm
+ * Chỉ pre-warm khi chắc chắn session kế tiếp chạy trên device khác với test hiện tại:
+ * một device chỉ giữ được một session UiAutomator2/WDA, udid không xác định được coi là cùng device
+ * Tự tắt khi Appium server local bị dừng sau mỗi method (session pre-warm sẽ chết theo server)
+ * hoặc khi dùng lifecycle pool (port server của test kế tiếp không biết trước)
+ */
+public class SessionPrewarmer {
+
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "session-prewarmer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ConcurrentLinkedDeque<SessionRequest> queuedRequests = new ConcurrentLinkedDeque<>();
+    private static final Map<SessionRequest, Future<AppiumDriver>> warmSessions = new ConcurrentHashMap<>();
+
+    private static final AtomicLong warmHitCount = new AtomicLong();
+    private static final AtomicLong warmMissCount = new AtomicLong();
+    private static final AtomicLong skippedCount = new AtomicLong();
+    private static final AtomicBoolean lifecycleWarned = new AtomicBoolean();
+
+    static {
+        // Đóng các session đã pre-warm nhưng chưa được dùng khi JVM kết thúc
+        Runtime.getRuntime().addShutdownHook(new Thread(SessionPrewarmer::shutdown));
+    }
+
+    private SessionPrewarmer() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Kiểm tra pre-warm session có được bật trong config không
+     */
+    public static boolean isPrewarmEnabled() {
+        if (ConfigData.SESSION_PREWARM_ENABLED == null || !ConfigData.SESSION_PREWARM_ENABLED.trim().equalsIgnoreCase("true")) {
+            return false;
+        }
+        if (!isServerKeptAcrossTests()) {
+            if (lifecycleWarned.compareAndSet(false, true)) {
+                LogUtils.warn("⚠️ [Prewarm] SESSION_PREWARM_ENABLED bị bỏ qua: Appium server local dừng sau mỗi method"
+                        + " hoặc chạy theo pool (APPIUM_SERVER_LIFECYCLE = " + ConfigData.APPIUM_SERVER_LIFECYCLE + ")");
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Đưa config của các test sắp chạy vào hàng đợi pre-warm (theo thứ tự chạy)
+     */
+    public static void enqueue(AppType appType, Platform platform, String host, String port, DriverFactory.DriverConfig config) {
+        queuedRequests.offerLast(new SessionRequest(appType, platform, host, port, config));
+    }
+
+    /**
+     * Lấy session đã được pre-warm cho request (chờ nếu session vẫn đang được tạo)
+     *
+     * @return AppiumDriver đã sẵn sàng, hoặc null nếu không có session pre-warm phù hợp
+     */
+    public static AppiumDriver takeWarmSession(SessionRequest request) {
+        Future<AppiumDriver> future = warmSessions.remove(request);
+        if (future == null) {
+            if (isPrewarmEnabled()) {
+                warmMissCount.incrementAndGet();
+            }
+            // Đoán sai config của test này: session pre-warm trên cùng device phải đóng trước khi tạo session mới
+            discardWarmSessionsOnDevice(request);
+            return null;
+        }
+
+        try {
+            AppiumDriver driver = future.get();
+            if (!isAlive(driver)) {
+                warmMissCount.incrementAndGet();
+                quitQuietly(driver);
+                return null;
+            }
+            warmHitCount.incrementAndGet();
+            LogUtils.info("🔥 [Prewarm] Sử dụng session đã pre-warm: " + driver.getSessionId());
+            return driver;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            warmMissCount.incrementAndGet();
+            LogUtils.warn("⚠️ [Prewarm] Tạo session pre-warm thất bại: " + e.getCause().getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Bắt đầu tạo session cho test kế tiếp trên thread nền
+     *
+     * @param current Request của test đang chạy (session kế tiếp phải ở device khác)
+     */
+    public static void prewarmNext(SessionRequest current) {
+        if (!isPrewarmEnabled() || !warmSessions.isEmpty()) {
+            return;
+        }
+
+        SessionRequest next = queuedRequests.pollFirst();
+        if (next == null) {
+            return;
+        }
+        if (sharesDevice(next, current)) {
+            skippedCount.incrementAndGet();
+            LogUtils.info("⏭️ [Prewarm] Bỏ qua pre-warm vì không chắc session kế tiếp ở device khác (udid: "
+                    + next.config().udid + ")");
+            return;
+        }
+        if (DriverPoolManager.hasSession(next)) {
+            // Test kế tiếp sẽ dùng lại session trong pool, session thứ hai trên device đó sẽ làm chết session pool
+            skippedCount.incrementAndGet();
+            return;
+        }
+
+        SessionRequest request = next;
+        warmSessions.put(request, executor.submit(() -> {
+            long start = System.currentTimeMillis();
+            AppiumDriver driver = AsyncDriverFactory.createDriver(
+                    request.appType(), request.platform(), request.host(), request.port(), request.config());
+            LogUtils.info("🔥 [Prewarm] Đã pre-warm session " + driver.getSessionId()
+                    + " trong " + (System.currentTimeMillis() - start) + "ms");
+            return driver;
+        }));
+    }
+
+    /**
+     * Đóng các session pre-warm chưa được dùng và in metrics
+     */
+    public static synchronized void shutdown() {
+        if (warmSessions.isEmpty() && warmHitCount.get() == 0 && warmMissCount.get() == 0) {
+            return;
+        }
+        for (Future<AppiumDriver> future : warmSessions.values()) {
+            try {
+                quitQuietly(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ignored) {
+                // Session chưa từng được tạo, không cần đóng
+            }
+        }
+        warmSessions.clear();
+        queuedRequests.clear();
+        LogUtils.info("📊 [Prewarm] Hits: " + warmHitCount.get()
+                + " | Misses: " + warmMissCount.get()
+                + " | Skipped: " + skippedCount.get());
+    }
+
+    public static long getWarmHitCount() {
+        return warmHitCount.get();
+    }
+
+    public static long getWarmMissCount() {
+        return warmMissCount.get();
+    }
+
+    /**
+     * Hai request được coi là cùng device nếu trùng udid hoặc một trong hai không có udid
+     */
+    private static boolean sharesDevice(SessionRequest next, SessionRequest current) {
+        String nextUdid = next.config().udid;
+        String currentUdid = current.config().udid;
+        if (nextUdid == null || nextUdid.trim().isEmpty() || currentUdid == null || currentUdid.trim().isEmpty()) {
+            return true;
+        }
+        return nextUdid.trim().equals(currentUdid.trim());
+    }
+
+    private static void discardWarmSessionsOnDevice(SessionRequest request) {
+        if (warmSessions.isEmpty()) {
+            return;
+        }
+        for (SessionRequest warmRequest : warmSessions.keySet()) {
+            if (!sharesDevice(warmRequest, request)) {
+                continue;
+            }
+            Future<AppiumDriver> future = warmSessions.remove(warmRequest);
+            if (future == null) {
+                continue;
+            }
+            try {
+                quitQuietly(future.get());
+                LogUtils.info("🗑️ [Prewarm] Đã đóng session pre-warm không khớp config của test trên device " + warmRequest.config().udid);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ignored) {
+                // Session chưa từng được tạo, không cần đóng
+            }
+        }
+    }
+
+    /**
+     * Server giữ nguyên giữa các test: server ngoài (APPIUM_DRIVER_LOCAL_SERVICE = false), lifecycle suite,
+     * hoặc lifecycle method khi session pool bật (AppiumServerManager.releaseServer không dừng server)
+     */
+    private static boolean isServerKeptAcrossTests() {
+        boolean localService = ConfigData.APPIUM_DRIVER_LOCAL_SERVICE != null
+                && ConfigData.APPIUM_DRIVER_LOCAL_SERVICE.trim().equalsIgnoreCase("true");
+        if (!localService || AppiumServerManager.isSuiteLifecycle()) {
+            return true;
+        }
+        return !AppiumServerManager.isPoolLifecycle() && DriverPoolManager.isPoolEnabled();
+    }
+
+    private static boolean isAlive(AppiumDriver driver) {
+        try {
+            driver.manage().timeouts().getImplicitWaitTimeout();
+            return driver.getSessionId() != null;
+        } catch (Exception e) {
+            LogUtils.warn("⚠️ [Prewarm] Session pre-warm đã hết hạn: " + e.getMessage());
+            return false;
+        }
+    }
+
+    private static void quitQuietly(AppiumDriver driver) {
+        SessionId sessionId = driver.getSessionId();
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            LogUtils.warn("⚠️ [Prewarm] Lỗi khi quit session: " + e.getMessage());
+        }
+        PortManager.releaseSessionPorts(sessionId != null ? sessionId.toString() : null);
+        MjpegStreamReader.stop(sessionId != null ? sessionId.toString() : null);
+    }
+
+    /**
+     * Thông tin cần để tạo một session: cùng AppType, platform, server và DriverConfig thì dùng chung session pre-warm
+     */
+    public record SessionRequest(AppType appType, Platform platform, String host, String port, DriverFactory.DriverConfig config) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.company.framework.enums;
+
+import lombok.*;
+
+@Getter
+@AllArgsConstructor
+
+public enum PortType {
+    /**
+     * Port của Appium server
+     */
+    APPIUM(4723, 4822),
+
+    /**
+     * systemPort của UiAutomator2 (Android)
+     */
+    SYSTEM_PORT(8200, 8299),
+
+    /**
+     * wdaLocalPort của WebDriverAgent (iOS)
+     */
+    WDA_LOCAL_PORT(8100, 8199),
+
+    /**
+     * chromedriverPort cho WebView / Chrome trên Android
+     */
+    CHROMEDRIVER_PORT(9515, 9614),
+
+    /**
+     * mjpegServerPort - MJPEG screen stream của UiAutomator2 / WebDriverAgent (SCREENSHOT_CAPTURE_MODE = mjpeg)
+     */
+    MJPEG_SERVER_PORT(7810, 7909);
+
+    private final int rangeStart;
+    private final int rangeEnd;
+}
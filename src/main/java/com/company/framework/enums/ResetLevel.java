@@ -0,0 +1,47 @@
+package com.company.framework.enums;
+
+import lombok.*;
+
+@Getter
+@AllArgsConstructor
+
+public enum ResetLevel {
+    /**
+     * Giữ nguyên trạng thái app từ test trước
+     */
+    NONE("none"),
+
+    /**
+     * Đóng và mở lại app (giữ dữ liệu)
+     */
+    RELAUNCH("relaunch"),
+
+    /**
+     * Xóa dữ liệu app rồi mở lại (tương đương cài mới nhưng không cài lại APK/IPA)
+     */
+    CLEAR_DATA("clear_data"),
+
+    /**
+     * Gỡ và cài lại app từ appPath
+     */
+    REINSTALL("reinstall"),
+
+    /**
+     * Tạo session mới hoàn toàn (đắt nhất)
+     */
+    NEW_SESSION("new_session");
+
+    private final String value;
+
+    public static ResetLevel fromString(String level) {
+        if (level == null || level.trim().isEmpty()) {
+            return RELAUNCH;
+        }
+        for (ResetLevel l : ResetLevel.values()) {
+            if (l.value.equalsIgnoreCase(level.trim()) || l.name().equalsIgnoreCase(level.trim())) {
+                return l;
+            }
+        }
+        throw new IllegalArgumentException("ResetLevel không hợp lệ: " + level);
+    }
+}
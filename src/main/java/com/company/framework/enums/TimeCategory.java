@@ -0,0 +1,67 @@
+package com.company.framework.enums;
+
+import lombok.*;
+
+@Getter
+@AllArgsConstructor
+
+public enum TimeCategory {
+    /**
+     * Sleep cố định (NativeUI.sleep, pacing fixed, sleep trước khi dừng video, backoff tạo driver)
+     */
+    SLEEP("sleep"),
+
+    /**
+     * Chờ điều kiện (explicit wait, adaptive pacing), gồm cả các command polling bên trong
+     */
+    WAIT("wait"),
+
+    /**
+     * WebDriver command tới Appium server / device, gồm cả tạo session
+     */
+    DEVICE("device"),
+
+    /**
+     * Chụp screenshot, ghi và lưu video
+     */
+    ARTIFACT("artifact"),
+
+    /**
+     * Thời gian còn lại: code framework (keyword, listener...) và code test
+     */
+    OVERHEAD("overhead");
+
+    private final String value;
+
+    /**
+     * Category tính thời gian của một span trong TraceRecorder
+     * Span keyword và span chưa biết tính là OVERHEAD (chỉ phần thời gian không thuộc span con)
+     */
+    public static TimeCategory fromSpanCategory(String spanCategory) {
+        if (spanCategory == null) {
+            return OVERHEAD;
+        }
+        switch (spanCategory) {
+            case "sleep":
+                return SLEEP;
+            case "wait":
+                return WAIT;
+            case "command":
+            case "session":
+                return DEVICE;
+            case "screenshot":
+            case "video":
+                return ARTIFACT;
+            default:
+                return OVERHEAD;
+        }
+    }
+
+    /**
+     * WAIT và ARTIFACT giữ nguyên category cho các span con
+     * (command polling trong wait tính là chờ, command chụp ảnh trong screenshot tính là artifact)
+     */
+    public boolean absorbsChildren() {
+        return this == WAIT || this == ARTIFACT;
+    }
+}
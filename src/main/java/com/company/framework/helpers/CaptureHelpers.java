@@ -2,12 +2,15 @@ package com.company.framework.helpers;
 
 import com.company.framework.constants.ConfigData;
 import com.company.framework.drivers.DriverManager;
+import com.company.framework.helpers.screenshot.MjpegStreamReader;
+import com.company.framework.reports.TraceRecorder;
 import com.company.framework.utils.DateUtils;
 import io.appium.java_client.android.AndroidDriver;
 import io.appium.java_client.android.AndroidStartScreenRecordingOptions;
 import io.appium.java_client.screenrecording.CanRecordScreen;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.remote.SessionId;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -35,18 +38,12 @@ public class CaptureHelpers {
      * @param suiteName Tên suite để tạo thư mục con (ví dụ: "SuiteMobileWeb").
      */
     public static void captureScreenshot(String fileName, String suiteName) {
-        try {
+        try (TraceRecorder.Span ignored = TraceRecorder.begin("CaptureHelpers.captureScreenshot", TraceRecorder.SCREENSHOT, fileName)) {
             // Ép kiểu driver thành TakesScreenshot để lấy ảnh màn hình
             File srcFile = ((TakesScreenshot) DriverManager.getDriver()).getScreenshotAs(OutputType.FILE);
 
-            // Sanitize suite name để dùng làm folder name
-            String sanitizedSuiteName = SystemHelpers.makeSlug(suiteName);
-            String screenshotPath = ConfigData.SCREENSHOT_PATH + sanitizedSuiteName + File.separator;
-            SystemHelpers.createFolder(SystemHelpers.getCurrentDir() + screenshotPath);
-            String filePath = SystemHelpers.getCurrentDir() + screenshotPath + fileName + "_" + Thread.currentThread().getId() + "_" + SystemHelpers.makeSlug(DateUtils.getCurrentDateTime()) + ".png";
-
             // Tạo đối tượng Path cho file đích
-            Path targetPath = new File(filePath).toPath();
+            Path targetPath = getScreenshotFilePath(fileName, suiteName);
 
             // Sao chép file từ nguồn sang đích, thay thế file nếu đã tồn tại
             Files.copy(srcFile.toPath(), targetPath, StandardCopyOption.REPLACE_EXISTING);
@@ -60,14 +57,77 @@ public class CaptureHelpers {
         }
     }
 
+    /**
+     * Lưu ảnh đã chụp sẵn (ví dụ frame lỗi dùng chung trong TestScreenshotCache) vào thư mục screenshots của suite,
+     * không gửi thêm lệnh screenshot tới device.
+     *
+     * @param png       Nội dung ảnh PNG
+     * @param fileName  Tên file (không gồm đuôi .png)
+     * @param suiteName Tên suite để tạo thư mục con
+     */
+    public static void saveScreenshot(byte[] png, String fileName, String suiteName) {
+        if (png == null) {
+            return;
+        }
+        try {
+            Path targetPath = getScreenshotFilePath(fileName, suiteName);
+            Files.write(targetPath, png);
+            System.out.println("Lưu ảnh màn hình thành công, lưu tại: " + targetPath.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Lỗi trong quá trình lưu file ảnh: " + e.getMessage());
+        }
+    }
+
+    private static Path getScreenshotFilePath(String fileName, String suiteName) {
+        // Sanitize suite name để dùng làm folder name
+        String sanitizedSuiteName = SystemHelpers.makeSlug(suiteName);
+        String screenshotPath = ConfigData.SCREENSHOT_PATH + sanitizedSuiteName + File.separator;
+        SystemHelpers.createFolder(SystemHelpers.getCurrentDir() + screenshotPath);
+        String filePath = SystemHelpers.getCurrentDir() + screenshotPath + fileName + "_" + Thread.currentThread().getId() + "_" + SystemHelpers.makeSlug(DateUtils.getCurrentDateTime()) + ".png";
+        return new File(filePath).toPath();
+    }
+
+    /**
+     * SCREENSHOT_CAPTURE_MODE = mjpeg: screenshot step lấy từ MJPEG stream (mjpegServerPort) thay vì lệnh getScreenshotAs
+     */
+    public static boolean isMjpegMode() {
+        return "mjpeg".equalsIgnoreCase(ConfigData.SCREENSHOT_CAPTURE_MODE);
+    }
+
+    /**
+     * Lấy frame mới nhất của MJPEG stream cho session hiện tại, không gửi lệnh nào tới device.
+     *
+     * @return Ảnh JPEG, hoặc null nếu không ở chế độ mjpeg / chưa có frame / stream mất kết nối và frame cũ hơn MJPEG_MAX_FRAME_AGE
+     */
+    public static byte[] getStreamFrame() {
+        if (!isMjpegMode() || DriverManager.getDriver() == null) {
+            return null;
+        }
+        SessionId sessionId = DriverManager.getDriver().getSessionId();
+        if (sessionId == null) {
+            return null;
+        }
+        return MjpegStreamReader.getLatestFrame(sessionId.toString(), getMaxFrameAgeMillis());
+    }
+
+    private static long getMaxFrameAgeMillis() {
+        String value = ConfigData.MJPEG_MAX_FRAME_AGE;
+        if (value == null || value.trim().isEmpty()) {
+            return 1000;
+        }
+        return Long.parseLong(value.trim());
+    }
+
     // Bắt đầu ghi video
     public static void startRecording() {
         if (DriverManager.getDriver() != null) {
-            ((AndroidDriver) DriverManager.getDriver()).startRecordingScreen(
-                    new AndroidStartScreenRecordingOptions()
-                            .withBitRate(4000000) // default: 4000000
-                            .withVideoSize("1080x2400") // 720 x 1600, 1080 x 2400 pixels
-                            .withTimeLimit(Duration.ofMinutes(10))); // 10 minutes max video length
+            try (TraceRecorder.Span ignored = TraceRecorder.begin("CaptureHelpers.startRecording", TraceRecorder.VIDEO)) {
+                ((AndroidDriver) DriverManager.getDriver()).startRecordingScreen(
+                        new AndroidStartScreenRecordingOptions()
+                                .withBitRate(4000000) // default: 4000000
+                                .withVideoSize("1080x2400") // 720 x 1600, 1080 x 2400 pixels
+                                .withTimeLimit(Duration.ofMinutes(10))); // 10 minutes max video length
+            }
             System.out.println("Bắt đầu ghi video cho " + DriverManager.getDriver().getCapabilities().getCapability("deviceName"));
         }
     }
@@ -75,7 +135,7 @@ public class CaptureHelpers {
     // Dừng ghi video và lưu file
     public static void stopRecording(String videoFileName) {
         if (DriverManager.getDriver() != null) {
-            try {
+            try (TraceRecorder.Span ignored = TraceRecorder.begin("CaptureHelpers.stopRecording", TraceRecorder.VIDEO, videoFileName)) {
                 String base64Video = ((CanRecordScreen) ((AndroidDriver) DriverManager.getDriver())).stopRecordingScreen();
                 System.out.println("Base64 video length: " + (base64Video != null ? base64Video.length() : "null"));
                 if (base64Video != null && !base64Video.isEmpty()) {
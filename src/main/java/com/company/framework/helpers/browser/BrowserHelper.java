@@ -1,8 +1,13 @@
 package com.company.framework.helpers.browser;
 
 import com.company.framework.drivers.DriverManager;
+import com.company.framework.helpers.wait.ElementCache;
+import com.company.framework.helpers.wait.WaitHelper;
 import com.company.framework.utils.LogUtils;
 import io.appium.java_client.AppiumDriver;
+import org.openqa.selenium.TimeoutException;
+
+import java.time.Duration;
 
 /**
  * Helper class để xử lý Mobile Web Browser
@@ -23,6 +28,7 @@ public class BrowserHelper {
 
         LogUtils.info("🌐 Đang điều hướng đến URL: " + url);
         driver.get(url);
+        ElementCache.invalidate();
         LogUtils.info("✅ Đã điều hướng thành công");
     }
 
@@ -69,6 +75,7 @@ public class BrowserHelper {
 
         LogUtils.info("⬅️ Đang quay lại trang trước");
         driver.navigate().back();
+        ElementCache.invalidate();
         LogUtils.info("✅ Đã quay lại thành công");
     }
 
@@ -83,6 +90,7 @@ public class BrowserHelper {
 
         LogUtils.info("➡️ Đang đi tới trang tiếp theo");
         driver.navigate().forward();
+        ElementCache.invalidate();
         LogUtils.info("✅ Đã đi tới thành công");
     }
 
@@ -97,6 +105,7 @@ public class BrowserHelper {
 
         LogUtils.info("🔄 Đang refresh trang");
         driver.navigate().refresh();
+        ElementCache.invalidate();
         LogUtils.info("✅ Đã refresh thành công");
     }
 
@@ -136,24 +145,14 @@ public class BrowserHelper {
     public static boolean waitForUrlContains(String text, int timeoutSeconds) {
         LogUtils.info("⏳ Đang chờ URL chứa '" + text + "' trong " + timeoutSeconds + " giây");
 
-        long startTime = System.currentTimeMillis();
-        long timeoutMillis = timeoutSeconds * 1000L;
-
-        while (System.currentTimeMillis() - startTime < timeoutMillis) {
-            if (urlContains(text)) {
-                LogUtils.info("✅ URL đã chứa '" + text + "'");
-                return true;
-            }
-            try {
-                Thread.sleep(500); // Check mỗi 500ms
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
+        try {
+            WaitHelper.waitUntil("url contains '" + text + "'", driver -> urlContains(text), Duration.ofSeconds(timeoutSeconds));
+            LogUtils.info("✅ URL đã chứa '" + text + "'");
+            return true;
+        } catch (TimeoutException e) {
+            LogUtils.warn("⏰ Timeout: URL không chứa '" + text + "' sau " + timeoutSeconds + " giây");
+            return false;
         }
-
-        LogUtils.warn("⏰ Timeout: URL không chứa '" + text + "' sau " + timeoutSeconds + " giây");
-        return false;
     }
 }
 
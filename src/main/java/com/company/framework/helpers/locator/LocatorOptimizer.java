@@ -0,0 +1,303 @@
+package com.company.framework.helpers.locator;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.utils.LogUtils;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.android.AndroidDriver;
+import io.appium.java_client.ios.IOSDriver;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.company.framework.drivers.DriverManager.getDriver;
+
+/**
+ * Compile By.xpath sang strategy native nhanh hơn theo platform:
+ * - Android: -android uiautomator (UiSelector)
+ * - iOS: -ios class chain (kèm predicate)
+ *
+ * Chỉ hỗ trợ tập con XPath: //tag hoặc //* với một predicate gồm các điều kiện nối bằng "and":
+ * {@code @attr='value'}, {@code contains(@attr,'value')}, {@code starts-with(@attr,'value')}
+ * XPath ngoài tập con này (nhiều bước, index, axis, or, text()...) được giữ nguyên
+ * Kết quả compile được cache theo platform + chuỗi XPath
+ */
+public class LocatorOptimizer {
+
+    private static final String XPATH_PREFIX = "By.xpath: ";
+    private static final Pattern XPATH_PATTERN = Pattern.compile("^//([\\w.]+|\\*)(?:\\[(.+)])?$", Pattern.DOTALL);
+    private static final Pattern CONDITION_PATTERN = Pattern.compile(
+            "\\s*(?:@([\\w:-]+)\\s*=\\s*(?:'([^']*)'|\"([^\"]*)\")"
+                    + "|(contains|starts-with)\\(\\s*@([\\w:-]+)\\s*,\\s*(?:'([^']*)'|\"([^\"]*)\")\\s*\\))\\s*");
+    private static final Pattern AND_PATTERN = Pattern.compile("and\\b");
+
+    private static final Map<String, String> ANDROID_BOOLEAN_ATTRIBUTES = Map.of(
+            "checkable", "checkable", "checked", "checked", "clickable", "clickable",
+            "enabled", "enabled", "focusable", "focusable", "focused", "focused",
+            "long-clickable", "longClickable", "scrollable", "scrollable", "selected", "selected");
+
+    private static final Map<String, By> cache = new ConcurrentHashMap<>();
+    private static final Map<String, Rewrite> rewrites = new ConcurrentHashMap<>();
+
+    private LocatorOptimizer() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Bật/tắt compile locator trong keyword (LOCATOR_OPTIMIZER_ENABLED)
+     */
+    public static boolean isEnabled() {
+        return "true".equalsIgnoreCase(ConfigData.LOCATOR_OPTIMIZER_ENABLED);
+    }
+
+    /**
+     * Compile locator cho platform của driver hiện tại
+     *
+     * @return locator native tương đương, hoặc chính locator ban đầu nếu không compile được
+     */
+    public static By optimize(By locator) {
+        String xpath = xpathOf(locator);
+        if (xpath == null) {
+            return locator;
+        }
+        WebDriver driver = getDriver();
+        String platform = driver instanceof AndroidDriver ? "android" : driver instanceof IOSDriver ? "ios" : null;
+        if (platform == null) {
+            return locator;
+        }
+
+        String key = platform + "|" + xpath;
+        By optimized = cache.get(key);
+        if (optimized == null) {
+            By compiled = compile(xpath, platform);
+            optimized = compiled == null ? locator : compiled;
+            if (cache.putIfAbsent(key, optimized) == null && compiled != null) {
+                LogUtils.info("⚡ [LocatorOptimizer] " + locator + " -> " + compiled);
+                rewrites.put(key, new Rewrite(locator, compiled, measureGain(driver, locator, compiled)));
+            }
+        }
+        return optimized;
+    }
+
+    /**
+     * Compile XPath sang locator native cho platform ("android" hoặc "ios")
+     *
+     * @return null nếu XPath nằm ngoài tập con được hỗ trợ
+     */
+    public static By compile(String xpath, String platform) {
+        Matcher matcher = XPATH_PATTERN.matcher(xpath.trim());
+        if (!matcher.matches()) {
+            return null;
+        }
+        String tagName = matcher.group(1);
+        List<Condition> conditions = matcher.group(2) == null ? new ArrayList<>() : parseConditions(matcher.group(2));
+        if (conditions == null || ("*".equals(tagName) && conditions.isEmpty())) {
+            return null;
+        }
+
+        if ("android".equals(platform)) {
+            String selector = toUiSelector(tagName, conditions);
+            return selector == null ? null : AppiumBy.androidUIAutomator(selector);
+        }
+        if ("ios".equals(platform)) {
+            String classChain = toClassChain(tagName, conditions);
+            return classChain == null ? null : AppiumBy.iOSClassChain(classChain);
+        }
+        return null;
+    }
+
+    /**
+     * In danh sách locator đã được rewrite và latency đo được (nếu bật LOCATOR_OPTIMIZER_MEASURE)
+     */
+    public static void logReport() {
+        if (rewrites.isEmpty()) {
+            return;
+        }
+        LogUtils.info("📊 [LocatorOptimizer] Đã rewrite " + rewrites.size() + " locator:");
+        long totalGain = 0;
+        for (Rewrite rewrite : rewrites.values()) {
+            String gain = "";
+            if (rewrite.gainMillis != null) {
+                totalGain += rewrite.gainMillis;
+                gain = " | gained: " + rewrite.gainMillis + "ms/find";
+            }
+            LogUtils.info("   " + rewrite.original + " -> " + rewrite.optimized + gain);
+        }
+        if (totalGain != 0) {
+            LogUtils.info("   Tổng latency giảm được (mỗi lần find của các locator đã đo): " + totalGain + "ms");
+        }
+    }
+
+    private static List<Condition> parseConditions(String predicate) {
+        List<Condition> conditions = new ArrayList<>();
+        Matcher matcher = CONDITION_PATTERN.matcher(predicate);
+        Matcher andMatcher = AND_PATTERN.matcher(predicate);
+        int position = 0;
+        while (true) {
+            matcher.region(position, predicate.length());
+            if (!matcher.lookingAt()) {
+                return null;
+            }
+            if (matcher.group(1) != null) {
+                conditions.add(new Condition("=", matcher.group(1), matcher.group(2) != null ? matcher.group(2) : matcher.group(3)));
+            } else {
+                conditions.add(new Condition(matcher.group(4), matcher.group(5), matcher.group(6) != null ? matcher.group(6) : matcher.group(7)));
+            }
+            position = matcher.end();
+            if (position == predicate.length()) {
+                return conditions;
+            }
+            andMatcher.region(position, predicate.length());
+            if (!andMatcher.lookingAt()) {
+                return null;
+            }
+            position = andMatcher.end();
+        }
+    }
+
+    private static String toUiSelector(String tagName, List<Condition> conditions) {
+        StringBuilder selector = new StringBuilder("new UiSelector()");
+        if (!"*".equals(tagName)) {
+            selector.append(".className(").append(quote(tagName)).append(")");
+        }
+        for (Condition condition : conditions) {
+            String method;
+            switch (condition.attribute) {
+                case "text":
+                    method = condition.method("text", "textContains", "textStartsWith");
+                    break;
+                case "content-desc":
+                    method = condition.method("description", "descriptionContains", "descriptionStartsWith");
+                    break;
+                case "resource-id":
+                    method = condition.method("resourceId", null, null);
+                    break;
+                case "class":
+                    method = condition.method("className", null, null);
+                    break;
+                case "package":
+                    method = condition.method("packageName", null, null);
+                    break;
+                default:
+                    String booleanMethod = ANDROID_BOOLEAN_ATTRIBUTES.get(condition.attribute);
+                    if (booleanMethod == null || !"=".equals(condition.operator) || !isBoolean(condition.value)) {
+                        return null;
+                    }
+                    selector.append(".").append(booleanMethod).append("(").append(condition.value).append(")");
+                    continue;
+            }
+            if (method == null) {
+                return null;
+            }
+            selector.append(".").append(method).append("(").append(quote(condition.value)).append(")");
+        }
+        return selector.toString();
+    }
+
+    private static String toClassChain(String tagName, List<Condition> conditions) {
+        List<String> predicates = new ArrayList<>();
+        for (Condition condition : conditions) {
+            if (condition.value.contains("`")) {
+                return null;
+            }
+            switch (condition.attribute) {
+                case "name":
+                case "label":
+                case "value":
+                case "type":
+                    String operator = condition.method("==", "CONTAINS", "BEGINSWITH");
+                    predicates.add(condition.attribute + " " + operator + " " + quote(condition.value));
+                    break;
+                case "enabled":
+                case "visible":
+                    if (!"=".equals(condition.operator) || !isBoolean(condition.value)) {
+                        return null;
+                    }
+                    predicates.add(condition.attribute + " == " + ("true".equals(condition.value) ? 1 : 0));
+                    break;
+                default:
+                    return null;
+            }
+        }
+        String chain = "**/" + tagName;
+        return predicates.isEmpty() ? chain : chain + "[`" + String.join(" AND ", predicates) + "`]";
+    }
+
+    /**
+     * Đo một lần findElements bằng XPath và bằng locator đã compile (chỉ khi bật LOCATOR_OPTIMIZER_MEASURE)
+     */
+    private static Long measureGain(WebDriver driver, By original, By optimized) {
+        if (!"true".equalsIgnoreCase(ConfigData.LOCATOR_OPTIMIZER_MEASURE)) {
+            return null;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            driver.findElements(original);
+            long xpathMillis = System.currentTimeMillis() - start;
+            start = System.currentTimeMillis();
+            driver.findElements(optimized);
+            long optimizedMillis = System.currentTimeMillis() - start;
+            LogUtils.info("⏱️ [LocatorOptimizer] xpath: " + xpathMillis + "ms | native: " + optimizedMillis + "ms | " + original);
+            return xpathMillis - optimizedMillis;
+        } catch (RuntimeException e) {
+            LogUtils.warn("⚠️ [LocatorOptimizer] Không đo được latency cho " + original + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static String quote(String value) {
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static boolean isBoolean(String value) {
+        return "true".equals(value) || "false".equals(value);
+    }
+
+    private static String xpathOf(By locator) {
+        String description = locator.toString();
+        return description.startsWith(XPATH_PREFIX) ? description.substring(XPATH_PREFIX.length()) : null;
+    }
+
+    /**
+     * Một điều kiện trong predicate XPath: operator là "=", "contains" hoặc "starts-with"
+     */
+    private static class Condition {
+        private final String operator;
+        private final String attribute;
+        private final String value;
+
+        private Condition(String operator, String attribute, String value) {
+            this.operator = operator;
+            this.attribute = attribute;
+            this.value = value;
+        }
+
+        private String method(String equals, String contains, String startsWith) {
+            switch (operator) {
+                case "contains":
+                    return contains;
+                case "starts-with":
+                    return startsWith;
+                default:
+                    return equals;
+            }
+        }
+    }
+
+    private static class Rewrite {
+        private final By original;
+        private final By optimized;
+        private final Long gainMillis;
+
+        private Rewrite(By original, By optimized, Long gainMillis) {
+            this.original = original;
+            this.optimized = optimized;
+            this.gainMillis = gainMillis;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.company.framework.helpers.pacing;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.reports.TimingStats;
+import com.company.framework.reports.TraceRecorder;
+import com.company.framework.utils.LogUtils;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.Rectangle;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+
+import static com.company.framework.drivers.DriverManager.getDriver;
+
+/**
+ * Pacing engine cho các keyword - thay thế sleep(STEP_ACTION_TIMEOUT) cố định trước mỗi action
+ * bằng điều kiện sẵn sàng: element đứng yên (không còn animation), trang web load xong, hoặc UI idle.
+ *
+ * PACING_MODE = adaptive (mặc định) | fixed (sleep STEP_ACTION_TIMEOUT như trước)
+ * PACING_KEYWORD_OVERRIDES = NativeUI.swipe=0.5,FlutterUI.tap=0 (giây, sleep cố định cho keyword cụ thể)
+ */
+public class PacingHelper {
+
+    private static final double STEP_ACTION_TIMEOUT = Double.parseDouble(ConfigData.STEP_ACTION_TIMEOUT);
+    private static final long POLL_INTERVAL_MILLIS = 100;
+    private static final long STABLE_TIMEOUT_MILLIS = Math.max(POLL_INTERVAL_MILLIS, (long) (STEP_ACTION_TIMEOUT * 1000) * 2);
+    private static final String WEB_READY_SCRIPT = "return document.readyState === 'complete' && "
+            + "(!document.getAnimations || document.getAnimations().every(a => a.playState !== 'running'));";
+
+    private static final Map<String, Double> keywordOverrides = new ConcurrentHashMap<>(parseOverrides(ConfigData.PACING_KEYWORD_OVERRIDES));
+    private static final Map<String, TimingStats> pacingStats = new ConcurrentHashMap<>();
+
+    private PacingHelper() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Kiểm tra pacing có đang chạy ở chế độ adaptive không (fixed = sleep cố định như trước)
+     */
+    public static boolean isAdaptive() {
+        return ConfigData.PACING_MODE == null || !ConfigData.PACING_MODE.trim().equalsIgnoreCase("fixed");
+    }
+
+    /**
+     * Đặt thời gian chờ cố định (giây) cho một keyword, ví dụ "NativeUI.swipe"
+     */
+    public static void overrideKeyword(String keyword, double seconds) {
+        keywordOverrides.put(keyword, seconds);
+    }
+
+    public static void clearOverride(String keyword) {
+        keywordOverrides.remove(keyword);
+    }
+
+    /**
+     * Chờ trước một gesture theo tọa độ (tap, swipe...)
+     * UiAutomator2/XCUITest đã tự chờ UI idle trước mỗi command nên chế độ adaptive không cần chờ thêm
+     */
+    public static void awaitIdle(String keyword) {
+        pace(keyword, () -> {
+        });
+    }
+
+    /**
+     * Chờ element đứng yên: vị trí và kích thước không đổi giữa hai lần đọc liên tiếp (animation đã xong)
+     */
+    public static void awaitElementStable(String keyword, WebElement element) {
+        pace(keyword, () -> waitUntilStable(element));
+    }
+
+    /**
+     * Chờ trang web (Mobile Web/WebView) load xong và không còn animation đang chạy
+     */
+    public static void awaitWebReady(String keyword) {
+        pace(keyword, () -> waitUntil(() -> Boolean.TRUE.equals(((JavascriptExecutor) getDriver()).executeScript(WEB_READY_SCRIPT))));
+    }
+
+    /**
+     * Chờ theo điều kiện tùy chỉnh của keyword (ví dụ lệnh wait của Flutter driver)
+     */
+    public static void await(String keyword, Runnable readinessCheck) {
+        pace(keyword, readinessCheck);
+    }
+
+    /**
+     * In tổng thời gian pacing thực tế so với sleep cố định STEP_ACTION_TIMEOUT
+     * Gọi từ TestListener.onFinish(ISuite)
+     */
+    public static void logReport() {
+        if (pacingStats.isEmpty()) {
+            return;
+        }
+        long fixedMillis = (long) (STEP_ACTION_TIMEOUT * 1000);
+        long totalCount = 0;
+        long totalMillis = 0;
+        for (TimingStats stats : pacingStats.values()) {
+            totalCount += stats.getCount();
+            totalMillis += stats.getTotalMillis();
+        }
+        LogUtils.info("📊 [Pacing] Mode: " + (isAdaptive() ? "adaptive" : "fixed")
+                + " | Steps: " + totalCount
+                + " | Pacing time: " + totalMillis + "ms"
+                + " | Saved vs fixed: " + (totalCount * fixedMillis - totalMillis) + "ms");
+        pacingStats.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, TimingStats> entry) -> entry.getValue().getTotalMillis()).reversed())
+                .forEach(entry -> LogUtils.info("   " + entry.getKey()
+                        + " | count: " + entry.getValue().getCount()
+                        + " | pacing: " + entry.getValue().getTotalMillis() + "ms"
+                        + " | saved: " + (entry.getValue().getCount() * fixedMillis - entry.getValue().getTotalMillis()) + "ms"));
+    }
+
+    public static long getTotalPacingMillis() {
+        return pacingStats.values().stream().mapToLong(stats -> stats.getTotalMillis()).sum();
+    }
+
+    private static void pace(String keyword, Runnable readinessCheck) {
+        long start = System.currentTimeMillis();
+        Double override = keywordOverrides.get(keyword);
+        if (override != null) {
+            try (TraceRecorder.Span ignored = TraceRecorder.begin("Pacing." + keyword, TraceRecorder.SLEEP, override + "s")) {
+                sleep(override);
+            }
+        } else if (!isAdaptive()) {
+            try (TraceRecorder.Span ignored = TraceRecorder.begin("Pacing." + keyword, TraceRecorder.SLEEP, STEP_ACTION_TIMEOUT + "s")) {
+                sleep(STEP_ACTION_TIMEOUT);
+            }
+        } else {
+            try (TraceRecorder.Span ignored = TraceRecorder.begin("Pacing." + keyword, TraceRecorder.WAIT)) {
+                readinessCheck.run();
+            } catch (WebDriverException e) {
+                // Không kiểm tra được trạng thái, để action tự xử lý lỗi (wait/retry của keyword)
+                LogUtils.debug("[Pacing] Readiness check bỏ qua cho " + keyword + ": " + e.getMessage());
+            }
+        }
+        pacingStats.computeIfAbsent(keyword, key -> new TimingStats()).record(System.currentTimeMillis() - start);
+    }
+
+    private static void waitUntilStable(WebElement element) {
+        Rectangle[] previous = {element.getRect()};
+        // Hai lần đọc rect liền nhau gần như luôn bằng nhau kể cả khi đang animation, nên cách nhau một poll interval
+        sleepMillis(POLL_INTERVAL_MILLIS);
+        waitUntil(() -> {
+            Rectangle current = element.getRect();
+            boolean stable = current.equals(previous[0]);
+            previous[0] = current;
+            return stable;
+        });
+    }
+
+    private static void waitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + STABLE_TIMEOUT_MILLIS;
+        while (System.currentTimeMillis() < deadline) {
+            if (condition.getAsBoolean()) {
+                return;
+            }
+            sleepMillis(POLL_INTERVAL_MILLIS);
+        }
+    }
+
+    private static void sleep(double second) {
+        sleepMillis((long) (1000 * second));
+    }
+
+    private static void sleepMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static Map<String, Double> parseOverrides(String value) {
+        Map<String, Double> overrides = new ConcurrentHashMap<>();
+        if (value == null || value.trim().isEmpty()) {
+            return overrides;
+        }
+        for (String entry : value.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length == 2) {
+                overrides.put(parts[0].trim(), Double.parseDouble(parts[1].trim()));
+            }
+        }
+        return overrides;
+    }
+}
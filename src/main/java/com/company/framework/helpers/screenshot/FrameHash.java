@@ -0,0 +1,90 @@
+package com.company.framework.helpers.screenshot;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Tile hash của một frame screenshot (dùng để phát hiện màn hình không đổi giữa các step)
+ * - Ảnh được chia thành lưới TILE_COLUMNS x TILE_ROWS tile, mỗi tile có một dHash 64 bit
+ * - dHash: thu nhỏ tile về 9x8 ô độ sáng trung bình, mỗi bit = ô bên trái tối hơn ô bên phải
+ * - Hai frame giống nhau nếu mọi tile lệch nhau không quá threshold bit
+ *   (so theo tile để thay đổi nhỏ như một ký tự mới trong ô nhập liệu không bị "hòa" vào cả ảnh)
+ */
+public class FrameHash {
+
+    private static final int TILE_COLUMNS = 8;
+    private static final int TILE_ROWS = 16;
+    private static final int HASH_WIDTH = 9;
+    private static final int HASH_HEIGHT = 8;
+
+    private FrameHash() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Tính tile hash của frame
+     *
+     * @return Mảng TILE_COLUMNS * TILE_ROWS giá trị dHash, theo thứ tự từng hàng tile
+     */
+    public static long[] compute(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int gridWidth = TILE_COLUMNS * HASH_WIDTH;
+        int gridHeight = TILE_ROWS * HASH_HEIGHT;
+        long[] luminanceSum = new long[gridWidth * gridHeight];
+        int[] pixelCount = new int[gridWidth * gridHeight];
+
+        int[] row = new int[width];
+        int[] cellX = new int[width];
+        for (int x = 0; x < width; x++) {
+            cellX[x] = (int) ((long) x * gridWidth / width);
+        }
+        for (int y = 0; y < height; y++) {
+            image.getRGB(0, y, width, 1, row, 0, width);
+            int cellRow = (int) ((long) y * gridHeight / height) * gridWidth;
+            for (int x = 0; x < width; x++) {
+                int rgb = row[x];
+                // Độ sáng xấp xỉ (0.299R + 0.587G + 0.114B) * 1000
+                int luminance = 299 * ((rgb >> 16) & 0xff) + 587 * ((rgb >> 8) & 0xff) + 114 * (rgb & 0xff);
+                luminanceSum[cellRow + cellX[x]] += luminance;
+                pixelCount[cellRow + cellX[x]]++;
+            }
+        }
+
+        long[] hashes = new long[TILE_COLUMNS * TILE_ROWS];
+        for (int tileRow = 0; tileRow < TILE_ROWS; tileRow++) {
+            for (int tileColumn = 0; tileColumn < TILE_COLUMNS; tileColumn++) {
+                long hash = 0;
+                for (int y = 0; y < HASH_HEIGHT; y++) {
+                    int cellRow = (tileRow * HASH_HEIGHT + y) * gridWidth + tileColumn * HASH_WIDTH;
+                    for (int x = 0; x < HASH_WIDTH - 1; x++) {
+                        hash <<= 1;
+                        if (average(luminanceSum, pixelCount, cellRow + x) < average(luminanceSum, pixelCount, cellRow + x + 1)) {
+                            hash |= 1;
+                        }
+                    }
+                }
+                hashes[tileRow * TILE_COLUMNS + tileColumn] = hash;
+            }
+        }
+        return hashes;
+    }
+
+    /**
+     * Hai frame được coi là cùng một màn hình nếu mọi tile lệch không quá threshold bit
+     */
+    public static boolean isSimilar(long[] first, long[] second, int threshold) {
+        if (first == null || second == null || first.length != second.length) {
+            return false;
+        }
+        for (int i = 0; i < first.length; i++) {
+            if (Long.bitCount(first[i] ^ second[i]) > threshold) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long average(long[] sum, int[] count, int index) {
+        return count[index] == 0 ? 0 : sum[index] / count[index];
+    }
+}
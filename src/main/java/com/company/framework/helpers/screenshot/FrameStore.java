@@ -0,0 +1,132 @@
+package com.company.framework.helpers.screenshot;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.helpers.SystemHelpers;
+import com.company.framework.utils.DateUtils;
+import com.company.framework.utils.LogUtils;
+import io.qameta.allure.util.PropertiesUtils;
+import org.apache.commons.io.FileUtils;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Kho screenshot theo nội dung (content-addressed) trong SCREENSHOT_PATH/frames/&lt;lần chạy&gt;
+ * - Tên file là SHA-256 của nội dung ảnh, cùng một ảnh chỉ được lưu một lần trong một lần chạy
+ * - File attachment trong Allure results được tạo bằng hard link tới file trong kho (copy nếu không hỗ trợ link)
+ * - Kho của các lần chạy trước không được ghi thêm trong {@link #PRUNE_AFTER} bị xóa khi lần chạy mới lưu frame đầu tiên,
+ *   nên kho không lớn dần theo thời gian mà vẫn không xóa kho của JVM / job CI khác đang chạy chung workspace
+ *   (attachment đã tạo bằng hard link / copy vẫn giữ nguyên nội dung)
+ */
+public class FrameStore {
+
+    private static final String FRAMES_FOLDER = "frames";
+    private static final String RUN_FOLDER = DateUtils.getCurrentDateTimeCustom("_");
+    private static final Duration PRUNE_AFTER = Duration.ofHours(24);
+    private static final AtomicBoolean pruned = new AtomicBoolean();
+
+    private FrameStore() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Lưu ảnh vào kho, trả về file đã có nếu nội dung trùng
+     *
+     * @param content   Nội dung ảnh đã encode
+     * @param extension Đuôi file (".png", ".jpg")
+     */
+    public static Path put(byte[] content, String extension) throws IOException {
+        if (pruned.compareAndSet(false, true)) {
+            pruneOtherRuns();
+        }
+        Path directory = getStoreDirectory();
+        Files.createDirectories(directory);
+        Path file = directory.resolve(sha256(content) + extension);
+        if (Files.exists(file)) {
+            return file;
+        }
+        Path temp = Files.createTempFile(directory, "frame", extension);
+        try {
+            Files.write(temp, content, StandardOpenOption.TRUNCATE_EXISTING);
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Thread khác vừa lưu cùng nội dung
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return file;
+    }
+
+    /**
+     * Tạo file attachment Allure (source do prepareAttachment cấp) trỏ tới file trong kho
+     */
+    public static void linkAttachment(String source, Path file) throws IOException {
+        Path target = getResultsDirectory().resolve(source);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.createLink(target, file);
+        } catch (IOException | UnsupportedOperationException e) {
+            // Khác ổ đĩa / file system không hỗ trợ hard link
+            Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    public static Path getStoreDirectory() {
+        return getFramesDirectory().resolve(RUN_FOLDER);
+    }
+
+    private static Path getFramesDirectory() {
+        return Paths.get(SystemHelpers.getCurrentDir() + ConfigData.SCREENSHOT_PATH, FRAMES_FOLDER);
+    }
+
+    /**
+     * Xóa kho của các lần chạy trước (và file của bố cục cũ nằm trực tiếp trong SCREENSHOT_PATH/frames)
+     * đã không được ghi thêm quá PRUNE_AFTER; kho còn mới có thể thuộc một lần chạy khác đang chạy song song
+     */
+    private static void pruneOtherRuns() {
+        Path framesDirectory = getFramesDirectory();
+        if (!Files.isDirectory(framesDirectory)) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(PRUNE_AFTER);
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(framesDirectory)) {
+            for (Path entry : entries) {
+                if (!entry.getFileName().toString().equals(RUN_FOLDER)
+                        && Files.getLastModifiedTime(entry).toInstant().isBefore(cutoff)) {
+                    FileUtils.deleteQuietly(entry.toFile());
+                }
+            }
+        } catch (IOException e) {
+            LogUtils.warn("⚠️ [Screenshot] Không dọn được kho frame cũ " + framesDirectory + ": " + e.getMessage());
+        }
+    }
+
+    private static Path getResultsDirectory() {
+        // Cùng cách Allure xác định thư mục results (allure.properties hoặc system property)
+        return Paths.get(PropertiesUtils.loadAllureProperties().getProperty("allure.results.directory", "allure-results"));
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
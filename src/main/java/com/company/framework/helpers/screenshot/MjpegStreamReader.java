@@ -0,0 +1,308 @@
+package com.company.framework.helpers.screenshot;
+
+import com.company.framework.utils.LogUtils;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Đọc MJPEG screen stream (mjpegServerPort của UiAutomator2 / WebDriverAgent) cho từng session
+ * - Mỗi session một thread daemon giữ kết nối HTTP liên tục, chỉ giữ lại frame JPEG mới nhất
+ * - Screenshot step lấy frame mới nhất ({@link #getLatestFrame(String, long)}) thay vì gửi lệnh getScreenshotAs
+ * - Stream dạng multipart/x-mixed-replace: frame được tách theo Content-Length, nếu không có thì theo marker JPEG (FFD8..FFD9)
+ * - Mất kết nối thì tự kết nối lại sau RECONNECT_DELAY_MILLIS cho đến khi session kết thúc ({@link #stop(String)})
+ * - WDA không gửi lại frame khi màn hình không đổi: stream im lặng (kể cả quá READ_TIMEOUT_MILLIS) vẫn là kết nối bình thường,
+ *   frame mới nhất nhận trên kết nối đang mở luôn được dùng, chỉ frame từ kết nối đã mất mới bị giới hạn tuổi
+ * - Read timeout giữa chừng một part (đã nhận một phần frame) thì bỏ kết nối và kết nối lại, không đọc tiếp giữa ảnh JPEG
+ */
+public class MjpegStreamReader {
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 5000;
+    private static final int READ_TIMEOUT_MILLIS = 10000;
+    private static final long RECONNECT_DELAY_MILLIS = 1000;
+    private static final int MAX_HEADER_LINE_LENGTH = 1024;
+    private static final int READ_CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_FRAME_BYTES = 32 * 1024 * 1024;
+
+    private static final Map<String, MjpegStreamReader> readers = new ConcurrentHashMap<>();
+    private static final AtomicLong servedCount = new AtomicLong();
+    private static final AtomicLong missedCount = new AtomicLong();
+
+    private final String url;
+    private final int readTimeoutMillis;
+    private final Thread thread;
+    private final AtomicLong frameCount = new AtomicLong();
+    private volatile boolean running = true;
+    private volatile HttpURLConnection connection;
+    private volatile Frame latestFrame;
+    // Thời điểm (System.nanoTime) kết nối hiện tại được mở, 0 khi chưa/không còn kết nối
+    private volatile long connectedSinceNanos;
+
+    private MjpegStreamReader(String sessionId, String url, int readTimeoutMillis) {
+        this.url = url;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.thread = new Thread(this::readLoop, "mjpeg-reader-" + sessionId);
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Mở stream reader cho session (đóng reader cũ nếu session đã có)
+     *
+     * @param sessionId Session Appium
+     * @param url       URL của MJPEG server, ví dụ http://127.0.0.1:7810
+     */
+    public static void start(String sessionId, String url) {
+        start(sessionId, url, READ_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Mở stream reader với read timeout tùy chỉnh (test dùng timeout ngắn để giả lập stream im lặng)
+     */
+    static void start(String sessionId, String url, int readTimeoutMillis) {
+        MjpegStreamReader reader = new MjpegStreamReader(sessionId, url, readTimeoutMillis);
+        MjpegStreamReader previous = readers.put(sessionId, reader);
+        if (previous != null) {
+            previous.close();
+        }
+        reader.thread.start();
+        LogUtils.info("🎞️ [MJPEG] Bắt đầu đọc stream " + url + " cho session " + sessionId);
+    }
+
+    /**
+     * Đóng stream reader của session (gọi khi session kết thúc)
+     */
+    public static void stop(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        MjpegStreamReader reader = readers.remove(sessionId);
+        if (reader != null) {
+            reader.close();
+            LogUtils.info("🎞️ [MJPEG] Đã dừng stream của session " + sessionId + " (" + reader.frameCount.get() + " frames)");
+        }
+    }
+
+    /**
+     * Lấy frame mới nhất của session
+     *
+     * @param maxAgeMillis Tuổi tối đa của frame nhận từ kết nối đã mất (đang kết nối lại);
+     *                     frame nhận trên kết nối đang mở luôn được dùng vì stream chỉ gửi frame khi màn hình đổi
+     * @return Ảnh JPEG, hoặc null nếu session không có stream / chưa có frame / frame từ kết nối đã mất quá cũ
+     */
+    public static byte[] getLatestFrame(String sessionId, long maxAgeMillis) {
+        MjpegStreamReader reader = readers.get(sessionId);
+        Frame frame = reader != null ? reader.latestFrame : null;
+        if (frame == null || (!reader.isCurrent(frame)
+                && System.nanoTime() - frame.receivedNanos > TimeUnit.MILLISECONDS.toNanos(maxAgeMillis))) {
+            missedCount.incrementAndGet();
+            return null;
+        }
+        servedCount.incrementAndGet();
+        return frame.content;
+    }
+
+    public static void logStats() {
+        if (servedCount.get() == 0 && missedCount.get() == 0) {
+            return;
+        }
+        LogUtils.info("📊 [MJPEG] Step screenshots from stream: " + servedCount.get()
+                + " | fallback to screenshot command: " + missedCount.get());
+    }
+
+    /**
+     * Frame nhận trên kết nối đang mở (màn hình chưa đổi kể từ frame này)
+     */
+    private boolean isCurrent(Frame frame) {
+        long connectedSince = connectedSinceNanos;
+        return connectedSince != 0 && frame.receivedNanos - connectedSince >= 0;
+    }
+
+    private void close() {
+        running = false;
+        HttpURLConnection current = connection;
+        if (current != null) {
+            // Ngắt read đang block trên socket
+            current.disconnect();
+        }
+        thread.interrupt();
+    }
+
+    private void readLoop() {
+        while (running) {
+            try {
+                HttpURLConnection current = (HttpURLConnection) new URL(url).openConnection();
+                current.setConnectTimeout(CONNECT_TIMEOUT_MILLIS);
+                current.setReadTimeout(readTimeoutMillis);
+                connection = current;
+                try (PushbackInputStream input = new PushbackInputStream(new BufferedInputStream(current.getInputStream()), READ_CHUNK_SIZE)) {
+                    connectedSinceNanos = System.nanoTime();
+                    while (running) {
+                        try {
+                            awaitNextPart(input);
+                        } catch (SocketTimeoutException e) {
+                            // Không có frame mới trong read timeout: màn hình không đổi, kết nối vẫn dùng tiếp
+                            continue;
+                        }
+                        byte[] content;
+                        try {
+                            content = readFrame(input);
+                        } catch (SocketTimeoutException e) {
+                            // Part đã bắt đầu nhưng không nhận đủ: vị trí đọc đang nằm giữa frame, phải mở kết nối mới
+                            throw new IOException("Hết read timeout giữa một frame", e);
+                        }
+                        latestFrame = new Frame(content, System.nanoTime());
+                        frameCount.incrementAndGet();
+                    }
+                } finally {
+                    connectedSinceNanos = 0;
+                    current.disconnect();
+                }
+            } catch (IOException e) {
+                if (!running) {
+                    return;
+                }
+                LogUtils.warn("⚠️ [MJPEG] Mất kết nối stream " + url + ": " + e.getMessage() + ", thử lại sau " + RECONNECT_DELAY_MILLIS + "ms");
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Chờ byte đầu tiên của part kế tiếp (bỏ qua CR/LF còn lại sau part trước) và trả byte đó lại stream
+     * SocketTimeoutException ở đây nghĩa là chưa nhận byte nào của part mới: stream đang im lặng giữa hai frame
+     */
+    private static void awaitNextPart(PushbackInputStream input) throws IOException {
+        int value;
+        do {
+            value = input.read();
+        } while (value == '\r' || value == '\n');
+        if (value == -1) {
+            throw new EOFException("Stream đã đóng");
+        }
+        input.unread(value);
+    }
+
+    /**
+     * Đọc một part của stream multipart: bỏ qua boundary, đọc header, rồi đọc nội dung JPEG
+     */
+    private static byte[] readFrame(PushbackInputStream input) throws IOException {
+        int contentLength = -1;
+        boolean inHeaders = false;
+        while (true) {
+            String line = readLine(input);
+            if (line.isEmpty()) {
+                if (inHeaders) {
+                    break;
+                }
+                continue;
+            }
+            if (line.startsWith("--")) {
+                continue;
+            }
+            inHeaders = true;
+            int colon = line.indexOf(':');
+            if (colon > 0 && line.substring(0, colon).trim().equalsIgnoreCase("Content-Length")) {
+                contentLength = Integer.parseInt(line.substring(colon + 1).trim());
+            }
+        }
+
+        if (contentLength >= 0) {
+            if (contentLength > MAX_FRAME_BYTES) {
+                throw new IOException("Frame quá lớn: " + contentLength + " bytes");
+            }
+            byte[] content = input.readNBytes(contentLength);
+            if (content.length < contentLength) {
+                throw new EOFException("Stream kết thúc giữa frame");
+            }
+            if (content.length < 2 || (content[0] & 0xFF) != 0xFF || (content[1] & 0xFF) != 0xD8) {
+                throw new IOException("Part của stream không phải ảnh JPEG");
+            }
+            return content;
+        }
+        return readJpeg(input);
+    }
+
+    /**
+     * Đọc ảnh JPEG theo marker SOI (FFD8) .. EOI (FFD9) khi part không có Content-Length
+     * Quét theo từng khối, phần đọc thừa sau EOI được trả lại stream cho part kế tiếp
+     */
+    private static byte[] readJpeg(PushbackInputStream input) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(256 * 1024);
+        byte[] chunk = new byte[READ_CHUNK_SIZE];
+        int previous = -1;
+        boolean started = false;
+        int length;
+        while ((length = input.read(chunk)) != -1) {
+            int from = 0;
+            for (int i = 0; i < length; i++) {
+                int current = chunk[i] & 0xFF;
+                if (!started && previous == 0xFF && current == 0xD8) {
+                    started = true;
+                    buffer.write(0xFF);
+                    from = i;
+                } else if (started && previous == 0xFF && current == 0xD9) {
+                    buffer.write(chunk, from, i + 1 - from);
+                    input.unread(chunk, i + 1, length - i - 1);
+                    return buffer.toByteArray();
+                }
+                previous = current;
+            }
+            if (started) {
+                buffer.write(chunk, from, length - from);
+                if (buffer.size() > MAX_FRAME_BYTES) {
+                    throw new IOException("Frame quá lớn, không tìm thấy marker kết thúc JPEG");
+                }
+            }
+        }
+        throw new EOFException("Stream kết thúc giữa frame");
+    }
+
+    private static String readLine(InputStream input) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+        int current;
+        while ((current = input.read()) != -1) {
+            if (current == '\n') {
+                break;
+            }
+            if (current != '\r') {
+                line.write(current);
+            }
+            if (line.size() > MAX_HEADER_LINE_LENGTH) {
+                throw new IOException("Header của stream không hợp lệ");
+            }
+        }
+        if (current == -1) {
+            throw new EOFException("Stream đã đóng");
+        }
+        return line.toString(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Frame JPEG và thời điểm nhận (System.nanoTime), gán cùng lúc để đọc không bị lệch
+     */
+    private static class Frame {
+        private final byte[] content;
+        private final long receivedNanos;
+
+        private Frame(byte[] content, long receivedNanos) {
+            this.content = content;
+            this.receivedNanos = receivedNanos;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.company.framework.helpers.screenshot;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.drivers.DriverManager;
+import com.company.framework.helpers.CaptureHelpers;
+import com.company.framework.reports.AllureManager;
+import com.company.framework.reports.TraceRecorder;
+import com.company.framework.utils.LogUtils;
+import io.qameta.allure.Allure;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Pipeline chụp screenshot cho từng step (SCREENSHOT_ALL_STEP) không chặn thread test
+ * - Thread test chỉ gửi lệnh screenshot (nhận base64) và đăng ký attachment với Allure (prepareAttachment)
+ * - Decode base64, nén (SCREENSHOT_STEP_FORMAT = jpg), ghi file attachment chạy trên executor nền có giới hạn
+ * - Backpressure: khi hàng đợi đầy, thread test tự xử lý ảnh (CallerRunsPolicy) thay vì giữ thêm ảnh trong RAM
+ * - Flush barrier: {@link #flush()} chờ các ảnh của test hiện tại ghi xong, gọi khi test kết thúc
+ * - Dedup (SCREENSHOT_DEDUP_ENABLED): frame giống frame trước đó của test (tile hash, xem FrameHash)
+ *   không được lưu lại, attachment trỏ tới file của frame trước. Ảnh lưu theo nội dung trong FrameStore
+ *
+ * SCREENSHOT_ASYNC_ENABLED = false: chụp đồng bộ qua AllureManager như trước
+ * SCREENSHOT_CAPTURE_MODE = mjpeg: ảnh lấy từ MJPEG stream của session (CaptureHelpers.getStreamFrame), đã là JPEG
+ */
+public class ScreenshotPipeline {
+
+    private static final long FLUSH_TIMEOUT_SECONDS = 30;
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private static final ThreadLocal<List<Future<?>>> pendingTasks = ThreadLocal.withInitial(ArrayList::new);
+    private static final ThreadLocal<CompletableFuture<StoredFrame>> lastFrame = new ThreadLocal<>();
+    private static final AtomicLong submittedCount = new AtomicLong();
+    private static final AtomicLong callerRunsCount = new AtomicLong();
+    private static final AtomicLong failedCount = new AtomicLong();
+    private static final AtomicLong processMillis = new AtomicLong();
+    private static final AtomicLong duplicateCount = new AtomicLong();
+    private static final AtomicLong duplicateBytes = new AtomicLong();
+    private static volatile ThreadPoolExecutor executor;
+
+    private ScreenshotPipeline() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    public static boolean isAsyncEnabled() {
+        return "true".equalsIgnoreCase(ConfigData.SCREENSHOT_ASYNC_ENABLED);
+    }
+
+    public static boolean isDedupEnabled() {
+        return "true".equalsIgnoreCase(ConfigData.SCREENSHOT_DEDUP_ENABLED);
+    }
+
+    /**
+     * Chụp screenshot cho step hiện tại và đính kèm vào Allure
+     */
+    public static void captureStep() {
+        captureStep("Page_Screenshot");
+    }
+
+    /**
+     * Chụp screenshot cho step hiện tại và đính kèm vào Allure với tên attachment
+     *
+     * @param name Tên attachment trong Allure
+     */
+    public static void captureStep(String name) {
+        // SCREENSHOT_CAPTURE_MODE = mjpeg: lấy frame mới nhất từ MJPEG stream, không gửi lệnh screenshot
+        byte[] streamFrame = CaptureHelpers.getStreamFrame();
+        if (!isAsyncEnabled()) {
+            if (streamFrame != null) {
+                Allure.addAttachment(name, "image/jpeg", new ByteArrayInputStream(streamFrame), ".jpg");
+            } else {
+                AllureManager.saveScreenshotPNG(name);
+            }
+            return;
+        }
+
+        Supplier<byte[]> content;
+        String source;
+        boolean jpeg = streamFrame != null || isJpeg();
+        boolean reencode = streamFrame == null && jpeg;
+        try (TraceRecorder.Span ignored = TraceRecorder.begin("ScreenshotPipeline.captureStep", TraceRecorder.SCREENSHOT, name)) {
+            if (streamFrame != null) {
+                content = () -> streamFrame;
+            } else {
+                String base64 = ((TakesScreenshot) DriverManager.getDriver()).getScreenshotAs(OutputType.BASE64);
+                content = () -> Base64.getMimeDecoder().decode(base64);
+            }
+            // Đăng ký attachment trên thread test để gắn đúng step, nội dung được ghi sau
+            source = Allure.getLifecycle().prepareAttachment(name, jpeg ? "image/jpeg" : "image/png", jpeg ? ".jpg" : ".png");
+        }
+
+        submittedCount.incrementAndGet();
+        Runnable task;
+        if (isDedupEnabled()) {
+            // Mỗi frame so với frame liền trước của cùng test (chuỗi future giữ đúng thứ tự dù chạy trên nhiều thread)
+            CompletableFuture<StoredFrame> previous = lastFrame.get();
+            CompletableFuture<StoredFrame> current = new CompletableFuture<>();
+            lastFrame.set(current);
+            task = () -> processDedup(content, source, jpeg, reencode, previous, current);
+        } else {
+            task = () -> process(content, source, reencode);
+        }
+        pendingTasks.get().add(getExecutor().submit(task));
+    }
+
+    /**
+     * Chờ các screenshot của test hiện tại xử lý xong (gọi khi test kết thúc, trước khi Allure ghi kết quả)
+     */
+    public static void flush() {
+        List<Future<?>> tasks = pendingTasks.get();
+        pendingTasks.remove();
+        lastFrame.remove();
+        if (tasks.isEmpty()) {
+            return;
+        }
+        try (TraceRecorder.Span ignored = TraceRecorder.begin("ScreenshotPipeline.flush", TraceRecorder.SCREENSHOT, tasks.size() + " pending")) {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(FLUSH_TIMEOUT_SECONDS);
+            for (Future<?> task : tasks) {
+                try {
+                    task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    LogUtils.warn("⚠️ [Screenshot] Quá " + FLUSH_TIMEOUT_SECONDS + "s chờ ghi screenshot, bỏ qua các ảnh còn lại");
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    // Lỗi đã được log trong process()
+                }
+            }
+        }
+    }
+
+    /**
+     * In số screenshot đã xử lý nền, số lần backpressure (thread test tự xử lý) và thời gian xử lý trung bình
+     */
+    public static void logStats() {
+        if (submittedCount.get() == 0) {
+            return;
+        }
+        LogUtils.info("📊 [Screenshot] Async: " + submittedCount.get()
+                + " | caller-runs (queue full): " + callerRunsCount.get()
+                + " | failed: " + failedCount.get()
+                + " | avg process: " + processMillis.get() / submittedCount.get() + "ms");
+        if (duplicateCount.get() > 0) {
+            LogUtils.info("📊 [Screenshot] Dedup: " + duplicateCount.get() + "/" + submittedCount.get()
+                    + " frames không đổi | tiết kiệm ~" + duplicateBytes.get() / 1024 + "KB | kho: " + FrameStore.getStoreDirectory());
+        }
+    }
+
+    private static void process(Supplier<byte[]> content, String source, boolean reencode) {
+        long start = System.currentTimeMillis();
+        try {
+            byte[] bytes = content.get();
+            if (reencode) {
+                bytes = toJpeg(bytes);
+            }
+            Allure.getLifecycle().writeAttachment(source, new ByteArrayInputStream(bytes));
+        } catch (IOException | RuntimeException e) {
+            failedCount.incrementAndGet();
+            LogUtils.warn("⚠️ [Screenshot] Không ghi được screenshot " + source + ": " + e.getMessage());
+        } finally {
+            processMillis.addAndGet(System.currentTimeMillis() - start);
+        }
+    }
+
+    private static void processDedup(Supplier<byte[]> content, String source, boolean jpeg, boolean reencode,
+                                     CompletableFuture<StoredFrame> previous, CompletableFuture<StoredFrame> current) {
+        long start = System.currentTimeMillis();
+        StoredFrame stored = null;
+        try {
+            byte[] bytes = content.get();
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(bytes));
+            long[] hash = image == null ? null : FrameHash.compute(image);
+
+            StoredFrame previousFrame = previous == null ? null : previous.exceptionally(error -> null).join();
+            if (previousFrame != null && FrameHash.isSimilar(previousFrame.hash, hash, getDedupThreshold())) {
+                // Màn hình không đổi: file attachment là hard link tới file của frame trước
+                // (source của attachment đã chốt trên thread test, thread nền không sửa model Allure)
+                stored = previousFrame;
+                FrameStore.linkAttachment(source, previousFrame.file);
+                duplicateCount.incrementAndGet();
+                duplicateBytes.addAndGet(Files.size(previousFrame.file));
+                return;
+            }
+
+            byte[] encoded = reencode && image != null ? toJpeg(image) : bytes;
+            Path file = FrameStore.put(encoded, jpeg ? ".jpg" : ".png");
+            FrameStore.linkAttachment(source, file);
+            stored = new StoredFrame(hash, file);
+        } catch (IOException | RuntimeException e) {
+            failedCount.incrementAndGet();
+            LogUtils.warn("⚠️ [Screenshot] Không ghi được screenshot " + source + ": " + e.getMessage());
+        } finally {
+            current.complete(stored);
+            processMillis.addAndGet(System.currentTimeMillis() - start);
+        }
+    }
+
+    private static byte[] toJpeg(byte[] png) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+        if (image == null) {
+            return png;
+        }
+        return toJpeg(image);
+    }
+
+    private static byte[] toJpeg(BufferedImage image) throws IOException {
+        // JPEG không có kênh alpha
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        rgb.createGraphics().drawImage(image, 0, 0, null);
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(output)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(rgb, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+
+    private static int getDedupThreshold() {
+        return Math.max(0, parseOrDefault(ConfigData.SCREENSHOT_DEDUP_THRESHOLD, 2));
+    }
+
+    private static boolean isJpeg() {
+        String format = ConfigData.SCREENSHOT_STEP_FORMAT;
+        return format != null && (format.trim().equalsIgnoreCase("jpg") || format.trim().equalsIgnoreCase("jpeg"));
+    }
+
+    private static ThreadPoolExecutor getExecutor() {
+        if (executor == null) {
+            synchronized (ScreenshotPipeline.class) {
+                if (executor == null) {
+                    int threads = Math.max(1, parseOrDefault(ConfigData.SCREENSHOT_ASYNC_THREADS, 2));
+                    int queueSize = Math.max(1, parseOrDefault(ConfigData.SCREENSHOT_ASYNC_QUEUE_SIZE, 16));
+                    AtomicInteger threadIndex = new AtomicInteger();
+                    RejectedExecutionHandler callerRuns = new ThreadPoolExecutor.CallerRunsPolicy();
+                    executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<>(queueSize),
+                            runnable -> {
+                                Thread thread = new Thread(runnable, "screenshot-writer-" + threadIndex.incrementAndGet());
+                                thread.setDaemon(true);
+                                return thread;
+                            },
+                            (runnable, pool) -> {
+                                callerRunsCount.incrementAndGet();
+                                callerRuns.rejectedExecution(runnable, pool);
+                            });
+                    Runtime.getRuntime().addShutdownHook(new Thread(ScreenshotPipeline::shutdown));
+                }
+            }
+        }
+        return executor;
+    }
+
+    private static void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                LogUtils.warn("⚠️ [Screenshot] Còn " + executor.getQueue().size() + " screenshot chưa ghi khi kết thúc");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Frame đã lưu của một test: tile hash và file trong kho
+     */
+    private static class StoredFrame {
+        private final long[] hash;
+        private final Path file;
+
+        private StoredFrame(long[] hash, Path file) {
+            this.hash = hash;
+            this.file = file;
+        }
+    }
+
+    private static int parseOrDefault(String value, int defaultValue) {
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Integer.parseInt(value.trim());
+    }
+}
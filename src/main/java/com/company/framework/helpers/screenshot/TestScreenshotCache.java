@@ -0,0 +1,69 @@
+package com.company.framework.helpers.screenshot;
+
+import com.company.framework.drivers.DriverManager;
+import com.company.framework.reports.TraceRecorder;
+import com.company.framework.utils.LogUtils;
+import org.openqa.selenium.OutputType;
+import org.openqa.selenium.TakesScreenshot;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Frame kết thúc test (pass/fail) dùng chung cho mọi nơi cần screenshot cuối test
+ * - File trong thư mục screenshots (TestListener), attachment Allure (AllureListener)
+ *   cùng dùng một mảng byte, chỉ một lệnh screenshot tới device cho mỗi test
+ * - Cache theo thread của test, xóa khi test kế tiếp bắt đầu ({@link #clear()})
+ */
+public class TestScreenshotCache {
+
+    private static final ThreadLocal<byte[]> currentFrame = new ThreadLocal<>();
+    private static final AtomicLong captureCount = new AtomicLong();
+    private static final AtomicLong reuseCount = new AtomicLong();
+
+    private TestScreenshotCache() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Lấy frame cuối test, chụp ở lần gọi đầu tiên
+     *
+     * @return Ảnh PNG, hoặc null nếu không có driver / chụp thất bại
+     */
+    public static byte[] getFrame() {
+        byte[] frame = currentFrame.get();
+        if (frame != null) {
+            reuseCount.incrementAndGet();
+            return frame;
+        }
+        WebDriver driver = DriverManager.getDriver();
+        if (driver == null) {
+            return null;
+        }
+        try (TraceRecorder.Span ignored = TraceRecorder.begin("TestScreenshotCache.capture", TraceRecorder.SCREENSHOT)) {
+            frame = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+        } catch (WebDriverException e) {
+            LogUtils.warn("⚠️ [Screenshot] Không chụp được screenshot cuối test: " + e.getMessage());
+            return null;
+        }
+        captureCount.incrementAndGet();
+        currentFrame.set(frame);
+        return frame;
+    }
+
+    /**
+     * Xóa frame của test trước trên thread hiện tại (gọi khi test mới bắt đầu)
+     */
+    public static void clear() {
+        currentFrame.remove();
+    }
+
+    public static void logStats() {
+        if (captureCount.get() == 0) {
+            return;
+        }
+        LogUtils.info("📊 [Screenshot] End-of-test frames captured: " + captureCount.get()
+                + " | reused: " + reuseCount.get());
+    }
+}
@@ -0,0 +1,332 @@
+package com.company.framework.helpers.snapshot;
+
+import com.company.framework.utils.LogUtils;
+import org.openqa.selenium.By;
+import org.openqa.selenium.Rectangle;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.NodeList;
+import org.xml.sax.InputSource;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.company.framework.drivers.DriverManager.getDriver;
+
+/**
+ * Snapshot của màn hình hiện tại - lấy getPageSource() một lần và evaluate locator ngay trên bộ nhớ
+ * Dùng cho các assertion cần kiểm tra nhiều element trên cùng một màn hình
+ * (mỗi findElement + getText/isDisplayed tốn một round trip tới Appium server)
+ *
+ * Hỗ trợ By.id (resource-id / name), accessibility id (content-desc / name), By.className, By.name và By.xpath
+ */
+public class PageSnapshot {
+
+    private static final Pattern BOUNDS_PATTERN = Pattern.compile("\\[(-?\\d+),(-?\\d+)]\\[(-?\\d+),(-?\\d+)]");
+    private static final Pattern LOCATOR_PATTERN = Pattern.compile("^(?:Appium)?By\\.(\\w+):\\s*(.*)$", Pattern.DOTALL);
+
+    private final Document document;
+    private final Node root;
+    private final Map<org.w3c.dom.Node, Node> nodesByDomNode = new IdentityHashMap<>();
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<String, Map<String, List<Node>>> attributeIndexes = new ConcurrentHashMap<>();
+    private final Map<String, List<Node>> byResourceId = new HashMap<>();
+    private final Map<String, List<Node>> byAccessibilityId = new HashMap<>();
+    private final Map<String, List<Node>> byText = new HashMap<>();
+    private final Map<String, List<Node>> byClass = new HashMap<>();
+
+    private PageSnapshot(Document document) {
+        this.document = document;
+        this.root = index(document.getDocumentElement(), null);
+    }
+
+    /**
+     * Lấy page source của driver hiện tại và dựng snapshot
+     */
+    public static PageSnapshot capture() {
+        long start = System.currentTimeMillis();
+        PageSnapshot snapshot = parse(getDriver().getPageSource());
+        LogUtils.info("📸 [PageSnapshot] Đã lấy snapshot với " + snapshot.size()
+                + " node trong " + (System.currentTimeMillis() - start) + "ms");
+        return snapshot;
+    }
+
+    /**
+     * Dựng snapshot từ XML page source của UiAutomator2/XCUITest
+     */
+    public static PageSnapshot parse(String pageSource) {
+        try {
+            DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+            factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+            factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            DocumentBuilder builder = factory.newDocumentBuilder();
+            return new PageSnapshot(builder.parse(new InputSource(new StringReader(pageSource))));
+        } catch (Exception e) {
+            throw new IllegalStateException("Không thể parse page source: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Tìm tất cả node khớp locator trong snapshot
+     */
+    public List<Node> findAll(By locator) {
+        Matcher matcher = LOCATOR_PATTERN.matcher(locator.toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Locator không được hỗ trợ bởi PageSnapshot: " + locator);
+        }
+        String strategy = matcher.group(1);
+        String value = matcher.group(2);
+
+        switch (strategy) {
+            case "id":
+                return findById(value);
+            case "accessibilityId":
+                return lookup(byAccessibilityId, value);
+            case "className":
+                return lookup(byClass, value);
+            case "name":
+                List<Node> byName = lookup(byAccessibilityId, value);
+                return byName.isEmpty() ? lookup(byText, value) : byName;
+            case "xpath":
+                return XPathEngine.evaluate(this, value);
+            default:
+                throw new IllegalArgumentException("Strategy '" + strategy + "' không được hỗ trợ bởi PageSnapshot");
+        }
+    }
+
+    /**
+     * Tìm node đầu tiên khớp locator (null nếu không có)
+     */
+    public Node find(By locator) {
+        List<Node> nodes = findAll(locator);
+        return nodes.isEmpty() ? null : nodes.get(0);
+    }
+
+    /**
+     * Tìm node theo text hiển thị (text trên Android, value/label trên iOS)
+     */
+    public List<Node> findByText(String text) {
+        return lookup(byText, text);
+    }
+
+    public boolean isPresent(By locator) {
+        return find(locator) != null;
+    }
+
+    public boolean isDisplayed(By locator) {
+        Node node = find(locator);
+        return node != null && node.isDisplayed();
+    }
+
+    /**
+     * Lấy text của element (null nếu không tìm thấy)
+     */
+    public String getText(By locator) {
+        Node node = find(locator);
+        return node == null ? null : node.getText();
+    }
+
+    public Node getRoot() {
+        return root;
+    }
+
+    public Document getDocument() {
+        return document;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Tất cả node theo thứ tự document
+     */
+    public List<Node> getNodes() {
+        return Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * Tìm node theo giá trị thuộc tính bất kỳ - index của mỗi thuộc tính được dựng lần đầu khi cần
+     */
+    public List<Node> findByAttribute(String attribute, String value) {
+        Map<String, List<Node>> index = attributeIndexes.computeIfAbsent(attribute, name -> {
+            Map<String, List<Node>> built = new HashMap<>();
+            for (Node node : nodes) {
+                String attributeValue = node.getAttribute(name);
+                if (attributeValue != null) {
+                    built.computeIfAbsent(attributeValue, k -> new ArrayList<>()).add(node);
+                }
+            }
+            return built;
+        });
+        return lookup(index, value);
+    }
+
+    /**
+     * Tìm node theo tag name (class trên Android, type trên iOS)
+     */
+    public List<Node> findByTagName(String tagName) {
+        return lookup(byClass, tagName);
+    }
+
+    /**
+     * Lấy node tương ứng với DOM node của document (dùng cho các engine evaluate xpath bên ngoài)
+     */
+    public Node getNode(org.w3c.dom.Node domNode) {
+        return nodesByDomNode.get(domNode);
+    }
+
+    private List<Node> findById(String id) {
+        List<Node> exact = lookup(byResourceId, id);
+        if (!exact.isEmpty() || id.contains(":id/")) {
+            return exact;
+        }
+        // Android: By.id("login") khớp với resource-id "<package>:id/login"
+        List<Node> result = new ArrayList<>();
+        String suffix = ":id/" + id;
+        byResourceId.forEach((resourceId, nodes) -> {
+            if (resourceId.endsWith(suffix)) {
+                result.addAll(nodes);
+            }
+        });
+        return result;
+    }
+
+    private Node index(Element element, Node parent) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        NamedNodeMap domAttributes = element.getAttributes();
+        for (int i = 0; i < domAttributes.getLength(); i++) {
+            org.w3c.dom.Node attribute = domAttributes.item(i);
+            attributes.put(attribute.getNodeName(), attribute.getNodeValue());
+        }
+
+        Node node = new Node(element.getTagName(), attributes, parent);
+        nodesByDomNode.put(element, node);
+        nodes.add(node);
+
+        // Android: resource-id / content-desc / text / class - iOS: name / label, value / type (tag name)
+        addToIndex(byResourceId, attributes.get("resource-id"), node);
+        addToIndex(byResourceId, attributes.get("name"), node);
+        addToIndex(byAccessibilityId, attributes.get("content-desc"), node);
+        addToIndex(byAccessibilityId, attributes.get("name"), node);
+        addToIndex(byText, node.getText(), node);
+        addToIndex(byClass, element.getTagName(), node);
+        if (attributes.containsKey("class") && !attributes.get("class").equals(element.getTagName())) {
+            addToIndex(byClass, attributes.get("class"), node);
+        }
+
+        NodeList children = element.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i) instanceof Element) {
+                node.children.add(index((Element) children.item(i), node));
+            }
+        }
+        return node;
+    }
+
+    private static void addToIndex(Map<String, List<Node>> index, String key, Node node) {
+        if (key != null && !key.isEmpty()) {
+            index.computeIfAbsent(key, k -> new ArrayList<>()).add(node);
+        }
+    }
+
+    private static List<Node> lookup(Map<String, List<Node>> index, String key) {
+        List<Node> nodes = index.get(key);
+        return nodes == null ? Collections.emptyList() : Collections.unmodifiableList(nodes);
+    }
+
+    /**
+     * Một element trong snapshot
+     */
+    public static class Node {
+        private final String tagName;
+        private final Map<String, String> attributes;
+        private final Node parent;
+        private final List<Node> children = new ArrayList<>();
+
+        private Node(String tagName, Map<String, String> attributes, Node parent) {
+            this.tagName = tagName;
+            this.attributes = attributes;
+            this.parent = parent;
+        }
+
+        public String getTagName() {
+            return tagName;
+        }
+
+        public String getAttribute(String name) {
+            return attributes.get(name);
+        }
+
+        public Map<String, String> getAttributes() {
+            return Collections.unmodifiableMap(attributes);
+        }
+
+        /**
+         * Text hiển thị: text (Android), value hoặc label (iOS)
+         */
+        public String getText() {
+            if (attributes.containsKey("text")) {
+                return attributes.get("text");
+            }
+            String value = attributes.get("value");
+            return value != null && !value.isEmpty() ? value : attributes.get("label");
+        }
+
+        /**
+         * Trạng thái hiển thị: displayed (Android), visible (iOS), mặc định là true nếu không có thuộc tính
+         */
+        public boolean isDisplayed() {
+            String displayed = attributes.containsKey("displayed") ? attributes.get("displayed") : attributes.get("visible");
+            return displayed == null || Boolean.parseBoolean(displayed);
+        }
+
+        /**
+         * Vị trí element trên màn hình: bounds="[x1,y1][x2,y2]" (Android) hoặc x/y/width/height (iOS)
+         *
+         * @return null nếu page source không có thông tin vị trí
+         */
+        public Rectangle getBounds() {
+            String bounds = attributes.get("bounds");
+            if (bounds != null) {
+                Matcher matcher = BOUNDS_PATTERN.matcher(bounds);
+                if (matcher.matches()) {
+                    int x1 = Integer.parseInt(matcher.group(1));
+                    int y1 = Integer.parseInt(matcher.group(2));
+                    return new Rectangle(x1, y1, Integer.parseInt(matcher.group(4)) - y1, Integer.parseInt(matcher.group(3)) - x1);
+                }
+            }
+            if (attributes.containsKey("x") && attributes.containsKey("width")) {
+                return new Rectangle(Integer.parseInt(attributes.get("x")), Integer.parseInt(attributes.get("y")),
+                        Integer.parseInt(attributes.get("height")), Integer.parseInt(attributes.get("width")));
+            }
+            return null;
+        }
+
+        public Node getParent() {
+            return parent;
+        }
+
+        public List<Node> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+
+        @Override
+        public String toString() {
+            return tagName + attributes;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.company.framework.helpers.snapshot;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.drivers.DriverManager;
+import com.company.framework.utils.LogUtils;
+import io.appium.java_client.AppiumBy;
+import io.appium.java_client.android.AndroidDriver;
+import org.openqa.selenium.By;
+import org.w3c.dom.NodeList;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathExpression;
+import javax.xml.xpath.XPathExpressionException;
+import javax.xml.xpath.XPathFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * XPath engine chạy local trên PageSnapshot - thay cho XPath phía server của UiAutomator2 (rất chậm trên màn hình lớn)
+ * - XPath dạng đơn giản //tag[@attr='value'] hoặc //tag được trả lời trực tiếp từ index thuộc tính của snapshot
+ * - XPath khác được compile một lần và cache theo chuỗi locator (cache theo thread vì XPathExpression không thread-safe)
+ * - resolve(): đổi XPath chỉ gồm một phép so sánh resource-id / content-desc / name sang By.id / accessibility id
+ *   (XPath có thêm điều kiện khác được giữ nguyên, vì locator mới sẽ bỏ mất điều kiện đó)
+ * - XPath có tag cụ thể chỉ được đổi khi trên snapshot, locator mới khớp đúng tập node của XPath; kết quả được cache
+ *   theo session + activity hiện tại (Android), XPath chưa đổi được không cache vì element có thể chưa render
+ */
+public class XPathEngine {
+
+    private static final int EXPRESSION_CACHE_SIZE = 256;
+    private static final int RESOLVE_CACHE_SIZE = 512;
+    private static final Pattern SIMPLE_XPATH = Pattern.compile(
+            "^//([\\w.]+|\\*)(?:\\[@([\\w:-]+)\\s*=\\s*(['\"])([^'\"]*)\\3])?$");
+    // resource-id đầy đủ (package:id/name); By.id với id ngắn được UiAutomator2 tự thêm package nên không tương đương XPath
+    private static final String FULL_RESOURCE_ID = ":id/";
+
+    private static final ThreadLocal<Map<String, XPathExpression>> expressionCache = ThreadLocal.withInitial(
+            () -> new LinkedHashMap<String, XPathExpression>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, XPathExpression> eldest) {
+                    return size() > EXPRESSION_CACHE_SIZE;
+                }
+            });
+
+    private static final Map<String, By> resolveCache = Collections.synchronizedMap(
+            new LinkedHashMap<String, By>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, By> eldest) {
+                    return size() > RESOLVE_CACHE_SIZE;
+                }
+            });
+
+    private static final AtomicLong indexedCount = new AtomicLong();
+    private static final AtomicLong compiledCount = new AtomicLong();
+    private static final AtomicLong cacheHitCount = new AtomicLong();
+    private static final AtomicLong resolvedCount = new AtomicLong();
+    private static final AtomicLong fallbackCount = new AtomicLong();
+    private static final AtomicLong resolveCacheHitCount = new AtomicLong();
+
+    private XPathEngine() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Bật/tắt resolve XPath local trong keyword (LOCAL_XPATH_ENABLED)
+     */
+    public static boolean isEnabled() {
+        return "true".equalsIgnoreCase(ConfigData.LOCAL_XPATH_ENABLED);
+    }
+
+    /**
+     * Evaluate XPath trên snapshot, trả về node theo thứ tự document
+     */
+    public static List<PageSnapshot.Node> evaluate(PageSnapshot snapshot, String xpath) {
+        Matcher matcher = SIMPLE_XPATH.matcher(xpath.trim());
+        if (matcher.matches()) {
+            indexedCount.incrementAndGet();
+            return evaluateIndexed(snapshot, matcher.group(1), matcher.group(2), matcher.group(4));
+        }
+
+        try {
+            NodeList domNodes = (NodeList) compile(xpath).evaluate(snapshot.getDocument(), XPathConstants.NODESET);
+            List<PageSnapshot.Node> result = new ArrayList<>(domNodes.getLength());
+            for (int i = 0; i < domNodes.getLength(); i++) {
+                PageSnapshot.Node node = snapshot.getNode(domNodes.item(i));
+                if (node != null) {
+                    result.add(node);
+                }
+            }
+            return result;
+        } catch (XPathExpressionException e) {
+            throw new IllegalArgumentException("XPath không hợp lệ: " + xpath, e);
+        }
+    }
+
+    /**
+     * Đổi locator XPath sang locator rẻ hơn có cùng ý nghĩa
+     * - //*[@resource-id='...'] / //*[@content-desc='...'] / //*[@name='...']: đổi trực tiếp, không cần snapshot
+     * - //tag[@attr='...']: đổi khi trên snapshot màn hình hiện tại, locator mới khớp đúng tập node của XPath
+     *   (cache theo session + activity, chỉ cache khi đổi được)
+     * - XPath khác: giữ nguyên
+     *
+     * @return locator tương đương (By.id / accessibility id) hoặc chính locator ban đầu nếu không đổi được
+     */
+    public static By resolve(By locator) {
+        String value = xpathOf(locator);
+        Matcher matcher = value == null ? null : SIMPLE_XPATH.matcher(value.trim());
+        By candidate = matcher != null && matcher.matches() ? toLocator(matcher.group(2), matcher.group(4)) : null;
+        if (candidate == null) {
+            return keepXPath(locator);
+        }
+        String tagName = matcher.group(1);
+        if ("*".equals(tagName)) {
+            resolvedCount.incrementAndGet();
+            return candidate;
+        }
+
+        // Tag cụ thể: cần snapshot để chắc By.id / accessibility id không khớp thêm node khác tag
+        String activity = DriverManager.getCurrentActivity();
+        if (activity == null) {
+            return keepXPath(locator);
+        }
+        String cacheKey = DriverManager.getDriver().getSessionId() + "\n" + activity + "\n" + value;
+        By cached = resolveCache.get(cacheKey);
+        if (cached != null) {
+            resolveCacheHitCount.incrementAndGet();
+            return cached;
+        }
+
+        long start = System.currentTimeMillis();
+        PageSnapshot snapshot = PageSnapshot.capture();
+        List<PageSnapshot.Node> matches = evaluateIndexed(snapshot, tagName, matcher.group(2), matcher.group(4));
+        List<PageSnapshot.Node> candidateMatches = snapshot.findByAttribute(matcher.group(2), matcher.group(4));
+        if (matches.isEmpty() || matches.size() != candidateMatches.size()
+                || !new HashSet<>(matches).containsAll(candidateMatches)) {
+            return keepXPath(locator);
+        }
+        resolvedCount.incrementAndGet();
+        resolveCache.put(cacheKey, candidate);
+        LogUtils.info("⚡ [XPathEngine] " + locator + " -> " + candidate + " (" + (System.currentTimeMillis() - start) + "ms)");
+        return candidate;
+    }
+
+    public static void logStats() {
+        if (indexedCount.get() + compiledCount.get() + cacheHitCount.get() == 0) {
+            return;
+        }
+        LogUtils.info("📊 [XPathEngine] indexed: " + indexedCount.get()
+                + " | compiled: " + compiledCount.get()
+                + " | cache hits: " + cacheHitCount.get()
+                + " | resolved: " + resolvedCount.get()
+                + " | fallback: " + fallbackCount.get()
+                + " | resolve cache hits: " + resolveCacheHitCount.get());
+    }
+
+    private static By keepXPath(By locator) {
+        fallbackCount.incrementAndGet();
+        LogUtils.debug("[XPathEngine] Giữ nguyên XPath phía server cho: " + locator);
+        return locator;
+    }
+
+    private static List<PageSnapshot.Node> evaluateIndexed(PageSnapshot snapshot, String tagName, String attribute, String value) {
+        if (attribute == null) {
+            return "*".equals(tagName) ? snapshot.getNodes() : filterByTag(snapshot.getNodes(), tagName);
+        }
+        List<PageSnapshot.Node> candidates = snapshot.findByAttribute(attribute, value);
+        return "*".equals(tagName) ? candidates : filterByTag(candidates, tagName);
+    }
+
+    private static List<PageSnapshot.Node> filterByTag(List<PageSnapshot.Node> nodes, String tagName) {
+        List<PageSnapshot.Node> result = new ArrayList<>();
+        for (PageSnapshot.Node node : nodes) {
+            if (node.getTagName().equals(tagName)) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    private static XPathExpression compile(String xpath) throws XPathExpressionException {
+        Map<String, XPathExpression> cache = expressionCache.get();
+        XPathExpression expression = cache.get(xpath);
+        if (expression != null) {
+            cacheHitCount.incrementAndGet();
+            return expression;
+        }
+        expression = XPathFactory.newInstance().newXPath().compile(xpath);
+        compiledCount.incrementAndGet();
+        cache.put(xpath, expression);
+        return expression;
+    }
+
+    /**
+     * Locator tương đương với phép so sánh @attribute='value' theo platform của driver (null nếu không đổi được)
+     * Android: resource-id -> By.id, content-desc -> accessibility id; iOS: name -> accessibility id
+     */
+    private static By toLocator(String attribute, String value) {
+        if (attribute == null || value == null || value.isEmpty()) {
+            return null;
+        }
+        boolean android = DriverManager.getDriver() instanceof AndroidDriver;
+        switch (attribute) {
+            case "resource-id":
+                return android && value.contains(FULL_RESOURCE_ID) ? By.id(value) : null;
+            case "content-desc":
+                return android ? AppiumBy.accessibilityId(value) : null;
+            case "name":
+                return android ? null : AppiumBy.accessibilityId(value);
+            default:
+                return null;
+        }
+    }
+
+    private static String xpathOf(By locator) {
+        String description = locator.toString();
+        return description.startsWith("By.xpath: ") ? description.substring("By.xpath: ".length()) : null;
+    }
+}
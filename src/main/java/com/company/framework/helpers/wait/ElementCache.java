@@ -0,0 +1,219 @@
+package com.company.framework.helpers.wait;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.drivers.DriverManager;
+import com.company.framework.utils.LogUtils;
+import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import static com.company.framework.drivers.DriverManager.getDriver;
+
+/**
+ * Cache element theo session (opt-in qua ELEMENT_CACHE_ENABLED)
+ * - Key: context hiện tại (NATIVE_APP / WEBVIEW_xxx) + locator
+ * - Entry được validate bằng một command trên chính element (isDisplayed/isEnabled) thay vì tìm lại bằng locator
+ * - Bị xóa khi gặp StaleElementReferenceException (keyword tìm lại element một lần qua retryOnStale), khi switch context
+ *   (WebViewHelper), khi activity Android đổi, khi điều hướng (BrowserHelper) hoặc reset app; đổi session thì cache cũ tự bỏ
+ */
+public class ElementCache {
+
+    private static final String DEFAULT_SCOPE = "NATIVE_APP";
+
+    private static final ThreadLocal<SessionCache> sessionCache = new ThreadLocal<>();
+    private static final AtomicLong hitCount = new AtomicLong();
+    private static final AtomicLong missCount = new AtomicLong();
+    private static final AtomicLong staleCount = new AtomicLong();
+    private static final AtomicLong invalidateCount = new AtomicLong();
+
+    private ElementCache() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    public static boolean isEnabled() {
+        return "true".equalsIgnoreCase(ConfigData.ELEMENT_CACHE_ENABLED);
+    }
+
+    /**
+     * Lấy element đã cache nếu vẫn còn hợp lệ
+     *
+     * @param locator   Locator cần tìm
+     * @param validator Điều kiện element phải thỏa (ví dụ isDisplayed), chạy trực tiếp trên element đã cache
+     * @return element đã cache, hoặc null nếu chưa có / không còn hợp lệ (cache miss)
+     */
+    public static WebElement get(By locator, Predicate<WebElement> validator) {
+        if (!isEnabled()) {
+            return null;
+        }
+        SessionCache cache = getSessionCache();
+        refreshActivity(cache);
+        cache.lastHit = null;
+        String key = cache.scope + "|" + locator;
+        WebElement element = cache.elements.get(key);
+        if (element != null) {
+            try {
+                if (validator.test(element)) {
+                    hitCount.incrementAndGet();
+                    cache.lastHit = locator;
+                    return element;
+                }
+            } catch (WebDriverException e) {
+                // StaleElementReferenceException / NoSuchElementException: element không còn trên màn hình
+                staleCount.incrementAndGet();
+            }
+            cache.elements.remove(key);
+        }
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Lưu element vừa tìm được vào cache
+     *
+     * @return chính element truyền vào
+     */
+    public static WebElement put(By locator, WebElement element) {
+        if (isEnabled() && element != null) {
+            SessionCache cache = getSessionCache();
+            cache.elements.put(cache.scope + "|" + locator, element);
+        }
+        return element;
+    }
+
+    /**
+     * Xóa một locator khỏi cache (ví dụ khi action trên element bị StaleElementReferenceException)
+     */
+    public static void evict(By locator) {
+        SessionCache cache = sessionCache.get();
+        if (cache != null && cache.elements.remove(cache.scope + "|" + locator) != null) {
+            staleCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Chạy action của keyword (tìm element + thao tác); nếu element lấy từ cache bị StaleElementReferenceException
+     * khi thao tác (màn hình vừa render lại), xóa entry đó khỏi cache và chạy lại action một lần để tìm lại element
+     * Element không lấy từ cache thì lỗi stale được ném ra như cũ
+     */
+    public static <T> T retryOnStale(Supplier<T> action) {
+        SessionCache cache = sessionCache.get();
+        if (cache != null) {
+            cache.lastHit = null;
+        }
+        try {
+            return action.get();
+        } catch (StaleElementReferenceException e) {
+            cache = sessionCache.get();
+            By staleLocator = cache != null ? cache.lastHit : null;
+            if (staleLocator == null) {
+                throw e;
+            }
+            evict(staleLocator);
+            LogUtils.info("♻️ [ElementCache] Element trong cache đã stale, tìm lại: " + staleLocator);
+            return action.get();
+        }
+    }
+
+    public static void retryOnStale(Runnable action) {
+        retryOnStale(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Xóa toàn bộ cache của session hiện tại (điều hướng, reset app...)
+     */
+    public static void invalidate() {
+        SessionCache cache = sessionCache.get();
+        if (cache != null && !cache.elements.isEmpty()) {
+            cache.elements.clear();
+            invalidateCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Gọi sau khi switch context: xóa cache và dùng context mới làm scope cho key
+     */
+    public static void onContextSwitch(String context) {
+        if (!isEnabled()) {
+            return;
+        }
+        invalidate();
+        getSessionCache().scope = context == null ? DEFAULT_SCOPE : context;
+    }
+
+    public static long getHitCount() {
+        return hitCount.get();
+    }
+
+    public static long getMissCount() {
+        return missCount.get();
+    }
+
+    public static long getStaleCount() {
+        return staleCount.get();
+    }
+
+    public static void logStats() {
+        long total = hitCount.get() + missCount.get();
+        if (total == 0) {
+            return;
+        }
+        LogUtils.info("📊 [ElementCache] hits: " + hitCount.get()
+                + " | misses: " + missCount.get()
+                + " | hit rate: " + (hitCount.get() * 100 / total) + "%"
+                + " | stale: " + staleCount.get()
+                + " | invalidations: " + invalidateCount.get());
+    }
+
+    /**
+     * Ở context native, activity Android đổi nghĩa là đã sang màn hình khác: xóa element của màn hình cũ
+     */
+    private static void refreshActivity(SessionCache cache) {
+        if (!DEFAULT_SCOPE.equals(cache.scope)) {
+            return;
+        }
+        String activity = DriverManager.getCurrentActivity();
+        if (activity != null && !activity.equals(cache.activity)) {
+            if (cache.activity != null) {
+                invalidate();
+            }
+            cache.activity = activity;
+        }
+    }
+
+    private static SessionCache getSessionCache() {
+        WebDriver driver = getDriver();
+        SessionCache cache = sessionCache.get();
+        if (cache == null || cache.driver != driver) {
+            cache = new SessionCache(driver);
+            sessionCache.set(cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Cache element của một session (gắn với driver hiện tại của thread)
+     */
+    private static class SessionCache {
+        private final WebDriver driver;
+        private final Map<String, WebElement> elements = new HashMap<>();
+        private String scope = DEFAULT_SCOPE;
+        private String activity;
+        // Locator của lần get() gần nhất trả về element từ cache
+        private By lastHit;
+
+        private SessionCache(WebDriver driver) {
+            this.driver = driver;
+        }
+    }
+}
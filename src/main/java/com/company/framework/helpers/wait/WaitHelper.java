@@ -0,0 +1,328 @@
+package com.company.framework.helpers.wait;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.reports.CurrentTest;
+import com.company.framework.reports.LocatorProfiler;
+import com.company.framework.reports.TimingStats;
+import com.company.framework.reports.TraceRecorder;
+import com.company.framework.reports.jfr.WaitEvent;
+import com.company.framework.utils.LogUtils;
+import org.openqa.selenium.By;
+import org.openqa.selenium.NotFoundException;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.company.framework.drivers.DriverManager.getDriver;
+
+/**
+ * Wait engine dùng chung cho tất cả keyword - thay thế implicit wait + new WebDriverWait mỗi lần gọi
+ * - Mỗi thread dùng lại một Waiter (gắn với driver hiện tại của thread)
+ * - Polling tăng dần theo exponential backoff: WAIT_POLL_INITIAL_MILLIS x WAIT_POLL_BACKOFF, tối đa WAIT_POLL_MAX_MILLIS
+ * - Implicit wait phải bằng 0 (base test set sẵn), nếu không mỗi lần poll có thể bị block bởi implicit wait
+ * - Các check presence/absence trả về ngay, tạm tắt implicit wait nếu đang bật
+ * - Ghi lại thời gian chờ và số lần poll theo từng locator
+ * - Khi bật ELEMENT_CACHE_ENABLED, element vừa tìm được dùng lại qua ElementCache (validate trên element thay vì tìm lại)
+ */
+public class WaitHelper {
+
+    private static final int DEFAULT_TIMEOUT = Integer.parseInt(ConfigData.TIMEOUT_EXPLICIT_DEFAULT);
+    private static final long POLL_INITIAL_MILLIS = parseOrDefault(ConfigData.WAIT_POLL_INITIAL_MILLIS, 100);
+    private static final long POLL_MAX_MILLIS = parseOrDefault(ConfigData.WAIT_POLL_MAX_MILLIS, 1000);
+    private static final double POLL_BACKOFF = ConfigData.WAIT_POLL_BACKOFF == null || ConfigData.WAIT_POLL_BACKOFF.trim().isEmpty()
+            ? 2.0 : Double.parseDouble(ConfigData.WAIT_POLL_BACKOFF.trim());
+
+    private static final ThreadLocal<Waiter> waiter = new ThreadLocal<>();
+    private static final Map<String, WaitStats> waitStats = new ConcurrentHashMap<>();
+    // Implicit wait mà setImplicitWait set gần nhất cho từng session (driver), tránh gọi GET /timeouts ở mỗi check
+    private static final Map<WebDriver, Duration> implicitWaits = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private WaitHelper() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Chờ element hiển thị với timeout mặc định (TIMEOUT_EXPLICIT_DEFAULT)
+     */
+    public static WebElement waitForElementVisible(By locator) {
+        WebElement cached = ElementCache.get(locator, WebElement::isDisplayed);
+        if (cached != null) {
+            return cached;
+        }
+        return ElementCache.put(locator, waitUntil(locator, ExpectedConditions.visibilityOfElementLocated(locator), Duration.ofSeconds(DEFAULT_TIMEOUT)));
+    }
+
+    /**
+     * Chờ element có thể click với timeout mặc định (TIMEOUT_EXPLICIT_DEFAULT)
+     */
+    public static WebElement waitForElementToBeClickable(By locator) {
+        WebElement cached = ElementCache.get(locator, element -> element.isDisplayed() && element.isEnabled());
+        if (cached != null) {
+            return cached;
+        }
+        return ElementCache.put(locator, waitUntil(locator, ExpectedConditions.elementToBeClickable(locator), Duration.ofSeconds(DEFAULT_TIMEOUT)));
+    }
+
+    /**
+     * Chờ element có trong DOM/cây UI (không cần hiển thị)
+     */
+    public static WebElement waitForElementPresent(By locator) {
+        return waitUntil(locator, ExpectedConditions.presenceOfElementLocated(locator), Duration.ofSeconds(DEFAULT_TIMEOUT));
+    }
+
+    /**
+     * Set implicit wait cho driver hiện tại và ghi nhớ giá trị cho session đó
+     * (đổi implicit wait phải qua method này, các check không chờ dựa vào giá trị ghi nhớ)
+     */
+    public static void setImplicitWait(Duration timeout) {
+        WebDriver driver = getDriver();
+        driver.manage().timeouts().implicitlyWait(timeout);
+        implicitWaits.put(driver, timeout);
+    }
+
+    /**
+     * Kiểm tra element có tồn tại không, trả về ngay (không implicit wait, không explicit wait)
+     */
+    public static boolean isElementPresent(By locator) {
+        return profiled(locator, () -> checkPresent(locator));
+    }
+
+    /**
+     * Kiểm tra có element nào khớp locator đang hiển thị không, trả về ngay
+     */
+    public static boolean isElementDisplayed(By locator) {
+        return profiled(locator, () -> withoutImplicitWait(driver -> {
+            for (WebElement element : driver.findElements(locator)) {
+                try {
+                    if (element.isDisplayed()) {
+                        return true;
+                    }
+                } catch (StaleElementReferenceException e) {
+                    // Element vừa biến mất, kiểm tra element tiếp theo
+                }
+            }
+            return false;
+        }));
+    }
+
+    /**
+     * Kiểm tra element không tồn tại, trả về ngay (dùng cho các negative check như "không hiện banner lỗi")
+     */
+    public static boolean isElementAbsent(By locator) {
+        return !isElementPresent(locator);
+    }
+
+    /**
+     * Chờ element biến mất trong tối đa timeoutMillis
+     *
+     * @return true nếu element không còn trong thời gian chờ, false nếu vẫn còn sau timeout
+     */
+    public static boolean waitForElementAbsent(By locator, long timeoutMillis) {
+        try {
+            waitUntil(locator, driver -> !checkPresent(locator), Duration.ofMillis(timeoutMillis));
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Chờ điều kiện bất kỳ với thread waiter hiện tại
+     *
+     * @param locator   Locator dùng làm key thống kê (có thể null)
+     * @param condition Điều kiện cần chờ, trả về null/false nghĩa là chưa thỏa
+     * @param timeout   Thời gian chờ tối đa
+     */
+    public static <T> T waitUntil(By locator, ExpectedCondition<T> condition, Duration timeout) {
+        return waitUntil(String.valueOf(locator), condition, timeout);
+    }
+
+    /**
+     * Chờ điều kiện không gắn với locator (ví dụ page load), key dùng để thống kê
+     */
+    public static <T> T waitUntil(String key, ExpectedCondition<T> condition, Duration timeout) {
+        return getWaiter().until(key, condition, timeout);
+    }
+
+    /**
+     * In thống kê chờ theo locator (sắp xếp theo tổng thời gian chờ)
+     * Gọi từ TestListener.onFinish(ISuite)
+     */
+    public static void logReport() {
+        if (waitStats.isEmpty()) {
+            return;
+        }
+        LogUtils.info("📊 [Wait] Thống kê chờ theo locator:");
+        waitStats.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, WaitStats> entry) -> entry.getValue().getTotalMillis()).reversed())
+                .forEach(entry -> {
+                    WaitStats stats = entry.getValue();
+                    LogUtils.info("   " + entry.getKey()
+                            + " | waits: " + stats.getCount()
+                            + " | avg: " + stats.getAverageMillis() + "ms"
+                            + " | max: " + stats.getMaxMillis() + "ms"
+                            + " | avg polls: " + String.format("%.1f", (double) stats.polls.get() / Math.max(1, stats.getCount()))
+                            + " | timeouts: " + stats.timeouts.get());
+                });
+    }
+
+    public static Map<String, WaitStats> getWaitStats() {
+        return waitStats;
+    }
+
+    private static boolean checkPresent(By locator) {
+        return withoutImplicitWait(driver -> !driver.findElements(locator).isEmpty());
+    }
+
+    /**
+     * Đo thời gian một check không chờ và ghi vào LocatorProfiler
+     */
+    private static boolean profiled(By locator, Supplier<Boolean> check) {
+        long start = System.currentTimeMillis();
+        boolean result = check.get();
+        LocatorProfiler.record(String.valueOf(locator), System.currentTimeMillis() - start, 0, false);
+        return result;
+    }
+
+    /**
+     * Chạy check với implicit wait = 0, khôi phục giá trị cũ sau khi chạy xong
+     * Dùng implicit wait đã ghi nhớ của session (bằng 0 thì không gửi thêm command nào),
+     * chỉ đọc từ driver một lần khi session chưa được set qua setImplicitWait
+     */
+    private static <T> T withoutImplicitWait(Function<WebDriver, T> check) {
+        WebDriver driver = getDriver();
+        Duration previous = implicitWaits.computeIfAbsent(driver, key -> key.manage().timeouts().getImplicitWaitTimeout());
+        if (previous.isZero()) {
+            return check.apply(driver);
+        }
+        driver.manage().timeouts().implicitlyWait(Duration.ZERO);
+        try {
+            return check.apply(driver);
+        } finally {
+            driver.manage().timeouts().implicitlyWait(previous);
+        }
+    }
+
+    private static Waiter getWaiter() {
+        WebDriver driver = getDriver();
+        Waiter current = waiter.get();
+        if (current == null || current.driver != driver) {
+            current = new Waiter(driver);
+            waiter.set(current);
+        }
+        return current;
+    }
+
+    private static long parseOrDefault(String value, long defaultValue) {
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        return Long.parseLong(value.trim());
+    }
+
+    /**
+     * Waiter của một thread, gắn với driver hiện tại của thread đó
+     */
+    private static class Waiter {
+        private final WebDriver driver;
+
+        private Waiter(WebDriver driver) {
+            this.driver = driver;
+        }
+
+        private <T> T until(String key, ExpectedCondition<T> condition, Duration timeout) {
+            WaitEvent event = new WaitEvent();
+            event.begin();
+            try (TraceRecorder.Span ignored = TraceRecorder.begin("wait", TraceRecorder.WAIT, key)) {
+                long start = System.currentTimeMillis();
+                long deadline = start + timeout.toMillis();
+                long interval = POLL_INITIAL_MILLIS;
+                int polls = 0;
+                RuntimeException lastError = null;
+
+                while (true) {
+                    polls++;
+                    try {
+                        T value = condition.apply(driver);
+                        if (value != null && !Boolean.FALSE.equals(value)) {
+                            record(key, System.currentTimeMillis() - start, polls, false);
+                            commit(event, key, polls, false);
+                            return value;
+                        }
+                    } catch (NotFoundException | StaleElementReferenceException e) {
+                        lastError = e;
+                    }
+
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        record(key, System.currentTimeMillis() - start, polls, true);
+                        commit(event, key, polls, true);
+                        throw new TimeoutException("Expected condition failed: waiting for " + condition
+                                + " (tried for " + timeout.toMillis() + "ms with " + polls + " polls)", lastError);
+                    }
+                    sleep(Math.min(interval, remaining));
+                    interval = Math.min(POLL_MAX_MILLIS, (long) (interval * POLL_BACKOFF));
+                }
+            }
+        }
+
+        private void commit(WaitEvent event, String key, int polls, boolean timedOut) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.locator = key;
+                event.testName = CurrentTest.getName();
+                event.polls = polls;
+                event.timedOut = timedOut;
+                event.commit();
+            }
+        }
+
+        private void sleep(long millis) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static void record(String key, long millis, int polls, boolean timedOut) {
+        WaitStats stats = waitStats.computeIfAbsent(key, k -> new WaitStats());
+        stats.record(millis);
+        stats.polls.addAndGet(polls);
+        if (timedOut) {
+            stats.timeouts.incrementAndGet();
+        }
+        LocatorProfiler.record(key, millis, polls - 1, timedOut);
+    }
+
+    /**
+     * Thống kê chờ của một locator
+     */
+    public static class WaitStats extends TimingStats {
+        private final AtomicLong polls = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+
+        public long getPolls() {
+            return polls.get();
+        }
+
+        public long getTimeouts() {
+            return timeouts.get();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.company.framework.helpers.webview;
 
 import com.company.framework.drivers.DriverManager;
+import com.company.framework.helpers.wait.ElementCache;
 import com.company.framework.utils.LogUtils;
 import io.appium.java_client.AppiumDriver;
 import io.appium.java_client.android.AndroidDriver;
@@ -95,6 +96,7 @@ public class WebViewHelper {
         } else {
             throw new UnsupportedOperationException("Driver type không hỗ trợ context switching");
         }
+        ElementCache.onContextSwitch(webViewName);
         LogUtils.info("✅ Đã switch sang WebView context: " + webViewName);
     }
 
@@ -139,6 +141,7 @@ public class WebViewHelper {
         } else {
             throw new UnsupportedOperationException("Driver type không hỗ trợ context switching");
         }
+        ElementCache.onContextSwitch(nativeContext);
         LogUtils.info("✅ Đã switch về Native context: " + nativeContext);
     }
 
@@ -179,6 +182,7 @@ public class WebViewHelper {
             } else {
                 throw new UnsupportedOperationException("Driver type không hỗ trợ context switching");
             }
+            ElementCache.onContextSwitch(targetContext);
             LogUtils.info("🔄 Đã switch context từ " + currentContext + " sang " + targetContext);
         } else {
             LogUtils.info("ℹ️ Đã ở đúng context: " + targetContext);
@@ -1,17 +1,18 @@
 package com.company.framework.keywords.browser;
 
 import com.company.framework.constants.ConfigData;
-import com.company.framework.drivers.DriverManager;
 import com.company.framework.helpers.browser.BrowserHelper;
+import com.company.framework.helpers.pacing.PacingHelper;
+import com.company.framework.helpers.screenshot.ScreenshotPipeline;
+import com.company.framework.helpers.wait.ElementCache;
+import com.company.framework.helpers.wait.WaitHelper;
 import com.company.framework.reports.AllureManager;
+import com.company.framework.reports.KeywordTracker;
 import com.company.framework.utils.LogUtils;
 import io.qameta.allure.Step;
 import org.openqa.selenium.By;
 import org.openqa.selenium.Keys;
-import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
 
@@ -21,17 +22,17 @@ import java.time.Duration;
  */
 public class BrowserUI {
 
-    private static final int DEFAULT_TIMEOUT = Integer.parseInt(ConfigData.TIMEOUT_EXPLICIT_DEFAULT);
-    private static final double STEP_ACTION_TIMEOUT = Double.parseDouble(ConfigData.STEP_ACTION_TIMEOUT);
 
     /**
      * Điều hướng đến URL
      */
     @Step("Navigate to URL: {0}")
     public static void navigateToUrl(String url) {
-        BrowserHelper.navigateToUrl(url);
-        if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
-            AllureManager.saveScreenshotPNG();
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("BrowserUI.navigateToUrl", url)) {
+            BrowserHelper.navigateToUrl(url);
+            if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
+                ScreenshotPipeline.captureStep();
+            }
         }
     }
 
@@ -56,9 +57,11 @@ public class BrowserUI {
      */
     @Step("Go back")
     public static void goBack() {
-        BrowserHelper.goBack();
-        if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
-            AllureManager.saveScreenshotPNG();
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("BrowserUI.goBack", null)) {
+            BrowserHelper.goBack();
+            if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
+                ScreenshotPipeline.captureStep();
+            }
         }
     }
 
@@ -67,9 +70,11 @@ public class BrowserUI {
      */
     @Step("Go forward")
     public static void goForward() {
-        BrowserHelper.goForward();
-        if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
-            AllureManager.saveScreenshotPNG();
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("BrowserUI.goForward", null)) {
+            BrowserHelper.goForward();
+            if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
+                ScreenshotPipeline.captureStep();
+            }
         }
     }
 
@@ -78,9 +83,11 @@ public class BrowserUI {
      */
     @Step("Refresh page")
     public static void refresh() {
-        BrowserHelper.refresh();
-        if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
-            AllureManager.saveScreenshotPNG();
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("BrowserUI.refresh", null)) {
+            BrowserHelper.refresh();
+            if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
+                ScreenshotPipeline.captureStep();
+            }
         }
     }
 
@@ -89,12 +96,14 @@ public class BrowserUI {
      */
     @Step("Click element {0}")
     public static void clickElement(By locator) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[BrowserUI] Clicking element: " + locator);
-        if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
-            AllureManager.saveScreenshotPNG();
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("BrowserUI.clickElement", locator)) {
+            PacingHelper.awaitWebReady("BrowserUI.clickElement");
+            LogUtils.info("[BrowserUI] Clicking element: " + locator);
+            if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
+                ScreenshotPipeline.captureStep();
+            }
+            ElementCache.retryOnStale(() -> waitForElementToBeClickable(locator).click());
         }
-        waitForElementToBeClickable(locator).click();
     }
 
     /**
@@ -102,15 +111,19 @@ public class BrowserUI {
      */
     @Step("Set text '{1}' on element {0}")
     public static void setText(By locator, String text) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[BrowserUI] Setting text '" + text + "' on element: " + locator);
-        if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
-            AllureManager.saveScreenshotPNG();
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("BrowserUI.setText", locator)) {
+            PacingHelper.awaitWebReady("BrowserUI.setText");
+            LogUtils.info("[BrowserUI] Setting text '" + text + "' on element: " + locator);
+            if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
+                ScreenshotPipeline.captureStep();
+            }
+            ElementCache.retryOnStale(() -> {
+                WebElement element = waitForElementVisible(locator);
+                element.click();
+                element.clear();
+                element.sendKeys(text);
+            });
         }
-        WebElement element = waitForElementVisible(locator);
-        element.click();
-        element.clear();
-        element.sendKeys(text);
     }
 
     /**
@@ -118,12 +131,13 @@ public class BrowserUI {
      */
     @Step("Get text from element {0}")
     public static String getElementText(By locator) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[BrowserUI] Getting text from element: " + locator);
-        WebElement element = waitForElementVisible(locator);
-        String text = element.getText();
-        AllureManager.saveTextLog("➡️ TEXT: " + text);
-        return text;
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("BrowserUI.getElementText", locator)) {
+            PacingHelper.awaitWebReady("BrowserUI.getElementText");
+            LogUtils.info("[BrowserUI] Getting text from element: " + locator);
+            String text = ElementCache.retryOnStale(() -> waitForElementVisible(locator).getText());
+            AllureManager.saveTextLog("➡️ TEXT: " + text);
+            return text;
+        }
     }
 
     /**
@@ -132,26 +146,27 @@ public class BrowserUI {
      */
     @Step("Send keys '{1}' to element {0}")
     public static void sendKeys(By locator, CharSequence... keys) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[BrowserUI] Sending keys to element: " + locator);
-        if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
-            AllureManager.saveScreenshotPNG();
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("BrowserUI.sendKeys", locator)) {
+            PacingHelper.awaitWebReady("BrowserUI.sendKeys");
+            LogUtils.info("[BrowserUI] Sending keys to element: " + locator);
+            if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
+                ScreenshotPipeline.captureStep();
+            }
+            ElementCache.retryOnStale(() -> waitForElementVisible(locator).sendKeys(keys));
+            LogUtils.info("[BrowserUI] Keys sent successfully");
         }
-        WebElement element = waitForElementVisible(locator);
-        element.sendKeys(keys);
-        LogUtils.info("[BrowserUI] Keys sent successfully");
     }
 
     /**
      * Chờ page load
      */
     public static void waitForPageLoad(int timeoutSeconds) {
-        LogUtils.info("[BrowserUI] Waiting for page to load");
-        WebDriver driver = (WebDriver) DriverManager.getDriver();
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds));
-        wait.until(webDriver -> ((org.openqa.selenium.JavascriptExecutor) webDriver)
-                .executeScript("return document.readyState").equals("complete"));
-        LogUtils.info("[BrowserUI] Page loaded successfully");
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("BrowserUI.waitForPageLoad", null)) {
+            LogUtils.info("[BrowserUI] Waiting for page to load");
+            WaitHelper.waitUntil("BrowserUI page load", webDriver -> ((org.openqa.selenium.JavascriptExecutor) webDriver)
+                    .executeScript("return document.readyState").equals("complete"), Duration.ofSeconds(timeoutSeconds));
+            LogUtils.info("[BrowserUI] Page loaded successfully");
+        }
     }
 
     /**
@@ -164,25 +179,33 @@ public class BrowserUI {
     // Wait methods
     public static WebElement waitForElementToBeClickable(By locator) {
         LogUtils.info("[BrowserUI] Waiting for element to be clickable: " + locator);
-        WebDriver driver = (WebDriver) DriverManager.getDriver();
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(DEFAULT_TIMEOUT));
-        return wait.until(ExpectedConditions.elementToBeClickable(locator));
+        return WaitHelper.waitForElementToBeClickable(locator);
     }
 
     public static WebElement waitForElementVisible(By locator) {
         LogUtils.info("[BrowserUI] Waiting for element to be visible: " + locator);
-        WebDriver driver = (WebDriver) DriverManager.getDriver();
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(DEFAULT_TIMEOUT));
-        return wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
+        return WaitHelper.waitForElementVisible(locator);
     }
 
-    private static void sleep(double second) {
-        LogUtils.info("[BrowserUI] Sleeping for " + second + " seconds.");
-        try {
-            Thread.sleep((long) (1000 * second));
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
+    /**
+     * Kiểm tra element có tồn tại không (trả về ngay, không chờ)
+     */
+    public static boolean isElementPresent(By locator) {
+        return WaitHelper.isElementPresent(locator);
+    }
+
+    /**
+     * Kiểm tra element không tồn tại (trả về ngay, không chờ)
+     */
+    public static boolean isElementAbsent(By locator) {
+        return WaitHelper.isElementAbsent(locator);
     }
-}
 
+    /**
+     * Kiểm tra element biến mất trong tối đa timeoutMillis
+     */
+    public static boolean isElementAbsentWithin(By locator, long timeoutMillis) {
+        LogUtils.info("[BrowserUI] Waiting up to " + timeoutMillis + "ms for element to be absent: " + locator);
+        return WaitHelper.waitForElementAbsent(locator, timeoutMillis);
+    }
+}
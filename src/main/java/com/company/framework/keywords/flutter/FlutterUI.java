@@ -2,7 +2,11 @@ package com.company.framework.keywords.flutter;
 
 import com.company.framework.constants.ConfigData;
 import com.company.framework.drivers.DriverManager;
+import com.company.framework.helpers.pacing.PacingHelper;
+import com.company.framework.helpers.screenshot.ScreenshotPipeline;
 import com.company.framework.reports.AllureManager;
+import com.company.framework.reports.KeywordTracker;
+import com.company.framework.reports.TraceRecorder;
 import com.company.framework.utils.LogUtils;
 import io.github.ashwith.flutter.FlutterElement;
 import io.github.ashwith.flutter.FlutterFinder;
@@ -25,7 +29,7 @@ import static com.company.framework.drivers.DriverManager.getDriver;
  */
 public class FlutterUI {
 
-    private static final double STEP_ACTION_TIMEOUT = Double.parseDouble(ConfigData.STEP_ACTION_TIMEOUT);
+    private static final int DEFAULT_TIMEOUT = Integer.parseInt(ConfigData.TIMEOUT_EXPLICIT_DEFAULT);
     private static FlutterFinder flutterFinder;
 
     /**
@@ -48,7 +52,7 @@ public class FlutterUI {
 
     public static void sleep(double second) {
         LogUtils.info("[FlutterUI] Sleeping for " + second + " seconds.");
-        try {
+        try (TraceRecorder.Span ignored = TraceRecorder.begin("FlutterUI.sleep", TraceRecorder.SLEEP, second + "s")) {
             Thread.sleep((long) (1000 * second));
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
@@ -93,55 +97,72 @@ public class FlutterUI {
 
     @Step("Click Flutter element by valueKey: {0}")
     public static void clickElementByValueKey(String valueKey) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[FlutterUI] Clicking element by valueKey: " + valueKey);
-        if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
-            AllureManager.saveScreenshotPNG();
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("FlutterUI.clickElementByValueKey", valueKey)) {
+            LogUtils.info("[FlutterUI] Clicking element by valueKey: " + valueKey);
+            FlutterElement element = findElementByValueKey(valueKey);
+            PacingHelper.await("FlutterUI.clickElementByValueKey", () -> waitForElement(element));
+            if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
+                ScreenshotPipeline.captureStep();
+            }
+            element.click();
         }
-        FlutterElement element = findElementByValueKey(valueKey);
-        element.click();
     }
 
     @Step("Click Flutter element by text: {0}")
     public static void clickElementByText(String text) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[FlutterUI] Clicking element by text: " + text);
-        if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
-            AllureManager.saveScreenshotPNG();
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("FlutterUI.clickElementByText", text)) {
+            LogUtils.info("[FlutterUI] Clicking element by text: " + text);
+            FlutterElement element = findElementByText(text);
+            PacingHelper.await("FlutterUI.clickElementByText", () -> waitForElement(element));
+            if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
+                ScreenshotPipeline.captureStep();
+            }
+            element.click();
         }
-        FlutterElement element = findElementByText(text);
-        element.click();
     }
 
     @Step("Set text '{1}' on Flutter element by valueKey: {0}")
     public static void setTextByValueKey(String valueKey, String text) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[FlutterUI] Setting text '" + text + "' on element by valueKey: " + valueKey);
-        if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
-            AllureManager.saveScreenshotPNG();
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("FlutterUI.setTextByValueKey", valueKey)) {
+            LogUtils.info("[FlutterUI] Setting text '" + text + "' on element by valueKey: " + valueKey);
+            FlutterElement element = findElementByValueKey(valueKey);
+            PacingHelper.await("FlutterUI.setTextByValueKey", () -> waitForElement(element));
+            if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
+                ScreenshotPipeline.captureStep();
+            }
+            element.sendKeys(text);
         }
-        FlutterElement element = findElementByValueKey(valueKey);
-        element.sendKeys(text);
     }
 
     @Step("Get text from Flutter element by valueKey: {0}")
     public static String getTextByValueKey(String valueKey) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[FlutterUI] Getting text from element by valueKey: " + valueKey);
-        FlutterElement element = findElementByValueKey(valueKey);
-        String text = element.getText();
-        AllureManager.saveTextLog("➡️ TEXT: " + text);
-        return text;
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("FlutterUI.getTextByValueKey", valueKey)) {
+            LogUtils.info("[FlutterUI] Getting text from element by valueKey: " + valueKey);
+            FlutterElement element = findElementByValueKey(valueKey);
+            PacingHelper.await("FlutterUI.getTextByValueKey", () -> waitForElement(element));
+            String text = element.getText();
+            AllureManager.saveTextLog("➡️ TEXT: " + text);
+            return text;
+        }
     }
 
     @Step("Get text from Flutter element by text: {0}")
     public static String getTextByText(String text) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[FlutterUI] Getting text from element by text: " + text);
-        FlutterElement element = findElementByText(text);
-        String result = element.getText();
-        AllureManager.saveTextLog("➡️ TEXT: " + result);
-        return result;
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("FlutterUI.getTextByText", text)) {
+            LogUtils.info("[FlutterUI] Getting text from element by text: " + text);
+            FlutterElement element = findElementByText(text);
+            PacingHelper.await("FlutterUI.getTextByText", () -> waitForElement(element));
+            String result = element.getText();
+            AllureManager.saveTextLog("➡️ TEXT: " + result);
+            return result;
+        }
+    }
+
+    /**
+     * Chờ Flutter element xuất hiện và frame được render xong (flutter:waitFor)
+     */
+    public static void waitForElement(FlutterElement element) {
+        getDriver().executeScript("flutter:waitFor", element, DEFAULT_TIMEOUT * 1000);
     }
 
     /**
@@ -172,58 +193,63 @@ public class FlutterUI {
      * Tap vào Flutter element
      */
     public static void tap(FlutterElement element) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[FlutterUI] Executing tap on Flutter element");
-        Point location = element.getLocation();
-        Dimension size = element.getSize();
-        Point centerOfElement = new Point(
-                location.getX() + size.getWidth() / 2,
-                location.getY() + size.getHeight() / 2
-        );
-        PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
-        Sequence sequence = new Sequence(finger, 1)
-                .addAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), centerOfElement))
-                .addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()))
-                .addAction(new Pause(finger, Duration.ofMillis(500)))
-                .addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
-        getDriver().perform(Collections.singletonList(sequence));
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("FlutterUI.tap", element)) {
+            PacingHelper.await("FlutterUI.tap", () -> waitForElement(element));
+            LogUtils.info("[FlutterUI] Executing tap on Flutter element");
+            Point location = element.getLocation();
+            Dimension size = element.getSize();
+            Point centerOfElement = new Point(
+                    location.getX() + size.getWidth() / 2,
+                    location.getY() + size.getHeight() / 2
+            );
+            PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
+            Sequence sequence = new Sequence(finger, 1)
+                    .addAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), centerOfElement))
+                    .addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()))
+                    .addAction(new Pause(finger, Duration.ofMillis(500)))
+                    .addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+            getDriver().perform(Collections.singletonList(sequence));
+        }
     }
 
     /**
      * Tap vào tọa độ
      */
     public static void tap(int x, int y) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[FlutterUI] Executing tap at coordinates (" + x + "," + y + ")");
-        PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
-        Sequence tap = new Sequence(finger, 1);
-        tap.addAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), x, y));
-        tap.addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
-        tap.addAction(new Pause(finger, Duration.ofMillis(200)));
-        tap.addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
-        getDriver().perform(Collections.singletonList(tap));
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("FlutterUI.tap", null)) {
+            PacingHelper.awaitIdle("FlutterUI.tap");
+            LogUtils.info("[FlutterUI] Executing tap at coordinates (" + x + "," + y + ")");
+            PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
+            Sequence tap = new Sequence(finger, 1);
+            tap.addAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), x, y));
+            tap.addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
+            tap.addAction(new Pause(finger, Duration.ofMillis(200)));
+            tap.addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+            getDriver().perform(Collections.singletonList(tap));
+        }
     }
 
     /**
      * Swipe trong Flutter app
      */
     public static void swipe(int startX, int startY, int endX, int endY, int durationMillis) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[FlutterUI] Executing swipe from (" + startX + "," + startY + ") to (" + endX + "," + endY + ") with duration " + durationMillis + "ms.");
-        PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
-        Sequence swipe = new Sequence(finger, 1);
-        swipe.addAction(finger.createPointerMove(Duration.ofMillis(0), PointerInput.Origin.viewport(), startX, startY));
-        swipe.addAction(finger.createPointerDown(0));
-        swipe.addAction(finger.createPointerMove(Duration.ofMillis(durationMillis), PointerInput.Origin.viewport(), endX, endY));
-        swipe.addAction(finger.createPointerUp(0));
-        getDriver().perform(Collections.singletonList(swipe));
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("FlutterUI.swipe", null)) {
+            PacingHelper.awaitIdle("FlutterUI.swipe");
+            LogUtils.info("[FlutterUI] Executing swipe from (" + startX + "," + startY + ") to (" + endX + "," + endY + ") with duration " + durationMillis + "ms.");
+            PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
+            Sequence swipe = new Sequence(finger, 1);
+            swipe.addAction(finger.createPointerMove(Duration.ofMillis(0), PointerInput.Origin.viewport(), startX, startY));
+            swipe.addAction(finger.createPointerDown(0));
+            swipe.addAction(finger.createPointerMove(Duration.ofMillis(durationMillis), PointerInput.Origin.viewport(), endX, endY));
+            swipe.addAction(finger.createPointerUp(0));
+            getDriver().perform(Collections.singletonList(swipe));
+        }
     }
 
     /**
      * Swipe left
      */
     public static void swipeLeft() {
-        sleep(STEP_ACTION_TIMEOUT);
         LogUtils.info("[FlutterUI] Executing swipeLeft.");
         Dimension size = getDriver().manage().window().getSize();
         int startX = (int) (size.width * 0.8);
@@ -238,7 +264,6 @@ public class FlutterUI {
      * Swipe right
      */
     public static void swipeRight() {
-        sleep(STEP_ACTION_TIMEOUT);
         LogUtils.info("[FlutterUI] Executing swipeRight.");
         Dimension size = getDriver().manage().window().getSize();
         int startX = (int) (size.width * 0.2);
@@ -253,7 +278,6 @@ public class FlutterUI {
      * Scroll trong Flutter app
      */
     public static void scroll(FlutterElement element, int deltaX, int deltaY) {
-        sleep(STEP_ACTION_TIMEOUT);
         LogUtils.info("[FlutterUI] Scrolling element with delta (" + deltaX + "," + deltaY + ")");
         Point location = element.getLocation();
         Dimension size = element.getSize();
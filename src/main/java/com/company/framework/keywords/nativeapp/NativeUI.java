@@ -1,17 +1,22 @@
 package com.company.framework.keywords.nativeapp;
 
 import com.company.framework.constants.ConfigData;
-import com.company.framework.drivers.DriverManager;
+import com.company.framework.helpers.locator.LocatorOptimizer;
+import com.company.framework.helpers.pacing.PacingHelper;
+import com.company.framework.helpers.screenshot.ScreenshotPipeline;
+import com.company.framework.helpers.snapshot.PageSnapshot;
+import com.company.framework.helpers.snapshot.XPathEngine;
+import com.company.framework.helpers.wait.ElementCache;
+import com.company.framework.helpers.wait.WaitHelper;
 import com.company.framework.reports.AllureManager;
+import com.company.framework.reports.KeywordTracker;
+import com.company.framework.reports.TraceRecorder;
 import com.company.framework.utils.LogUtils;
 import io.qameta.allure.Step;
 import org.openqa.selenium.*;
-import org.openqa.selenium.NoSuchElementException;
 import org.openqa.selenium.interactions.Pause;
 import org.openqa.selenium.interactions.PointerInput;
 import org.openqa.selenium.interactions.Sequence;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
 import java.util.*;
@@ -27,12 +32,10 @@ import static com.company.framework.drivers.DriverManager.getDriver;
  */
 public class NativeUI {
 
-    private static final int DEFAULT_TIMEOUT = Integer.parseInt(ConfigData.TIMEOUT_EXPLICIT_DEFAULT);
-    private static final double STEP_ACTION_TIMEOUT = Double.parseDouble(ConfigData.STEP_ACTION_TIMEOUT);
 
     public static void sleep(double second) {
         LogUtils.info("[NativeUI] Sleeping for " + second + " seconds.");
-        try {
+        try (TraceRecorder.Span ignored = TraceRecorder.begin("NativeUI.sleep", TraceRecorder.SLEEP, second + "s")) {
             Thread.sleep((long) (1000 * second));
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
@@ -40,19 +43,20 @@ public class NativeUI {
     }
 
     public static void swipe(int startX, int startY, int endX, int endY, int durationMillis) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[NativeUI] Executing swipe from (" + startX + "," + startY + ") to (" + endX + "," + endY + ") with duration " + durationMillis + "ms.");
-        PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
-        Sequence swipe = new Sequence(finger, 1);
-        swipe.addAction(finger.createPointerMove(Duration.ofMillis(0), PointerInput.Origin.viewport(), startX, startY));
-        swipe.addAction(finger.createPointerDown(0));
-        swipe.addAction(finger.createPointerMove(Duration.ofMillis(durationMillis), PointerInput.Origin.viewport(), endX, endY));
-        swipe.addAction(finger.createPointerUp(0));
-        getDriver().perform(Collections.singletonList(swipe));
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("NativeUI.swipe", null)) {
+            PacingHelper.awaitIdle("NativeUI.swipe");
+            LogUtils.info("[NativeUI] Executing swipe from (" + startX + "," + startY + ") to (" + endX + "," + endY + ") with duration " + durationMillis + "ms.");
+            PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
+            Sequence swipe = new Sequence(finger, 1);
+            swipe.addAction(finger.createPointerMove(Duration.ofMillis(0), PointerInput.Origin.viewport(), startX, startY));
+            swipe.addAction(finger.createPointerDown(0));
+            swipe.addAction(finger.createPointerMove(Duration.ofMillis(durationMillis), PointerInput.Origin.viewport(), endX, endY));
+            swipe.addAction(finger.createPointerUp(0));
+            getDriver().perform(Collections.singletonList(swipe));
+        }
     }
 
     public static void swipeLeft() {
-        sleep(STEP_ACTION_TIMEOUT);
         LogUtils.info("[NativeUI] Executing swipeLeft.");
         Dimension size = getDriver().manage().window().getSize();
         int startX = (int) (size.width * 0.8);
@@ -64,7 +68,6 @@ public class NativeUI {
     }
 
     public static void swipeRight() {
-        sleep(STEP_ACTION_TIMEOUT);
         LogUtils.info("[NativeUI] Executing swipeRight.");
         Dimension size = getDriver().manage().window().getSize();
         int startX = (int) (size.width * 0.2);
@@ -80,84 +83,170 @@ public class NativeUI {
     }
 
     public static void tap(WebElement element) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[NativeUI] Executing tap on element: " + element);
-        Point location = element.getLocation();
-        Dimension size = element.getSize();
-        Point centerOfElement = getCenterOfElement(location, size);
-        PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
-        Sequence sequence = new Sequence(finger, 1)
-                .addAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), centerOfElement))
-                .addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()))
-                .addAction(new Pause(finger, Duration.ofMillis(500)))
-                .addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
-        getDriver().perform(Collections.singletonList(sequence));
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("NativeUI.tap", element)) {
+            PacingHelper.awaitElementStable("NativeUI.tap", element);
+            LogUtils.info("[NativeUI] Executing tap on element: " + element);
+            Point location = element.getLocation();
+            Dimension size = element.getSize();
+            Point centerOfElement = getCenterOfElement(location, size);
+            PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
+            Sequence sequence = new Sequence(finger, 1)
+                    .addAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), centerOfElement))
+                    .addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()))
+                    .addAction(new Pause(finger, Duration.ofMillis(500)))
+                    .addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+            getDriver().perform(Collections.singletonList(sequence));
+        }
     }
 
     public static void tap(int x, int y) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[NativeUI] Executing tap at coordinates (" + x + "," + y + ")");
-        PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
-        Sequence tap = new Sequence(finger, 1);
-        tap.addAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), x, y));
-        tap.addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
-        tap.addAction(new Pause(finger, Duration.ofMillis(200)));
-        tap.addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
-        getDriver().perform(Arrays.asList(tap));
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("NativeUI.tap", null)) {
+            PacingHelper.awaitIdle("NativeUI.tap");
+            LogUtils.info("[NativeUI] Executing tap at coordinates (" + x + "," + y + ")");
+            PointerInput finger = new PointerInput(PointerInput.Kind.TOUCH, "finger");
+            Sequence tap = new Sequence(finger, 1);
+            tap.addAction(finger.createPointerMove(Duration.ZERO, PointerInput.Origin.viewport(), x, y));
+            tap.addAction(finger.createPointerDown(PointerInput.MouseButton.LEFT.asArg()));
+            tap.addAction(new Pause(finger, Duration.ofMillis(200)));
+            tap.addAction(finger.createPointerUp(PointerInput.MouseButton.LEFT.asArg()));
+            getDriver().perform(Arrays.asList(tap));
+        }
     }
 
     @Step("Click element {0}")
     public static void clickElement(By locator) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[NativeUI] Clicking element located by: " + locator);
-        if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
-            AllureManager.saveScreenshotPNG();
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("NativeUI.clickElement", locator)) {
+            LogUtils.info("[NativeUI] Clicking element located by: " + locator);
+            ElementCache.retryOnStale(() -> {
+                WebElement element = waitForElementToBeClickable(locator);
+                PacingHelper.awaitElementStable("NativeUI.clickElement", element);
+                if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
+                    ScreenshotPipeline.captureStep();
+                }
+                element.click();
+            });
         }
-        waitForElementToBeClickable(locator).click();
     }
 
     @Step("Set text '{1}' on element {0}")
     public static void setText(By locator, String text) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[NativeUI] Setting text '" + text + "' on element: " + locator);
-        if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
-            AllureManager.saveScreenshotPNG();
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("NativeUI.setText", locator)) {
+            LogUtils.info("[NativeUI] Setting text '" + text + "' on element: " + locator);
+            ElementCache.retryOnStale(() -> {
+                WebElement element = waitForElementVisible(locator);
+                PacingHelper.awaitElementStable("NativeUI.setText", element);
+                if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
+                    ScreenshotPipeline.captureStep();
+                }
+                element.click();
+                element.clear();
+                element.sendKeys(text);
+            });
         }
-        WebElement element = waitForElementVisible(locator);
-        element.click();
-        element.clear();
-        element.sendKeys(text);
     }
 
     @Step("Get text from element {0}")
     public static String getElementText(By locator) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[NativeUI] Getting text from element: " + locator);
-        WebElement element = waitForElementVisible(locator);
-        String text = element.getText();
-        AllureManager.saveTextLog("➡️ TEXT: " + text);
-        return text;
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("NativeUI.getElementText", locator)) {
+            LogUtils.info("[NativeUI] Getting text from element: " + locator);
+            String text = ElementCache.retryOnStale(() -> {
+                WebElement element = waitForElementVisible(locator);
+                PacingHelper.awaitElementStable("NativeUI.getElementText", element);
+                return element.getText();
+            });
+            AllureManager.saveTextLog("➡️ TEXT: " + text);
+            return text;
+        }
+    }
+
+    /**
+     * Lấy text của nhiều element trên cùng màn hình chỉ với một lần getPageSource()
+     * Element không tìm thấy có giá trị null
+     *
+     * @return Map locator -> text, giữ thứ tự locator truyền vào
+     */
+    @Step("Get texts from elements {0}")
+    public static Map<By, String> getTexts(By... locators) {
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("NativeUI.getTexts", Arrays.asList(locators))) {
+            PacingHelper.awaitIdle("NativeUI.getTexts");
+            LogUtils.info("[NativeUI] Getting texts from " + locators.length + " elements via page snapshot");
+            PageSnapshot snapshot = PageSnapshot.capture();
+            Map<By, String> texts = new LinkedHashMap<>();
+            for (By locator : locators) {
+                texts.put(locator, snapshot.getText(locator));
+            }
+            AllureManager.saveTextLog("➡️ TEXTS: " + texts);
+            return texts;
+        }
+    }
+
+    /**
+     * Kiểm tra tất cả element đều hiển thị, chỉ với một lần getPageSource()
+     *
+     * @return true nếu mọi locator đều tìm thấy element đang hiển thị
+     */
+    @Step("Check elements are displayed {0}")
+    public static boolean areDisplayed(By... locators) {
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("NativeUI.areDisplayed", Arrays.asList(locators))) {
+            PacingHelper.awaitIdle("NativeUI.areDisplayed");
+            LogUtils.info("[NativeUI] Checking " + locators.length + " elements are displayed via page snapshot");
+            PageSnapshot snapshot = PageSnapshot.capture();
+            for (By locator : locators) {
+                if (!snapshot.isDisplayed(locator)) {
+                    LogUtils.info("[NativeUI] Element is not displayed: " + locator);
+                    return false;
+                }
+            }
+            return true;
+        }
     }
 
     public static WebElement waitForElementToBeClickable(By locator) {
         LogUtils.info("[NativeUI] Waiting for element to be clickable: " + locator);
-        WebDriverWait wait = new WebDriverWait(DriverManager.getDriver(), Duration.ofSeconds(DEFAULT_TIMEOUT));
-        return wait.until(ExpectedConditions.elementToBeClickable(locator));
+        return WaitHelper.waitForElementToBeClickable(resolveLocator(locator));
     }
 
     public static WebElement waitForElementVisible(By locator) {
         LogUtils.info("[NativeUI] Waiting for element to be visible: " + locator);
-        WebDriverWait wait = new WebDriverWait(getDriver(), Duration.ofSeconds(DEFAULT_TIMEOUT));
-        return wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
+        return WaitHelper.waitForElementVisible(resolveLocator(locator));
     }
 
-    public static boolean isElementPresentAndDisplayed(By locator) {
-        try {
-            WebElement element = getDriver().findElement(locator);
-            return element != null && element.isDisplayed();
-        } catch (NoSuchElementException e) {
-            return false;
+    /**
+     * Đổi By.xpath sang strategy nhanh hơn:
+     * - LOCATOR_OPTIMIZER_ENABLED: compile sang UiSelector / class chain (không tốn round trip)
+     * - LOCAL_XPATH_ENABLED: XPath không compile được thì resolve local sang resource-id / accessibility id
+     */
+    private static By resolveLocator(By locator) {
+        By optimized = LocatorOptimizer.isEnabled() ? LocatorOptimizer.optimize(locator) : locator;
+        if (optimized == locator && XPathEngine.isEnabled()) {
+            return XPathEngine.resolve(locator);
         }
+        return optimized;
+    }
+
+    public static boolean isElementPresentAndDisplayed(By locator) {
+        return WaitHelper.isElementDisplayed(locator);
+    }
+
+    /**
+     * Kiểm tra element có tồn tại không (trả về ngay, không chờ)
+     */
+    public static boolean isElementPresent(By locator) {
+        return WaitHelper.isElementPresent(locator);
+    }
+
+    /**
+     * Kiểm tra element không tồn tại (trả về ngay, không chờ)
+     */
+    public static boolean isElementAbsent(By locator) {
+        return WaitHelper.isElementAbsent(locator);
     }
-}
 
+    /**
+     * Kiểm tra element biến mất trong tối đa timeoutMillis
+     */
+    public static boolean isElementAbsentWithin(By locator, long timeoutMillis) {
+        LogUtils.info("[NativeUI] Waiting up to " + timeoutMillis + "ms for element to be absent: " + locator);
+        return WaitHelper.waitForElementAbsent(locator, timeoutMillis);
+    }
+}
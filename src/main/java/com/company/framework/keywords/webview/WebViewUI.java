@@ -2,15 +2,18 @@ package com.company.framework.keywords.webview;
 
 import com.company.framework.constants.ConfigData;
 import com.company.framework.drivers.DriverManager;
+import com.company.framework.helpers.pacing.PacingHelper;
+import com.company.framework.helpers.screenshot.ScreenshotPipeline;
+import com.company.framework.helpers.wait.ElementCache;
+import com.company.framework.helpers.wait.WaitHelper;
 import com.company.framework.helpers.webview.WebViewHelper;
 import com.company.framework.reports.AllureManager;
+import com.company.framework.reports.KeywordTracker;
 import com.company.framework.utils.LogUtils;
 import io.qameta.allure.Step;
 import org.openqa.selenium.By;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.WebElement;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
 
 import java.time.Duration;
 
@@ -20,8 +23,6 @@ import java.time.Duration;
  */
 public class WebViewUI {
 
-    private static final int DEFAULT_TIMEOUT = Integer.parseInt(ConfigData.TIMEOUT_EXPLICIT_DEFAULT);
-    private static final double STEP_ACTION_TIMEOUT = Double.parseDouble(ConfigData.STEP_ACTION_TIMEOUT);
 
     /**
      * Click element trong WebView context
@@ -37,23 +38,24 @@ public class WebViewUI {
      */
     @Step("Click element {0} in WebView {1}")
     public static void clickElementInWebView(By locator, String webViewName) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[WebViewUI] Clicking element in WebView: " + locator);
-
-        // Switch to WebView context
-        if (webViewName != null) {
-            WebViewHelper.switchToWebView(webViewName);
-        } else {
-            WebViewHelper.switchToWebView(null);
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("WebViewUI.clickElementInWebView", locator)) {
+            LogUtils.info("[WebViewUI] Clicking element in WebView: " + locator);
+
+            // Switch to WebView context
+            if (webViewName != null) {
+                WebViewHelper.switchToWebView(webViewName);
+            } else {
+                WebViewHelper.switchToWebView(null);
+            }
+            PacingHelper.awaitWebReady("WebViewUI.clickElementInWebView");
+
+            if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
+                ScreenshotPipeline.captureStep();
+            }
+
+            ElementCache.retryOnStale(() -> waitForElementToBeClickable(locator).click());
+            LogUtils.info("[WebViewUI] Element clicked successfully");
         }
-
-        if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
-            AllureManager.saveScreenshotPNG();
-        }
-
-        WebElement element = waitForElementToBeClickable(locator);
-        element.click();
-        LogUtils.info("[WebViewUI] Element clicked successfully");
     }
 
     /**
@@ -69,25 +71,29 @@ public class WebViewUI {
      */
     @Step("Set text '{1}' on element {0} in WebView {2}")
     public static void setTextInWebView(By locator, String text, String webViewName) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[WebViewUI] Setting text '" + text + "' in WebView: " + locator);
-
-        // Switch to WebView context
-        if (webViewName != null) {
-            WebViewHelper.switchToWebView(webViewName);
-        } else {
-            WebViewHelper.switchToWebView(null);
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("WebViewUI.setTextInWebView", locator)) {
+            LogUtils.info("[WebViewUI] Setting text '" + text + "' in WebView: " + locator);
+
+            // Switch to WebView context
+            if (webViewName != null) {
+                WebViewHelper.switchToWebView(webViewName);
+            } else {
+                WebViewHelper.switchToWebView(null);
+            }
+            PacingHelper.awaitWebReady("WebViewUI.setTextInWebView");
+
+            if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
+                ScreenshotPipeline.captureStep();
+            }
+
+            ElementCache.retryOnStale(() -> {
+                WebElement element = waitForElementVisible(locator);
+                element.click();
+                element.clear();
+                element.sendKeys(text);
+            });
+            LogUtils.info("[WebViewUI] Text set successfully");
         }
-
-        if (ConfigData.SCREENSHOT_ALL_STEP.equalsIgnoreCase("true")) {
-            AllureManager.saveScreenshotPNG();
-        }
-
-        WebElement element = waitForElementVisible(locator);
-        element.click();
-        element.clear();
-        element.sendKeys(text);
-        LogUtils.info("[WebViewUI] Text set successfully");
     }
 
     /**
@@ -103,67 +109,57 @@ public class WebViewUI {
      */
     @Step("Get text from element {0} in WebView {1}")
     public static String getTextInWebView(By locator, String webViewName) {
-        sleep(STEP_ACTION_TIMEOUT);
-        LogUtils.info("[WebViewUI] Getting text from element in WebView: " + locator);
-
-        // Switch to WebView context
-        if (webViewName != null) {
-            WebViewHelper.switchToWebView(webViewName);
-        } else {
-            WebViewHelper.switchToWebView(null);
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("WebViewUI.getTextInWebView", locator)) {
+            LogUtils.info("[WebViewUI] Getting text from element in WebView: " + locator);
+
+            // Switch to WebView context
+            if (webViewName != null) {
+                WebViewHelper.switchToWebView(webViewName);
+            } else {
+                WebViewHelper.switchToWebView(null);
+            }
+            PacingHelper.awaitWebReady("WebViewUI.getTextInWebView");
+
+            String text = ElementCache.retryOnStale(() -> waitForElementVisible(locator).getText());
+            AllureManager.saveTextLog("➡️ TEXT: " + text);
+            return text;
         }
-
-        WebElement element = waitForElementVisible(locator);
-        String text = element.getText();
-        AllureManager.saveTextLog("➡️ TEXT: " + text);
-        return text;
     }
 
     /**
      * Chờ page load trong WebView
      */
     public static void waitForPageLoad(int timeoutSeconds) {
-        LogUtils.info("[WebViewUI] Waiting for page to load in WebView");
-        WebDriver driver = (WebDriver) DriverManager.getDriver();
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(timeoutSeconds));
-        wait.until(webDriver -> ((org.openqa.selenium.JavascriptExecutor) webDriver)
-                .executeScript("return document.readyState").equals("complete"));
-        LogUtils.info("[WebViewUI] Page loaded successfully");
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("WebViewUI.waitForPageLoad", null)) {
+            LogUtils.info("[WebViewUI] Waiting for page to load in WebView");
+            WaitHelper.waitUntil("WebViewUI page load", webDriver -> ((org.openqa.selenium.JavascriptExecutor) webDriver)
+                    .executeScript("return document.readyState").equals("complete"), Duration.ofSeconds(timeoutSeconds));
+            LogUtils.info("[WebViewUI] Page loaded successfully");
+        }
     }
 
     /**
      * Thực thi JavaScript trong WebView
      */
     public static Object executeJavaScript(String script) {
-        LogUtils.info("[WebViewUI] Executing JavaScript: " + script);
-        WebDriver driver = (WebDriver) DriverManager.getDriver();
-        Object result = ((org.openqa.selenium.JavascriptExecutor) driver).executeScript(script);
-        LogUtils.info("[WebViewUI] JavaScript executed successfully");
-        return result;
+        try (KeywordTracker.Scope ignored = KeywordTracker.start("WebViewUI.executeJavaScript", null)) {
+            LogUtils.info("[WebViewUI] Executing JavaScript: " + script);
+            WebDriver driver = (WebDriver) DriverManager.getDriver();
+            Object result = ((org.openqa.selenium.JavascriptExecutor) driver).executeScript(script);
+            LogUtils.info("[WebViewUI] JavaScript executed successfully");
+            return result;
+        }
     }
 
     // Wait methods
     public static WebElement waitForElementToBeClickable(By locator) {
         LogUtils.info("[WebViewUI] Waiting for element to be clickable: " + locator);
-        WebDriver driver = (WebDriver) DriverManager.getDriver();
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(DEFAULT_TIMEOUT));
-        return wait.until(ExpectedConditions.elementToBeClickable(locator));
+        return WaitHelper.waitForElementToBeClickable(locator);
     }
 
     public static WebElement waitForElementVisible(By locator) {
         LogUtils.info("[WebViewUI] Waiting for element to be visible: " + locator);
-        WebDriver driver = (WebDriver) DriverManager.getDriver();
-        WebDriverWait wait = new WebDriverWait(driver, Duration.ofSeconds(DEFAULT_TIMEOUT));
-        return wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
-    }
-
-    private static void sleep(double second) {
-        LogUtils.info("[WebViewUI] Sleeping for " + second + " seconds.");
-        try {
-            Thread.sleep((long) (1000 * second));
-        } catch (InterruptedException e) {
-            throw new RuntimeException(e);
-        }
+        return WaitHelper.waitForElementVisible(locator);
     }
 }
 
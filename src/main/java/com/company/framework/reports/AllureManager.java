@@ -15,11 +15,15 @@ public class AllureManager {
    //Screenshot attachments for Allure
    @Attachment(value = "Page_Screenshot", type = "image/png")
    public static byte[] saveScreenshotPNG() {
-      return ((TakesScreenshot) DriverManager.getDriver()).getScreenshotAs(OutputType.BYTES);
+      try (TraceRecorder.Span ignored = TraceRecorder.begin("AllureManager.saveScreenshotPNG", TraceRecorder.SCREENSHOT)) {
+         return ((TakesScreenshot) DriverManager.getDriver()).getScreenshotAs(OutputType.BYTES);
+      }
    }
 
    @Attachment(value = "{0}", type = "image/png")
    public static byte[] saveScreenshotPNG(String screenshotName) {
-      return ((TakesScreenshot) DriverManager.getDriver()).getScreenshotAs(OutputType.BYTES);
+      try (TraceRecorder.Span ignored = TraceRecorder.begin("AllureManager.saveScreenshotPNG", TraceRecorder.SCREENSHOT, screenshotName)) {
+         return ((TakesScreenshot) DriverManager.getDriver()).getScreenshotAs(OutputType.BYTES);
+      }
    }
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+package com.company.framework.reports;
+
+import com.company.framework.utils.LogUtils;
+import io.qameta.allure.Allure;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram latency của từng WebDriver command theo tên command và test case
+ * - Dữ liệu được ghi từ HTTP filter của mọi driver (HttpClientFactory), nên không cần bọc AppiumDriver
+ * - Export ra file Prometheus text format (command-metrics.prom) cạnh thư mục Allure results
+ * - Histogram của từng test được đính kèm vào Allure result của test đó
+ */
+public class CommandMetrics {
+
+    private static final String METRIC_NAME = "appium_command_duration_seconds";
+    private static final String REPORT_FILE_NAME = "command-metrics.prom";
+    private static final long[] BUCKET_MILLIS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000};
+
+    private static final Map<String, String> COMMAND_NAMES = Map.ofEntries(
+            Map.entry("POST /session", "newSession"),
+            Map.entry("DELETE /session/:id", "quit"),
+            Map.entry("POST /session/:id/element", "findElement"),
+            Map.entry("POST /session/:id/elements", "findElements"),
+            Map.entry("POST /session/:id/element/:id/element", "findChildElement"),
+            Map.entry("POST /session/:id/element/:id/elements", "findChildElements"),
+            Map.entry("POST /session/:id/element/:id/click", "clickElement"),
+            Map.entry("POST /session/:id/element/:id/value", "sendKeysToElement"),
+            Map.entry("POST /session/:id/element/:id/clear", "clearElement"),
+            Map.entry("GET /session/:id/element/:id/text", "getElementText"),
+            Map.entry("GET /session/:id/element/:id/displayed", "isElementDisplayed"),
+            Map.entry("GET /session/:id/element/:id/enabled", "isElementEnabled"),
+            Map.entry("GET /session/:id/element/:id/selected", "isElementSelected"),
+            Map.entry("GET /session/:id/element/:id/rect", "getElementRect"),
+            Map.entry("GET /session/:id/screenshot", "screenshot"),
+            Map.entry("GET /session/:id/source", "getPageSource"),
+            Map.entry("POST /session/:id/execute/sync", "executeScript"),
+            Map.entry("POST /session/:id/actions", "actions"),
+            Map.entry("GET /session/:id/timeouts", "getTimeouts"),
+            Map.entry("POST /session/:id/timeouts", "setTimeouts"),
+            Map.entry("GET /session/:id/context", "getCurrentContext"),
+            Map.entry("POST /session/:id/context", "switchToContext"),
+            Map.entry("GET /session/:id/contexts", "getContextHandles"),
+            Map.entry("POST /session/:id/url", "get"),
+            Map.entry("GET /session/:id/url", "getCurrentUrl"),
+            Map.entry("GET /session/:id/title", "getTitle"),
+            Map.entry("POST /session/:id/back", "goBack"),
+            Map.entry("POST /session/:id/forward", "goForward"),
+            Map.entry("POST /session/:id/refresh", "refresh"),
+            Map.entry("POST /session/:id/appium/start_recording_screen", "startRecordingScreen"),
+            Map.entry("POST /session/:id/appium/stop_recording_screen", "stopRecordingScreen"));
+
+    private static final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+
+    private CommandMetrics() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Ghi nhận một command
+     *
+     * @param method HTTP method
+     * @param path   Path đã chuẩn hóa (session id / element id thay bằng :id)
+     * @param millis Thời gian thực thi
+     */
+    public static void record(String method, String path, long millis) {
+        String command = toCommandName(method, path);
+        String test = CurrentTest.getName();
+        histograms.computeIfAbsent(test + "\n" + command, key -> new Histogram(command, test)).observe(millis);
+    }
+
+    /**
+     * Đính kèm histogram command của test hiện tại vào Allure (gọi trước khi Allure kết thúc test)
+     */
+    public static void attachCurrentTest() {
+        String test = CurrentTest.getName();
+        StringBuilder content = new StringBuilder();
+        appendHeader(content);
+        new TreeMap<>(histograms).values().stream()
+                .filter(histogram -> histogram.test.equals(test))
+                .forEach(histogram -> histogram.appendTo(content));
+        if (content.indexOf("_count") > 0) {
+            Allure.addAttachment("Command metrics", "text/plain", content.toString(), ".prom");
+        }
+    }
+
+    /**
+     * Ghi toàn bộ histogram ra file Prometheus text format cạnh thư mục Allure results
+     */
+    public static synchronized void writePrometheusFile() {
+        if (histograms.isEmpty()) {
+            return;
+        }
+        StringBuilder content = new StringBuilder();
+        appendHeader(content);
+        new TreeMap<>(histograms).values().forEach(histogram -> histogram.appendTo(content));
+
+        Path resultsDirectory = Paths.get(System.getProperty("allure.results.directory", "target/allure-results")).toAbsolutePath();
+        Path reportPath = (resultsDirectory.getParent() == null ? resultsDirectory : resultsDirectory.getParent()).resolve(REPORT_FILE_NAME);
+        try {
+            Files.createDirectories(reportPath.getParent());
+            Files.write(reportPath, content.toString().getBytes(StandardCharsets.UTF_8));
+            LogUtils.info("📊 [CommandMetrics] Đã ghi " + histograms.size() + " histogram: " + reportPath);
+        } catch (IOException e) {
+            LogUtils.warn("⚠️ [CommandMetrics] Không ghi được file metrics: " + e.getMessage());
+        }
+    }
+
+    public static Map<String, Histogram> getHistograms() {
+        return histograms;
+    }
+
+    private static void appendHeader(StringBuilder content) {
+        content.append("# HELP ").append(METRIC_NAME).append(" WebDriver command latency by command and test\n");
+        content.append("# TYPE ").append(METRIC_NAME).append(" histogram\n");
+    }
+
+    /**
+     * Tên WebDriver command từ HTTP method + path đã chuẩn hóa (ví dụ "POST /session/:id/element" -> findElement)
+     */
+    public static String toCommandName(String method, String path) {
+        String key = method + " " + path;
+        String name = COMMAND_NAMES.get(key);
+        if (name != null) {
+            return name;
+        }
+        if (path.contains("/attribute/")) {
+            return "getElementAttribute";
+        }
+        return key;
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    /**
+     * Histogram (bucket cộng dồn kiểu Prometheus) của một command trong một test
+     */
+    public static class Histogram {
+        private final String command;
+        private final String test;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_MILLIS.length);
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong sumMillis = new AtomicLong();
+
+        private Histogram(String command, String test) {
+            this.command = command;
+            this.test = test;
+        }
+
+        private void observe(long millis) {
+            for (int i = 0; i < BUCKET_MILLIS.length; i++) {
+                if (millis <= BUCKET_MILLIS[i]) {
+                    buckets.incrementAndGet(i);
+                }
+            }
+            count.incrementAndGet();
+            sumMillis.addAndGet(millis);
+        }
+
+        private void appendTo(StringBuilder content) {
+            String labels = "command=\"" + escape(command) + "\",test=\"" + escape(test) + "\"";
+            for (int i = 0; i < BUCKET_MILLIS.length; i++) {
+                content.append(METRIC_NAME).append("_bucket{").append(labels)
+                        .append(",le=\"").append(String.format(Locale.ROOT, "%.3f", BUCKET_MILLIS[i] / 1000.0)).append("\"} ")
+                        .append(buckets.get(i)).append('\n');
+            }
+            content.append(METRIC_NAME).append("_bucket{").append(labels).append(",le=\"+Inf\"} ").append(count.get()).append('\n');
+            content.append(METRIC_NAME).append("_sum{").append(labels).append("} ")
+                    .append(String.format(Locale.ROOT, "%.3f", sumMillis.get() / 1000.0)).append('\n');
+            content.append(METRIC_NAME).append("_count{").append(labels).append("} ").append(count.get()).append('\n');
+        }
+
+        public String getCommand() {
+            return command;
+        }
+
+        public String getTest() {
+            return test;
+        }
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getSumMillis() {
+            return sumMillis.get();
+        }
+    }
+}
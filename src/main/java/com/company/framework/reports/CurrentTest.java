@@ -0,0 +1,27 @@
+package com.company.framework.reports;
+
+import org.testng.ITestResult;
+import org.testng.Reporter;
+
+/**
+ * Lấy tên test case đang chạy trên thread hiện tại (dùng làm label cho metrics/events)
+ */
+public class CurrentTest {
+
+    private static final String NO_TEST = "none";
+
+    private CurrentTest() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Tên test dạng TestClass.method, hoặc "none" nếu thread không chạy test nào (pre-warm session, @AfterSuite...)
+     */
+    public static String getName() {
+        ITestResult result = Reporter.getCurrentTestResult();
+        if (result == null || result.getMethod() == null) {
+            return NO_TEST;
+        }
+        return result.getTestClass().getRealClass().getSimpleName() + "." + result.getMethod().getMethodName();
+    }
+}
@@ -0,0 +1,65 @@
+package com.company.framework.reports;
+
+import com.company.framework.reports.jfr.KeywordEvent;
+
+/**
+ * Đánh dấu phạm vi thực thi của một keyword để các công cụ profiling ghi lại (JFR event, span trong TraceRecorder)
+ *
+ * Dùng với try-with-resources:
+ * <pre>
+ * try (KeywordTracker.Scope ignored = KeywordTracker.start("NativeUI.clickElement", locator)) {
+ *     ...
+ * }
+ * </pre>
+ * Khi không có JFR recording nào bật event Keyword, chi phí chỉ là tạo một object nhỏ
+ * (locator/test name chỉ được tính khi event thực sự được commit)
+ */
+public class KeywordTracker {
+
+    private KeywordTracker() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Bắt đầu scope của keyword
+     *
+     * @param keyword Tên keyword dạng "NativeUI.clickElement"
+     * @param target  Locator / element / giá trị keyword thao tác (có thể null)
+     */
+    public static Scope start(String keyword, Object target) {
+        return new Scope(keyword, target);
+    }
+
+    /**
+     * Scope của một keyword, kết thúc khi close()
+     */
+    public static class Scope implements AutoCloseable {
+        private final String keyword;
+        private final Object target;
+        private final KeywordEvent event = new KeywordEvent();
+        private final TraceRecorder.Span span;
+
+        private Scope(String keyword, Object target) {
+            this.keyword = keyword;
+            this.target = target;
+            this.span = TraceRecorder.begin(keyword, TraceRecorder.KEYWORD, target == null ? null : String.valueOf(target));
+            event.begin();
+        }
+
+        public String getKeyword() {
+            return keyword;
+        }
+
+        @Override
+        public void close() {
+            event.end();
+            if (event.shouldCommit()) {
+                event.keyword = keyword;
+                event.locator = target == null ? null : String.valueOf(target);
+                event.testName = CurrentTest.getName();
+                event.commit();
+            }
+            span.close();
+        }
+    }
+}
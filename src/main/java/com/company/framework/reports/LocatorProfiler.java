@@ -0,0 +1,164 @@
+package com.company.framework.reports;
+
+import com.company.framework.utils.LogUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Profiler theo locator - ghi lại latency tìm element, số lần retry (poll) và số lần fail
+ * theo từng locator và từng màn hình trong suốt lần chạy
+ *
+ * "Màn hình" là class gọi keyword gần nhất nằm ngoài framework (page object hoặc test class),
+ * lấy bằng StackWalker nên không tốn thêm command nào tới device
+ *
+ * Report được sắp xếp theo tổng thời gian và ghi cạnh thư mục Allure results (locator-profile.txt)
+ */
+public class LocatorProfiler {
+
+    private static final String FRAMEWORK_PACKAGE = "com.company.framework.";
+    private static final String REPORT_FILE_NAME = "locator-profile.txt";
+    private static final int SLOWEST_LOG_LIMIT = 10;
+
+    private static final Map<String, LocatorStats> stats = new ConcurrentHashMap<>();
+    private static final StackWalker stackWalker = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+
+    private LocatorProfiler() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Ghi nhận một lần tìm element
+     *
+     * @param locator Chuỗi locator (By.toString())
+     * @param millis  Thời gian tìm (bao gồm cả thời gian chờ)
+     * @param retries Số lần poll lại trước khi thành công/timeout
+     * @param failed  true nếu không tìm thấy element trong thời gian chờ
+     */
+    public static void record(String locator, long millis, int retries, boolean failed) {
+        String screen = currentScreen();
+        LocatorStats entry = stats.computeIfAbsent(screen + "\n" + locator, key -> new LocatorStats(locator, screen));
+        entry.record(millis);
+        entry.retries.addAndGet(retries);
+        if (failed) {
+            entry.failures.incrementAndGet();
+        }
+    }
+
+    /**
+     * Ghi report ra file cạnh thư mục Allure results và log các locator chậm nhất
+     * Có thể gọi nhiều lần (mỗi lần ghi đè bằng dữ liệu tích lũy)
+     */
+    public static synchronized void writeReport() {
+        if (stats.isEmpty()) {
+            return;
+        }
+        List<LocatorStats> byScreen = new ArrayList<>(stats.values());
+        byScreen.sort(Comparator.comparingLong((LocatorStats entry) -> entry.getTotalMillis()).reversed());
+
+        Map<String, LocatorStats> byLocatorMap = new ConcurrentHashMap<>();
+        for (LocatorStats entry : byScreen) {
+            LocatorStats total = byLocatorMap.computeIfAbsent(entry.locator, key -> new LocatorStats(key, "*"));
+            total.merge(entry);
+            total.retries.addAndGet(entry.retries.get());
+            total.failures.addAndGet(entry.failures.get());
+        }
+        List<LocatorStats> byLocator = new ArrayList<>(byLocatorMap.values());
+        byLocator.sort(Comparator.comparingLong((LocatorStats entry) -> entry.getTotalMillis()).reversed());
+
+        StringBuilder report = new StringBuilder();
+        report.append("# Locator profile - sorted by total time\n\n## By locator\n");
+        appendTable(report, byLocator);
+        report.append("\n## By screen\n");
+        appendTable(report, byScreen);
+
+        Path reportPath = getReportPath();
+        try {
+            Files.createDirectories(reportPath.getParent());
+            Files.write(reportPath, report.toString().getBytes(StandardCharsets.UTF_8));
+            LogUtils.info("📊 [LocatorProfiler] Đã ghi report: " + reportPath);
+        } catch (IOException e) {
+            LogUtils.warn("⚠️ [LocatorProfiler] Không ghi được report: " + e.getMessage());
+        }
+
+        LogUtils.info("📊 [LocatorProfiler] Top locator chậm nhất:");
+        byLocator.stream().limit(SLOWEST_LOG_LIMIT).forEach(entry -> LogUtils.info("   " + entry.format()));
+    }
+
+    public static Map<String, LocatorStats> getStats() {
+        return stats;
+    }
+
+    private static void appendTable(StringBuilder report, List<LocatorStats> entries) {
+        report.append(String.format("%-10s %-8s %-10s %-10s %-10s %-8s %-30s %s%n",
+                "total(ms)", "finds", "avg(ms)", "max(ms)", "retries", "fails", "screen", "locator"));
+        for (LocatorStats entry : entries) {
+            report.append(String.format("%-10d %-8d %-10d %-10d %-10d %-8d %-30s %s%n",
+                    entry.getTotalMillis(), entry.getCount(), entry.getAverageMillis(), entry.getMaxMillis(),
+                    entry.retries.get(), entry.failures.get(), entry.screen, entry.locator));
+        }
+    }
+
+    private static Path getReportPath() {
+        Path resultsDirectory = Paths.get(System.getProperty("allure.results.directory", "target/allure-results")).toAbsolutePath();
+        Path parent = resultsDirectory.getParent();
+        return (parent == null ? resultsDirectory : parent).resolve(REPORT_FILE_NAME);
+    }
+
+    private static String currentScreen() {
+        return stackWalker.walk(frames -> frames
+                .map(StackWalker.StackFrame::getDeclaringClass)
+                .filter(type -> !type.getName().startsWith(FRAMEWORK_PACKAGE)
+                        && !type.getName().startsWith("java.")
+                        && !type.getName().startsWith("jdk.")
+                        && !type.getName().startsWith("org.openqa."))
+                .findFirst()
+                .map(Class::getSimpleName)
+                .orElse("unknown"));
+    }
+
+    /**
+     * Thống kê của một locator trên một màn hình
+     */
+    public static class LocatorStats extends TimingStats {
+        private final String locator;
+        private final String screen;
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+
+        private LocatorStats(String locator, String screen) {
+            this.locator = locator;
+            this.screen = screen;
+        }
+
+        public String getLocator() {
+            return locator;
+        }
+
+        public String getScreen() {
+            return screen;
+        }
+
+        public long getRetries() {
+            return retries.get();
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+
+        private String format() {
+            return locator + " | total: " + getTotalMillis() + "ms | finds: " + getCount()
+                    + " | avg: " + getAverageMillis() + "ms | retries: " + retries.get() + " | fails: " + failures.get();
+        }
+    }
+}
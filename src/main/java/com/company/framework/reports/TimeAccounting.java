@@ -0,0 +1,225 @@
+package com.company.framework.reports;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.enums.TimeCategory;
+import com.company.framework.utils.LogUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Phân bổ thời gian chạy của từng test vào các nhóm sleep / wait / device / artifact / overhead
+ * - Dựa trên các span của TraceRecorder (không cần bật TRACE_ENABLED)
+ * - Mỗi khoảng thời gian chỉ thuộc về một nhóm: span trong cùng (exclusive time) quyết định nhóm,
+ *   riêng WAIT và ARTIFACT tính luôn các span con (xem {@link TimeCategory#absorbsChildren()})
+ * - Thời gian của test tính từ @BeforeMethod đầu tiên đến @AfterMethod cuối cùng (ranh giới do TestListener mở/đóng)
+ * - OVERHEAD = tổng thời gian test trừ các nhóm còn lại
+ * - Bảng tổng hợp theo test và theo suite được in khi suite kết thúc (TIME_ACCOUNTING_ENABLED)
+ */
+public class TimeAccounting {
+
+    private static final ThreadLocal<Ledger> currentLedger = new ThreadLocal<>();
+    private static final Map<String, List<TestTime>> suites = new ConcurrentHashMap<>();
+
+    private TimeAccounting() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    public static boolean isEnabled() {
+        return "true".equalsIgnoreCase(ConfigData.TIME_ACCOUNTING_ENABLED);
+    }
+
+    /**
+     * Sổ thời gian của test đang chạy trên thread hiện tại (từ @BeforeMethod đầu tiên đến @AfterMethod cuối cùng)
+     * Null nếu tắt hoặc thread không nằm trong một test
+     */
+    static Ledger getLedger() {
+        return isEnabled() ? currentLedger.get() : null;
+    }
+
+    /**
+     * Mở sổ thời gian mới cho test trên thread hiện tại (trước @BeforeMethod đầu tiên của test)
+     * Sổ cũ còn sót trên thread (test trước không đóng được) bị bỏ
+     */
+    public static void startTest() {
+        if (isEnabled()) {
+            currentLedger.set(new Ledger());
+        }
+    }
+
+    /**
+     * Gắn tên test và suite cho sổ hiện tại (gọi khi test method có kết quả), sổ vẫn mở cho @AfterMethod
+     *
+     * @param testName  Tên test
+     * @param suiteName Tên suite dùng để gom bảng tổng hợp
+     */
+    public static void endTest(String testName, String suiteName) {
+        Ledger ledger = getLedger();
+        if (ledger != null) {
+            ledger.testName = testName;
+            ledger.suiteName = suiteName;
+        }
+    }
+
+    /**
+     * Đóng sổ thời gian của test hiện tại (sau @AfterMethod cuối cùng) và cộng vào suite
+     */
+    public static void closeTest() {
+        Ledger ledger = currentLedger.get();
+        currentLedger.remove();
+        if (ledger == null || ledger.testName == null) {
+            return;
+        }
+        TestTime testTime = ledger.close();
+        List<TestTime> tests = suites.computeIfAbsent(ledger.suiteName, key -> Collections.synchronizedList(new ArrayList<>()));
+        tests.add(testTime);
+        LogUtils.info("⏱️ [TimeAccounting] " + ledger.testName + " | " + testTime.summary());
+    }
+
+    /**
+     * In bảng thời gian từng test và tổng của suite
+     */
+    public static void logSuiteSummary(String suiteName) {
+        List<TestTime> tests = suites.remove(suiteName);
+        if (tests == null || tests.isEmpty()) {
+            return;
+        }
+        TestTime total = new TestTime("TOTAL (" + tests.size() + " tests)");
+        int nameWidth = total.name.length();
+        for (TestTime test : tests) {
+            total.add(test);
+            nameWidth = Math.max(nameWidth, test.name.length());
+        }
+        String rowFormat = "%-" + nameWidth + "s | %10s" + " | %16s".repeat(TimeCategory.values().length);
+
+        List<Object> header = new ArrayList<>();
+        header.add("Test");
+        header.add("total");
+        for (TimeCategory category : TimeCategory.values()) {
+            header.add(category.getValue());
+        }
+        LogUtils.info("📊 [TimeAccounting] Suite " + suiteName);
+        LogUtils.info("   " + String.format(Locale.ROOT, rowFormat, header.toArray()));
+        for (TestTime test : tests) {
+            LogUtils.info("   " + test.row(rowFormat));
+        }
+        LogUtils.info("   " + total.row(rowFormat));
+    }
+
+    /**
+     * Thời gian của một test (hoặc tổng của suite) theo từng nhóm
+     */
+    public static class TestTime {
+        private final String name;
+        private final long[] nanos = new long[TimeCategory.values().length];
+        private long totalNanos;
+
+        private TestTime(String name) {
+            this.name = name;
+        }
+
+        private void add(TestTime other) {
+            for (int i = 0; i < nanos.length; i++) {
+                nanos[i] += other.nanos[i];
+            }
+            totalNanos += other.totalNanos;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getMillis(TimeCategory category) {
+            return nanos[category.ordinal()] / 1_000_000;
+        }
+
+        public long getTotalMillis() {
+            return totalNanos / 1_000_000;
+        }
+
+        private String summary() {
+            StringBuilder summary = new StringBuilder("total: " + getTotalMillis() + "ms");
+            for (TimeCategory category : TimeCategory.values()) {
+                summary.append(" | ").append(category.getValue()).append(": ").append(cell(category));
+            }
+            return summary.toString();
+        }
+
+        private String row(String rowFormat) {
+            List<Object> columns = new ArrayList<>();
+            columns.add(name);
+            columns.add(getTotalMillis() + "ms");
+            for (TimeCategory category : TimeCategory.values()) {
+                columns.add(cell(category));
+            }
+            return String.format(Locale.ROOT, rowFormat, columns.toArray());
+        }
+
+        private String cell(TimeCategory category) {
+            double percent = totalNanos == 0 ? 0 : 100.0 * nanos[category.ordinal()] / totalNanos;
+            return String.format(Locale.ROOT, "%dms (%.1f%%)", getMillis(category), percent);
+        }
+    }
+
+    /**
+     * Sổ thời gian trên thread của test: stack các span đang mở, cộng exclusive time vào nhóm khi span đóng
+     */
+    static class Ledger {
+        private final long startNanos = System.nanoTime();
+        private final long[] nanos = new long[TimeCategory.values().length];
+        private final Deque<Frame> frames = new ArrayDeque<>();
+        private String testName;
+        private String suiteName;
+
+        void enter(String spanCategory) {
+            Frame parent = frames.peek();
+            TimeCategory category = parent != null && parent.category.absorbsChildren()
+                    ? parent.category
+                    : TimeCategory.fromSpanCategory(spanCategory);
+            frames.push(new Frame(category));
+        }
+
+        void exit() {
+            Frame frame = frames.poll();
+            if (frame == null) {
+                return;
+            }
+            long elapsed = System.nanoTime() - frame.startNanos;
+            nanos[frame.category.ordinal()] += elapsed - frame.childNanos;
+            Frame parent = frames.peek();
+            if (parent != null) {
+                parent.childNanos += elapsed;
+            }
+        }
+
+        private TestTime close() {
+            TestTime testTime = new TestTime(testName);
+            testTime.totalNanos = System.nanoTime() - startNanos;
+            long accounted = 0;
+            for (TimeCategory category : TimeCategory.values()) {
+                if (category != TimeCategory.OVERHEAD) {
+                    testTime.nanos[category.ordinal()] = nanos[category.ordinal()];
+                    accounted += nanos[category.ordinal()];
+                }
+            }
+            testTime.nanos[TimeCategory.OVERHEAD.ordinal()] = Math.max(0, testTime.totalNanos - accounted);
+            return testTime;
+        }
+    }
+
+    private static class Frame {
+        private final TimeCategory category;
+        private final long startNanos = System.nanoTime();
+        private long childNanos;
+
+        private Frame(TimeCategory category) {
+            this.category = category;
+        }
+    }
+}
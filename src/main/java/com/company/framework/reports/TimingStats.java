@@ -0,0 +1,57 @@
+package com.company.framework.reports;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bộ đếm thời gian dùng chung cho các thống kê của framework (command, wait, pacing, reset, locator...)
+ * Ghi nhận số lần, tổng thời gian và thời gian lớn nhất, an toàn khi nhiều thread ghi cùng lúc
+ */
+public class TimingStats {
+
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMillis = new AtomicLong();
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    /**
+     * Ghi nhận một lần đo
+     *
+     * @param millis Thời gian của lần đo (ms)
+     */
+    public void record(long millis) {
+        count.incrementAndGet();
+        totalMillis.addAndGet(millis);
+        maxMillis.accumulateAndGet(millis, Math::max);
+    }
+
+    /**
+     * Cộng dồn thống kê của một bộ đếm khác (dùng khi gộp nhiều nhóm lại)
+     */
+    public void merge(TimingStats other) {
+        count.addAndGet(other.getCount());
+        totalMillis.addAndGet(other.getTotalMillis());
+        maxMillis.accumulateAndGet(other.getMaxMillis(), Math::max);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalMillis() {
+        return totalMillis.get();
+    }
+
+    public long getMaxMillis() {
+        return maxMillis.get();
+    }
+
+    public long getAverageMillis() {
+        return totalMillis.get() / Math.max(1, count.get());
+    }
+
+    /**
+     * Chuỗi "count: N | avg: Xms | max: Yms" dùng chung cho các dòng log thống kê
+     */
+    public String summary() {
+        return "count: " + getCount() + " | avg: " + getAverageMillis() + "ms | max: " + getMaxMillis() + "ms";
+    }
+}
@@ -0,0 +1,219 @@
+package com.company.framework.reports;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.utils.LogUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.qameta.allure.Allure;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Timeline của từng test theo định dạng Chrome Trace Event JSON (mở bằng chrome://tracing hoặc ui.perfetto.dev)
+ * - Mỗi span là một complete event ("ph": "X"), các span lồng nhau theo thời gian trên cùng thread
+ * - Category: session, keyword, wait, sleep, screenshot, video, command
+ * - Trace của một test mở trước @BeforeMethod đầu tiên và đóng sau @AfterMethod cuối cùng (TestListener),
+ *   nên gồm cả tạo session và teardown; file trace được đính kèm vào Allure result của test (TRACE_ENABLED)
+ *
+ * Span trên thread nền (ví dụ tạo driver trong AsyncDriverFactory) được ghi vào trace của test
+ * nếu thread nền chạy trong {@link #runWith(Trace, Supplier)}
+ *
+ * Span cũng được dùng để phân bổ thời gian test theo nhóm (TimeAccounting, chỉ trên thread của test)
+ */
+public class TraceRecorder {
+
+    public static final String SESSION = "session";
+    public static final String KEYWORD = "keyword";
+    public static final String WAIT = "wait";
+    public static final String SLEEP = "sleep";
+    public static final String SCREENSHOT = "screenshot";
+    public static final String VIDEO = "video";
+    public static final String COMMAND = "command";
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ThreadLocal<Trace> currentTrace = new ThreadLocal<>();
+    private static final Span NOOP_SPAN = new Span(null, null, null, null, null);
+
+    private TraceRecorder() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    public static boolean isEnabled() {
+        return "true".equalsIgnoreCase(ConfigData.TRACE_ENABLED);
+    }
+
+    /**
+     * Bắt đầu một span trên thread hiện tại, kết thúc bằng close() (try-with-resources)
+     *
+     * @param name     Tên hiển thị trên timeline
+     * @param category Một trong các category SESSION, KEYWORD, WAIT, SLEEP, SCREENSHOT, VIDEO, COMMAND
+     */
+    public static Span begin(String name, String category) {
+        return begin(name, category, null);
+    }
+
+    /**
+     * Bắt đầu một span kèm thông tin chi tiết (locator, command...) hiển thị trong args
+     */
+    public static Span begin(String name, String category, String detail) {
+        Trace trace = getTrace();
+        TimeAccounting.Ledger ledger = TimeAccounting.getLedger();
+        if (trace == null && ledger == null) {
+            return NOOP_SPAN;
+        }
+        return new Span(trace, ledger, name, category, detail);
+    }
+
+    /**
+     * Trace của test đang chạy trên thread hiện tại
+     * Trả về null nếu TRACE_ENABLED tắt hoặc thread không nằm trong một test (thread nền chưa được gắn trace)
+     */
+    public static Trace getTrace() {
+        return isEnabled() ? currentTrace.get() : null;
+    }
+
+    /**
+     * Mở trace mới cho test trên thread hiện tại (trước @BeforeMethod đầu tiên của test)
+     * Trace cũ còn sót trên thread (test trước không đóng được) bị bỏ
+     */
+    public static void startTest() {
+        if (isEnabled()) {
+            currentTrace.set(new Trace());
+        }
+    }
+
+    /**
+     * Chạy action trên thread nền nhưng ghi span vào trace của test (trace lấy từ thread gọi)
+     */
+    public static <T> T runWith(Trace trace, Supplier<T> action) {
+        if (trace == null) {
+            return action.get();
+        }
+        Trace previous = currentTrace.get();
+        currentTrace.set(trace);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                currentTrace.remove();
+            } else {
+                currentTrace.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Đăng ký attachment trace vào Allure result của test (gọi khi test method kết thúc, trước khi Allure ghi result)
+     * Trace vẫn mở để nhận span của @AfterMethod, nội dung được ghi vào attachment khi {@link #closeTest()}
+     */
+    public static void endTest(String testName) {
+        Trace trace = getTrace();
+        if (trace == null) {
+            return;
+        }
+        trace.testName = testName;
+        trace.attachmentSource = Allure.getLifecycle().prepareAttachment(testName + "_trace", "application/json", ".json");
+    }
+
+    /**
+     * Đóng trace của test hiện tại (sau @AfterMethod cuối cùng) và ghi file JSON cho attachment đã đăng ký
+     */
+    public static void closeTest() {
+        Trace trace = currentTrace.get();
+        currentTrace.remove();
+        if (trace == null || trace.attachmentSource == null) {
+            return;
+        }
+        try {
+            byte[] json = trace.toJson(trace.testName).getBytes(StandardCharsets.UTF_8);
+            Allure.getLifecycle().writeAttachment(trace.attachmentSource, new ByteArrayInputStream(json));
+        } catch (JsonProcessingException e) {
+            LogUtils.warn("⚠️ [Trace] Không tạo được trace cho " + trace.testName + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Các span của một test
+     */
+    public static class Trace {
+        private final List<Map<String, Object>> events = new ArrayList<>();
+        private String testName;
+        private String attachmentSource;
+
+        private synchronized void add(Map<String, Object> event) {
+            events.add(event);
+        }
+
+        private synchronized String toJson(String testName) throws JsonProcessingException {
+            List<Map<String, Object>> traceEvents = new ArrayList<>(events.size() + 1);
+            Map<String, Object> processName = new LinkedHashMap<>();
+            processName.put("name", "process_name");
+            processName.put("ph", "M");
+            processName.put("pid", 1);
+            processName.put("args", Map.of("name", testName));
+            traceEvents.add(processName);
+            traceEvents.addAll(events);
+
+            Map<String, Object> root = new LinkedHashMap<>();
+            root.put("traceEvents", traceEvents);
+            root.put("displayTimeUnit", "ms");
+            return objectMapper.writeValueAsString(root);
+        }
+    }
+
+    /**
+     * Một span trên timeline, ghi vào trace khi close()
+     */
+    public static class Span implements AutoCloseable {
+        private final Trace trace;
+        private final TimeAccounting.Ledger ledger;
+        private final String name;
+        private final String category;
+        private final String detail;
+        private final long startNanos;
+
+        private Span(Trace trace, TimeAccounting.Ledger ledger, String name, String category, String detail) {
+            this.trace = trace;
+            this.ledger = ledger;
+            this.name = name;
+            this.category = category;
+            this.detail = detail;
+            this.startNanos = trace == null ? 0 : System.nanoTime();
+            if (ledger != null) {
+                ledger.enter(category);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (ledger != null) {
+                ledger.exit();
+            }
+            if (trace == null) {
+                return;
+            }
+            Thread thread = Thread.currentThread();
+            Map<String, Object> event = new LinkedHashMap<>();
+            event.put("name", name);
+            event.put("cat", category);
+            event.put("ph", "X");
+            event.put("ts", startNanos / 1000);
+            event.put("dur", (System.nanoTime() - startNanos) / 1000);
+            event.put("pid", 1);
+            event.put("tid", thread.getId());
+            Map<String, Object> args = new LinkedHashMap<>();
+            args.put("thread", thread.getName());
+            if (detail != null) {
+                args.put("detail", detail);
+            }
+            event.put("args", args);
+            trace.add(event);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.company.framework.reports.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event cho một WebDriver command gửi tới Appium server
+ */
+@Name("com.company.framework.DriverCommand")
+@Label("Driver Command")
+@Description("Thời gian một HTTP command tới Appium server")
+@Category({"Appium Framework", "Driver Command"})
+@StackTrace(false)
+public class DriverCommandEvent extends jdk.jfr.Event {
+
+    @Label("Command")
+    public String command;
+
+    @Label("Path")
+    public String path;
+
+    @Label("Test")
+    public String testName;
+}
@@ -0,0 +1,77 @@
+package com.company.framework.reports.jfr;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.helpers.SystemHelpers;
+import com.company.framework.utils.DateUtils;
+import com.company.framework.utils.LogUtils;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Bật Java Flight Recorder cho từng suite (JFR_RECORDING_ENABLED)
+ * Recording dùng cấu hình "default" của JDK (overhead thấp) và bật thêm các event của framework:
+ * Keyword, Wait, DriverCommand - mở file .jfr bằng JDK Mission Control để xem thời gian đi đâu
+ */
+public class JfrRecorder {
+
+    private static Recording recording;
+    private static Path recordingPath;
+
+    private JfrRecorder() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    public static boolean isEnabled() {
+        return "true".equalsIgnoreCase(ConfigData.JFR_RECORDING_ENABLED);
+    }
+
+    /**
+     * Bắt đầu recording cho suite (không làm gì nếu đã có recording đang chạy)
+     */
+    public static synchronized void start(String suiteName) {
+        if (!isEnabled() || recording != null) {
+            return;
+        }
+        try {
+            Path folder = Paths.get(SystemHelpers.getCurrentDir() + ConfigData.JFR_RECORDING_PATH);
+            Files.createDirectories(folder);
+            recordingPath = folder.resolve(SystemHelpers.makeSlug(suiteName) + "_"
+                    + SystemHelpers.makeSlug(DateUtils.getCurrentDateTime()) + ".jfr");
+
+            recording = new Recording(Configuration.getConfiguration("default"));
+            recording.setName("Suite " + suiteName);
+            recording.enable(KeywordEvent.class);
+            recording.enable(WaitEvent.class);
+            recording.enable(DriverCommandEvent.class);
+            recording.setToDisk(true);
+            recording.setDestination(recordingPath);
+            recording.start();
+            LogUtils.info("🎥 [JFR] Bắt đầu recording suite '" + suiteName + "': " + recordingPath);
+        } catch (Exception e) {
+            LogUtils.warn("⚠️ [JFR] Không bắt đầu được recording: " + e.getMessage());
+            recording = null;
+        }
+    }
+
+    /**
+     * Dừng recording và ghi file .jfr
+     */
+    public static synchronized void stop() {
+        if (recording == null) {
+            return;
+        }
+        try {
+            recording.stop();
+            LogUtils.info("✅ [JFR] Đã ghi recording: " + recordingPath);
+        } catch (Exception e) {
+            LogUtils.warn("⚠️ [JFR] Không dừng được recording: " + e.getMessage());
+        } finally {
+            recording.close();
+            recording = null;
+        }
+    }
+}
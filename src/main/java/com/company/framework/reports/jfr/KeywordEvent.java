@@ -0,0 +1,27 @@
+package com.company.framework.reports.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event cho một keyword (NativeUI, FlutterUI, WebViewUI, BrowserUI)
+ */
+@Name("com.company.framework.Keyword")
+@Label("Keyword")
+@Description("Thời gian thực thi một keyword")
+@Category({"Appium Framework", "Keyword"})
+@StackTrace(false)
+public class KeywordEvent extends jdk.jfr.Event {
+
+    @Label("Keyword")
+    public String keyword;
+
+    @Label("Locator")
+    public String locator;
+
+    @Label("Test")
+    public String testName;
+}
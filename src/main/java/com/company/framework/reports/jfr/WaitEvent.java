@@ -0,0 +1,30 @@
+package com.company.framework.reports.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event cho một lần chờ của WaitHelper
+ */
+@Name("com.company.framework.Wait")
+@Label("Wait")
+@Description("Thời gian chờ một điều kiện / locator")
+@Category({"Appium Framework", "Wait"})
+@StackTrace(false)
+public class WaitEvent extends jdk.jfr.Event {
+
+    @Label("Locator")
+    public String locator;
+
+    @Label("Test")
+    public String testName;
+
+    @Label("Polls")
+    public int polls;
+
+    @Label("Timed Out")
+    public boolean timedOut;
+}
@@ -0,0 +1,144 @@
+package com.company.framework.helpers.screenshot;
+
+import com.company.framework.utils.LogUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * So sánh chi phí phía client của hai cách lấy screenshot cho mỗi step, trên MjpegStandInServer
+ * - screenshot: mỗi step một request lấy PNG base64 trong JSON rồi decode (như getScreenshotAs)
+ * - mjpeg (Content-Length / marker): reader đọc stream liên tục, mỗi step chỉ lấy frame mới nhất
+ * CPU tính cho thread chạy step cộng thread reader (nếu có), không tính server; thời gian device tự chụp
+ * và encode ảnh cho lệnh screenshot không có ở stand-in nên latency thật của đường screenshot còn cao hơn
+ *
+ * Chạy bằng: mvn test-compile rồi chạy TestNG với suite src/test/resources/suites/MjpegStandIn.xml
+ */
+public class MjpegCaptureComparison {
+
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 2340;
+    private static final int STEPS = 40;
+    private static final long STEP_INTERVAL_MILLIS = 100;
+    private static final long FRAME_INTERVAL_MILLIS = 100;
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    @Test
+    public void compareStepCapture() throws Exception {
+        byte[][] frames = new byte[4][];
+        for (int seed = 0; seed < frames.length; seed++) {
+            frames[seed] = MjpegStandInServer.jpeg(WIDTH, HEIGHT, seed);
+        }
+        byte[] png = MjpegStandInServer.encode(MjpegStandInServer.screen(WIDTH, HEIGHT, 0), "png");
+
+        Result command = measureCommand(png);
+        Result contentLength = measureStream(MjpegStandInServer.PartFormat.CONTENT_LENGTH, frames);
+        Result markers = measureStream(MjpegStandInServer.PartFormat.MARKERS_ONLY, frames);
+
+        LogUtils.info("📊 [MJPEG] So sánh screenshot mỗi step (" + STEPS + " step, " + WIDTH + "x" + HEIGHT
+                + ", PNG " + png.length / 1024 + "KB, JPEG ~" + frames[0].length / 1024 + "KB)");
+        LogUtils.info("📊 [MJPEG] screenshot command " + command);
+        LogUtils.info("📊 [MJPEG] mjpeg Content-Length " + contentLength);
+        LogUtils.info("📊 [MJPEG] mjpeg marker SOI/EOI " + markers);
+
+        Assert.assertEquals(contentLength.served, STEPS, "Stream (Content-Length) phải có frame cho mọi step");
+        Assert.assertEquals(markers.served, STEPS, "Stream (marker) phải có frame cho mọi step");
+    }
+
+    private Result measureCommand(byte[] png) throws Exception {
+        try (MjpegStandInServer server = new MjpegStandInServer(MjpegStandInServer.PartFormat.CONTENT_LENGTH)) {
+            server.setScreenshot(png);
+            HttpClient client = HttpClient.newHttpClient();
+            HttpRequest request = HttpRequest.newBuilder(URI.create(server.getUrl() + "/screenshot")).build();
+            Result result = new Result();
+            long cpuStart = threads.getCurrentThreadCpuTime();
+            for (int step = 0; step < STEPS; step++) {
+                long start = System.nanoTime();
+                String body = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8)).body();
+                String value = body.substring(body.indexOf(":\"") + 2, body.lastIndexOf('"'));
+                byte[] screenshot = Base64.getMimeDecoder().decode(value);
+                result.record(System.nanoTime() - start, screenshot.length > 0);
+                Thread.sleep(STEP_INTERVAL_MILLIS);
+            }
+            result.cpuNanos = threads.getCurrentThreadCpuTime() - cpuStart;
+            return result;
+        }
+    }
+
+    private Result measureStream(MjpegStandInServer.PartFormat format, byte[][] frames) throws Exception {
+        String sessionId = "comparison-" + format + "-" + System.nanoTime();
+        AtomicInteger next = new AtomicInteger();
+        try (MjpegStandInServer server = new MjpegStandInServer(format)) {
+            server.publishEvery(() -> frames[next.getAndIncrement() % frames.length], FRAME_INTERVAL_MILLIS);
+            MjpegStreamReader.start(sessionId, server.getUrl());
+            try {
+                long waitDeadline = System.currentTimeMillis() + 5000;
+                while (MjpegStreamReader.getLatestFrame(sessionId, Long.MAX_VALUE) == null && System.currentTimeMillis() < waitDeadline) {
+                    Thread.sleep(10);
+                }
+                long readerThreadId = findThread("mjpeg-reader-" + sessionId);
+                long readerCpuStart = threads.getThreadCpuTime(readerThreadId);
+                Result result = new Result();
+                long cpuStart = threads.getCurrentThreadCpuTime();
+                for (int step = 0; step < STEPS; step++) {
+                    long start = System.nanoTime();
+                    byte[] frame = MjpegStreamReader.getLatestFrame(sessionId, FRAME_INTERVAL_MILLIS * 10);
+                    result.record(System.nanoTime() - start, frame != null);
+                    Thread.sleep(STEP_INTERVAL_MILLIS);
+                }
+                result.cpuNanos = threads.getCurrentThreadCpuTime() - cpuStart
+                        + threads.getThreadCpuTime(readerThreadId) - readerCpuStart;
+                return result;
+            } finally {
+                MjpegStreamReader.stop(sessionId);
+            }
+        }
+    }
+
+    private static long findThread(String name) {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals(name))
+                .findFirst()
+                .map(Thread::getId)
+                .orElseThrow(() -> new IllegalStateException("Không tìm thấy thread " + name));
+    }
+
+    /**
+     * Latency từng step và CPU phía client của một cách chụp
+     */
+    private static class Result {
+        private final long[] latencyNanos = new long[STEPS];
+        private int count;
+        private int served;
+        private long cpuNanos;
+
+        private void record(long nanos, boolean hasImage) {
+            latencyNanos[count++] = nanos;
+            if (hasImage) {
+                served++;
+            }
+        }
+
+        @Override
+        public String toString() {
+            long[] sorted = Arrays.copyOf(latencyNanos, count);
+            Arrays.sort(sorted);
+            double average = Arrays.stream(sorted).average().orElse(0) / TimeUnit.MILLISECONDS.toNanos(1);
+            double p95 = sorted[(int) Math.ceil(sorted.length * 0.95) - 1] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+            return String.format("| avg: %.3fms | p95: %.3fms | CPU client: %dms | có ảnh: %d/%d",
+                    average, p95, TimeUnit.NANOSECONDS.toMillis(cpuNanos), served, count);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.company.framework.helpers.screenshot;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * MJPEG server giả lập thay cho mjpegServerPort của UiAutomator2 / WebDriverAgent khi test MjpegStreamReader
+ * - Trả response HTTP/1.0 multipart/x-mixed-replace và đóng kết nối khi hết stream, giống server thật trên device
+ * - Part có Content-Length, hoặc chỉ có Content-Type để reader phải tách frame theo marker SOI/EOI của JPEG
+ * - Frame chỉ được gửi khi gọi {@link #publish(byte[])} (giống WDA: màn hình không đổi thì không gửi lại),
+ *   hoặc gửi theo chu kỳ với {@link #publishEvery(Supplier, long)} (giống UiAutomator2)
+ * - GET /screenshot trả ảnh PNG base64 trong JSON như lệnh getScreenshotAs, dùng để so sánh hai đường chụp ảnh
+ */
+public class MjpegStandInServer implements AutoCloseable {
+
+    static final String BOUNDARY = "--BoundaryString";
+
+    /**
+     * Cách server đánh dấu từng frame trong stream
+     */
+    enum PartFormat {
+        CONTENT_LENGTH,
+        MARKERS_ONLY
+    }
+
+    private final PartFormat format;
+    private final ServerSocket serverSocket;
+    private final List<OutputStream> clients = new CopyOnWriteArrayList<>();
+    private final AtomicInteger streamConnectionCount = new AtomicInteger();
+    private final ScheduledExecutorService publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "mjpeg-stand-in-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile byte[] currentFrame;
+    private volatile byte[] screenshotResponse;
+
+    MjpegStandInServer(PartFormat format) throws IOException {
+        this.format = format;
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "mjpeg-stand-in-" + serverSocket.getLocalPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    String getUrl() {
+        return "http://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    /**
+     * Số kết nối stream server đã nhận (reader kết nối lại thì số này tăng)
+     */
+    int getStreamConnectionCount() {
+        return streamConnectionCount.get();
+    }
+
+    /**
+     * Ảnh PNG trả về cho GET /screenshot
+     */
+    void setScreenshot(byte[] png) {
+        screenshotResponse = ("{\"value\":\"" + Base64.getEncoder().encodeToString(png) + "\"}").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Gửi một frame mới cho mọi client đang kết nối (client kết nối sau sẽ nhận frame này ngay khi mở stream)
+     */
+    void publish(byte[] jpeg) {
+        currentFrame = jpeg;
+        for (OutputStream client : clients) {
+            try {
+                writeFrame(client, jpeg);
+            } catch (IOException e) {
+                clients.remove(client);
+            }
+        }
+    }
+
+    /**
+     * Gửi phần đầu của một frame rồi dừng (giả lập kết nối bị treo giữa frame)
+     * Frame này vẫn là frame hiện tại, client kết nối lại sẽ nhận đầy đủ
+     */
+    void publishPartial(byte[] jpeg, int length) {
+        currentFrame = jpeg;
+        for (OutputStream client : clients) {
+            try {
+                writePart(client, jpeg, length);
+            } catch (IOException e) {
+                clients.remove(client);
+            }
+        }
+    }
+
+    /**
+     * Gửi frame liên tục theo chu kỳ, như stream của UiAutomator2
+     */
+    void publishEvery(Supplier<byte[]> frames, long intervalMillis) {
+        publisher.scheduleAtFixedRate(() -> publish(frames.get()), 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Đóng mọi kết nối stream đang mở (giả lập mất kết nối tới device), server vẫn nhận kết nối mới
+     */
+    void dropClients() {
+        for (OutputStream client : clients) {
+            clients.remove(client);
+            try {
+                client.close();
+            } catch (IOException ignored) {
+                // Kết nối đã đóng
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        publisher.shutdownNow();
+        serverSocket.close();
+        dropClients();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread handler = new Thread(() -> handle(socket), "mjpeg-stand-in-client");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                // Server đã đóng
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try {
+            InputStream input = socket.getInputStream();
+            String requestLine = readRequestHead(input);
+            OutputStream output = socket.getOutputStream();
+            if (requestLine.startsWith("GET /screenshot")) {
+                writeScreenshot(output);
+                socket.close();
+                return;
+            }
+            streamConnectionCount.incrementAndGet();
+            synchronized (output) {
+                output.write(("HTTP/1.0 200 OK\r\n"
+                        + "Cache-Control: no-store, no-cache, must-revalidate, pre-check=0, post-check=0, max-age=0\r\n"
+                        + "Pragma: no-cache\r\n"
+                        + "Connection: close\r\n"
+                        + "Content-Type: multipart/x-mixed-replace; boundary=" + BOUNDARY + "\r\n\r\n")
+                        .getBytes(StandardCharsets.US_ASCII));
+                output.flush();
+            }
+            clients.add(output);
+            byte[] frame = currentFrame;
+            if (frame != null) {
+                writeFrame(output, frame);
+            }
+        } catch (SocketException e) {
+            // Client đóng kết nối
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeScreenshot(OutputStream output) throws IOException {
+        byte[] body = screenshotResponse != null ? screenshotResponse : "{\"value\":\"\"}".getBytes(StandardCharsets.US_ASCII);
+        output.write(("HTTP/1.1 200 OK\r\n"
+                + "Content-Type: application/json; charset=utf-8\r\n"
+                + "Content-Length: " + body.length + "\r\n"
+                + "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+        output.write(body);
+        output.flush();
+    }
+
+    private void writeFrame(OutputStream output, byte[] jpeg) throws IOException {
+        synchronized (output) {
+            writePart(output, jpeg, jpeg.length);
+            output.write("\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+            output.flush();
+        }
+    }
+
+    private void writePart(OutputStream output, byte[] jpeg, int length) throws IOException {
+        StringBuilder head = new StringBuilder(BOUNDARY).append("\r\n").append("Content-type: image/jpg\r\n");
+        if (format == PartFormat.CONTENT_LENGTH) {
+            head.append("Content-Length: ").append(jpeg.length).append("\r\n");
+        }
+        head.append("\r\n");
+        synchronized (output) {
+            output.write(head.toString().getBytes(StandardCharsets.US_ASCII));
+            output.write(jpeg, 0, length);
+            output.flush();
+        }
+    }
+
+    /**
+     * Đọc request line và bỏ qua header cho tới dòng trống
+     */
+    private static String readRequestHead(InputStream input) throws IOException {
+        StringBuilder head = new StringBuilder();
+        int value;
+        while ((value = input.read()) != -1) {
+            head.append((char) value);
+            if (head.length() >= 4 && head.lastIndexOf("\r\n\r\n") == head.length() - 4) {
+                break;
+            }
+        }
+        int end = head.indexOf("\r\n");
+        return end >= 0 ? head.substring(0, end) : head.toString();
+    }
+
+    /**
+     * Ảnh màn hình giả có nội dung khác nhau theo seed (mỗi frame một seed để phân biệt frame)
+     */
+    static BufferedImage screen(int width, int height, int seed) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        Random random = new Random(seed);
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+        int rowHeight = Math.max(1, height / 12);
+        for (int y = 0; y < height; y += rowHeight) {
+            graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+            graphics.fillRect(width / 20, y + rowHeight / 8, width / 6, rowHeight * 3 / 4);
+            graphics.setColor(Color.DARK_GRAY);
+            graphics.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, Math.max(8, rowHeight / 3)));
+            graphics.drawString("Frame " + seed + " - Product " + random.nextInt(1000), width / 4, y + rowHeight / 2);
+        }
+        graphics.dispose();
+        return image;
+    }
+
+    static byte[] encode(BufferedImage image, String format) {
+        try (ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+            ImageIO.write(image, format, output);
+            return output.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static byte[] jpeg(int width, int height, int seed) {
+        return encode(screen(width, height, seed), "jpg");
+    }
+}
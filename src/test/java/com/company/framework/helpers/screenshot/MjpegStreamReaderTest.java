@@ -0,0 +1,121 @@
+package com.company.framework.helpers.screenshot;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Kiểm tra MjpegStreamReader với MjpegStandInServer (không cần device)
+ * - Tách frame theo Content-Length và theo marker SOI/EOI của JPEG
+ * - Stream im lặng quá read timeout vẫn là kết nối bình thường: frame cuối vẫn được dùng, không kết nối lại
+ * - Read timeout giữa một frame thì kết nối lại và đọc đúng frame tiếp theo
+ * - Mất kết nối thì frame cũ chỉ được dùng trong maxAgeMillis
+ */
+public class MjpegStreamReaderTest {
+
+    private static final long MAX_FRAME_AGE_MILLIS = 200;
+    private static final long WAIT_TIMEOUT_MILLIS = 5000;
+
+    private final String sessionId = "stand-in-" + System.nanoTime();
+    private MjpegStandInServer server;
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() throws Exception {
+        MjpegStreamReader.stop(sessionId);
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void readsFramesSplitByContentLength() throws Exception {
+        assertReadsEveryFrame(MjpegStandInServer.PartFormat.CONTENT_LENGTH);
+    }
+
+    @Test
+    public void readsFramesSplitByJpegMarkers() throws Exception {
+        assertReadsEveryFrame(MjpegStandInServer.PartFormat.MARKERS_ONLY);
+    }
+
+    @Test
+    public void keepsServingLatestFrameWhileStreamIsIdle() throws Exception {
+        server = new MjpegStandInServer(MjpegStandInServer.PartFormat.CONTENT_LENGTH);
+        byte[] first = MjpegStandInServer.jpeg(320, 640, 1);
+        server.publish(first);
+        MjpegStreamReader.start(sessionId, server.getUrl(), 300);
+        awaitFrame(first);
+
+        // Màn hình không đổi: server không gửi gì trong hơn 3 lần read timeout và quá maxAge
+        Thread.sleep(1000);
+        Assert.assertEquals(MjpegStreamReader.getLatestFrame(sessionId, MAX_FRAME_AGE_MILLIS), first,
+                "Frame cuối phải còn dùng được khi stream im lặng nhưng kết nối vẫn mở");
+
+        byte[] second = MjpegStandInServer.jpeg(320, 640, 2);
+        server.publish(second);
+        awaitFrame(second);
+        Assert.assertEquals(server.getStreamConnectionCount(), 1, "Read timeout không được làm reader kết nối lại");
+    }
+
+    @Test
+    public void reconnectsWhenStreamStallsMidFrame() throws Exception {
+        for (MjpegStandInServer.PartFormat format : MjpegStandInServer.PartFormat.values()) {
+            try (MjpegStandInServer stallingServer = new MjpegStandInServer(format)) {
+                byte[] first = MjpegStandInServer.jpeg(320, 640, 1);
+                stallingServer.publish(first);
+                MjpegStreamReader.start(sessionId, stallingServer.getUrl(), 300);
+                awaitFrame(first);
+
+                // Server gửi nửa frame rồi treo: reader không được đọc tiếp giữa ảnh mà phải kết nối lại
+                byte[] second = MjpegStandInServer.jpeg(320, 640, 2);
+                stallingServer.publishPartial(second, second.length / 2);
+                awaitFrame(second);
+                Assert.assertEquals(stallingServer.getStreamConnectionCount(), 2,
+                        "Read timeout giữa frame phải làm reader kết nối lại đúng một lần (" + format + ")");
+            } finally {
+                MjpegStreamReader.stop(sessionId);
+            }
+        }
+    }
+
+    @Test
+    public void dropsStaleFrameAfterConnectionLoss() throws Exception {
+        server = new MjpegStandInServer(MjpegStandInServer.PartFormat.CONTENT_LENGTH);
+        byte[] frame = MjpegStandInServer.jpeg(320, 640, 1);
+        server.publish(frame);
+        MjpegStreamReader.start(sessionId, server.getUrl(), 300);
+        awaitFrame(frame);
+
+        server.close();
+        await(() -> MjpegStreamReader.getLatestFrame(sessionId, MAX_FRAME_AGE_MILLIS) == null,
+                "Frame từ kết nối đã mất phải hết hạn sau maxAgeMillis");
+    }
+
+    private void assertReadsEveryFrame(MjpegStandInServer.PartFormat format) throws Exception {
+        server = new MjpegStandInServer(format);
+        MjpegStreamReader.start(sessionId, server.getUrl(), 300);
+        for (int seed = 1; seed <= 3; seed++) {
+            byte[] frame = MjpegStandInServer.jpeg(320, 640, seed);
+            server.publish(frame);
+            awaitFrame(frame);
+        }
+        Assert.assertEquals(server.getStreamConnectionCount(), 1, "Reader phải đọc mọi frame trên cùng một kết nối");
+    }
+
+    private void awaitFrame(byte[] expected) throws InterruptedException {
+        await(() -> Arrays.equals(MjpegStreamReader.getLatestFrame(sessionId, MAX_FRAME_AGE_MILLIS), expected),
+                "Reader không nhận được frame mới nhất của server");
+    }
+
+    private static void await(BooleanSupplier condition, String message) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + WAIT_TIMEOUT_MILLIS;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                Assert.fail(message);
+            }
+            Thread.sleep(20);
+        }
+    }
+}
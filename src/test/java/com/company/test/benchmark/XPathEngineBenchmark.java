@@ -0,0 +1,80 @@
+package com.company.test.benchmark;
+
+import com.company.framework.helpers.snapshot.PageSnapshot;
+import com.company.framework.helpers.snapshot.XPathEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.NodeList;
+
+import javax.xml.xpath.XPathConstants;
+import javax.xml.xpath.XPathFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark cho XPathEngine trên page source mẫu (test_data/page_source)
+ * - parse: chi phí dựng PageSnapshot từ page source (phần local của mỗi lần resolve chưa có trong cache)
+ * - indexed / compiled: XPath đơn giản trả lời từ index và XPath phức tạp dùng expression đã cache
+ * - jdkXPath: baseline compile + evaluate XPath của JDK trên DOM mỗi lần gọi
+ *
+ * Chạy bằng: mvn -P jmh test (tham số JMH truyền qua -Djmh.args="...")
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XPathEngineBenchmark {
+
+    private static final String PAGE_SOURCE_FIXTURE = "/test_data/page_source/android_product_list.xml";
+    private static final String INDEXED_XPATH = "//android.widget.Button[@content-desc='Add product 37 to cart']";
+    private static final String COMPILED_XPATH = "//androidx.recyclerview.widget.RecyclerView"
+            + "/android.view.ViewGroup[android.widget.TextView[@text='Product 37']]/android.widget.Button";
+
+    private String pageSource;
+    private PageSnapshot snapshot;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream input = XPathEngineBenchmark.class.getResourceAsStream(PAGE_SOURCE_FIXTURE)) {
+            if (input == null) {
+                throw new IOException("Không tìm thấy page source mẫu: " + PAGE_SOURCE_FIXTURE);
+            }
+            pageSource = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        snapshot = PageSnapshot.parse(pageSource);
+    }
+
+    @Benchmark
+    public PageSnapshot parse() {
+        return PageSnapshot.parse(pageSource);
+    }
+
+    @Benchmark
+    public List<PageSnapshot.Node> indexed() {
+        return XPathEngine.evaluate(snapshot, INDEXED_XPATH);
+    }
+
+    @Benchmark
+    public List<PageSnapshot.Node> compiled() {
+        return XPathEngine.evaluate(snapshot, COMPILED_XPATH);
+    }
+
+    @Benchmark
+    public NodeList jdkXPath() throws Exception {
+        return (NodeList) XPathFactory.newInstance().newXPath().compile(COMPILED_XPATH)
+                .evaluate(snapshot.getDocument(), XPathConstants.NODESET);
+    }
+}
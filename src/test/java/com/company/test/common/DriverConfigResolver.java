@@ -0,0 +1,118 @@
+package com.company.test.common;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.drivers.factory.DriverFactory;
+import com.company.framework.enums.AppType;
+import com.company.framework.enums.Platform;
+import com.company.framework.utils.LogUtils;
+
+/**
+ * Dựng DriverConfig từ parameters TestNG hoặc device.json
+ * Dùng chung cho BaseTest (khi tạo session) và SessionLookahead (khi đoán trước session của test kế tiếp),
+ * hai nơi phải ra cùng một config thì session pre-warm mới được dùng lại
+ */
+public class DriverConfigResolver {
+
+    private DriverConfigResolver() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Nếu có deviceConfigName, đọc config từ device.json
+     * Nếu không, sử dụng các parameters truyền vào từ TestNG
+     */
+    public static ResolvedConfig resolve(
+            AppType appType,
+            String platformName,
+            String platformVersion,
+            String deviceName,
+            String udid,
+            String automationName,
+            String appPackage,
+            String appActivity,
+            String appPath,
+            String noReset,
+            String fullReset,
+            String autoGrantPermissions,
+            String bundleId,
+            String wdaLocalPort,
+            String systemPort,
+            String deviceConfigName) {
+
+        String finalPlatformName;
+        DriverFactory.DriverConfig config = new DriverFactory.DriverConfig();
+
+        if (deviceConfigName != null && !deviceConfigName.trim().isEmpty()) {
+            LogUtils.info("📋 Loading device configuration from device.json: " + deviceConfigName);
+
+            // Xác định platform (nếu không có trong parameter, thử lấy từ JSON hoặc default là "android")
+            if (platformName == null || platformName.trim().isEmpty()) {
+                // Thử đọc từ JSON, nếu không có thì default
+                try {
+                    finalPlatformName = ConfigData.getValueJsonConfig("android", deviceConfigName, "platformName");
+                    if (finalPlatformName == null || finalPlatformName.trim().isEmpty()) {
+                        finalPlatformName = "Android";
+                    }
+                } catch (Exception e) {
+                    finalPlatformName = "Android";
+                }
+            } else {
+                finalPlatformName = platformName;
+            }
+
+            String platformKey = finalPlatformName.toLowerCase();
+
+            // Đọc các config từ device.json
+            config.platformVersion = ConfigData.getValueJsonConfig(platformKey, deviceConfigName, "platformVersion");
+            config.deviceName = ConfigData.getValueJsonConfig(platformKey, deviceConfigName, "deviceName");
+            config.automationName = ConfigData.getValueJsonConfig(platformKey, deviceConfigName, "automationName");
+            config.appPackage = ConfigData.getValueJsonConfig(platformKey, deviceConfigName, "appPackage");
+            config.appActivity = ConfigData.getValueJsonConfig(platformKey, deviceConfigName, "appActivity");
+
+            // Handle appPath - có thể là appAndroidPath hoặc appPath trong JSON
+            String appAndroidPath = ConfigData.getValueJsonConfig(platformKey, deviceConfigName, "appAndroidPath");
+            String appIOSPath = ConfigData.getValueJsonConfig(platformKey, deviceConfigName, "appPath");
+            config.appPath = (appAndroidPath != null && !appAndroidPath.trim().isEmpty()) ? appAndroidPath : appIOSPath;
+
+            config.noReset = ConfigData.getBooleanValueJsonConfig(platformKey, deviceConfigName, "noReset");
+            config.fullReset = ConfigData.getBooleanValueJsonConfig(platformKey, deviceConfigName, "fullReset");
+            config.autoGrantPermissions = ConfigData.getBooleanValueJsonConfig(platformKey, deviceConfigName, "autoGrantPermissions");
+
+            LogUtils.info("✅ Loaded device config from device.json");
+        } else {
+            // Sử dụng parameters từ TestNG (backward compatibility)
+            LogUtils.info("📋 Using parameters from TestNG suite");
+            finalPlatformName = platformName;
+            config.platformVersion = platformVersion;
+            config.deviceName = deviceName;
+            config.automationName = automationName;
+            config.appPackage = appPackage;
+            config.appActivity = appActivity;
+            config.appPath = appPath;
+            config.noReset = parseBoolean(noReset);
+            config.fullReset = parseBoolean(fullReset);
+            config.autoGrantPermissions = parseBoolean(autoGrantPermissions);
+        }
+
+        // Flutter apps luôn dùng automationName="Flutter" (DriverOptionsFactory), không lấy từ config
+        if (appType == AppType.FLUTTER) {
+            config.automationName = null;
+        }
+        config.udid = udid;
+        config.systemPort = systemPort;
+        config.wdaLocalPort = wdaLocalPort;
+        config.bundleId = bundleId;
+
+        return new ResolvedConfig(Platform.fromString(finalPlatformName), config);
+    }
+
+    private static boolean parseBoolean(String value) {
+        return value != null && !value.trim().isEmpty() && Boolean.parseBoolean(value);
+    }
+
+    /**
+     * Platform và DriverConfig đã được xác định cho một session
+     */
+    public record ResolvedConfig(Platform platform, DriverFactory.DriverConfig config) {
+    }
+}
@@ -0,0 +1,109 @@
+package com.company.test.common;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.drivers.manager.DeviceManager;
+import com.company.framework.drivers.manager.SessionPrewarmer;
+import com.company.framework.enums.AppType;
+import com.company.framework.utils.LogUtils;
+import com.company.test.common.flutter.BaseTestFlutterApp;
+import com.company.test.common.hybrid.BaseTestHybridApp;
+import com.company.test.common.nativeapp.BaseTestNativeApp;
+import org.testng.ITestContext;
+import org.testng.xml.XmlClass;
+import org.testng.xml.XmlSuite;
+import org.testng.xml.XmlTest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Nguồn cấp hàng đợi pre-warm cho SessionPrewarmer
+ * Khi một &lt;test&gt; bắt đầu, đọc parameters của &lt;test&gt; kế tiếp trong suite và enqueue session mà test đó sẽ tạo
+ * - Chỉ chạy khi suite không chạy song song (các &lt;test&gt; song song tự tạo session của mình cùng lúc)
+ * - Bỏ qua khi chưa biết trước device: không có udid, hoặc device sẽ do DeviceManager cấp lúc chạy
+ */
+public class SessionLookahead {
+
+    private SessionLookahead() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Enqueue session của &lt;test&gt; đứng sau &lt;test&gt; đang bắt đầu (gọi từ ITestListener.onStart(ITestContext))
+     */
+    public static void enqueueNext(ITestContext context) {
+        if (!SessionPrewarmer.isPrewarmEnabled()) {
+            return;
+        }
+        XmlTest current = context.getCurrentXmlTest();
+        XmlSuite suite = current.getSuite();
+        if (suite.getParallel() != null && suite.getParallel().isParallel()) {
+            return;
+        }
+
+        List<XmlTest> tests = suite.getTests();
+        int index = tests.indexOf(current);
+        if (index < 0 || index + 1 >= tests.size()) {
+            return;
+        }
+        XmlTest next = tests.get(index + 1);
+        AppType appType = resolveAppType(next);
+        if (appType == null) {
+            return;
+        }
+
+        Map<String, String> parameters = next.getAllParameters();
+        // BaseTestHybridApp chỉ dùng parameters TestNG (không đọc device.json, không dùng DeviceManager)
+        String deviceConfigName = appType == AppType.HYBRID ? null : parameters.get("deviceConfigName");
+        String udid = parameters.get("udid");
+        boolean scheduled = appType != AppType.HYBRID
+                && (deviceConfigName == null || deviceConfigName.trim().isEmpty()) && DeviceManager.isSchedulerEnabled();
+        if (scheduled || udid == null || udid.trim().isEmpty()) {
+            LogUtils.info("⏭️ [Prewarm] Không biết trước device của test '" + next.getName() + "', bỏ qua pre-warm");
+            return;
+        }
+
+        DriverConfigResolver.ResolvedConfig resolved = DriverConfigResolver.resolve(
+                appType, parameters.get("platformName"), parameters.get("platformVersion"), parameters.get("deviceName"),
+                udid, appType == AppType.FLUTTER ? null : parameters.get("automationName"),
+                parameters.get("appPackage"), parameters.get("appActivity"), parameters.get("appPath"),
+                parameters.get("noReset"), parameters.get("fullReset"), parameters.get("autoGrantPermissions"),
+                parameters.get("bundleId"), parameters.get("wdaLocalPort"), parameters.get("systemPort"), deviceConfigName);
+
+        SessionPrewarmer.enqueue(appType, resolved.platform(), parameters.get("host"), resolvePort(parameters.get("port")), resolved.config());
+        LogUtils.info("🔜 [Prewarm] Đã enqueue session cho test kế tiếp '" + next.getName() + "' (udid " + udid + ")");
+    }
+
+    /**
+     * Port mà BaseTest sẽ dùng: server local (lifecycle suite) mặc định chạy trên 4723 nếu không truyền port
+     */
+    private static String resolvePort(String port) {
+        boolean localService = ConfigData.APPIUM_DRIVER_LOCAL_SERVICE != null
+                && ConfigData.APPIUM_DRIVER_LOCAL_SERVICE.trim().equalsIgnoreCase("true");
+        if (localService && (port == null || port.isEmpty())) {
+            return "4723";
+        }
+        return port;
+    }
+
+    /**
+     * AppType theo BaseTest mà class đầu tiên của &lt;test&gt; kế thừa (Mobile Web không hỗ trợ pre-warm)
+     */
+    private static AppType resolveAppType(XmlTest test) {
+        List<XmlClass> classes = test.getXmlClasses();
+        if (classes.isEmpty()) {
+            return null;
+        }
+        Class<?> testClass = classes.get(0).getSupportClass();
+        if (BaseTestNativeApp.class.isAssignableFrom(testClass)) {
+            return AppType.NATIVE;
+        }
+        if (BaseTestHybridApp.class.isAssignableFrom(testClass)) {
+            return AppType.HYBRID;
+        }
+        if (BaseTestFlutterApp.class.isAssignableFrom(testClass)) {
+            return AppType.FLUTTER;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,47 @@
+package com.company.test.common;
+
+import com.company.framework.constants.ConfigData;
+import com.company.framework.drivers.manager.AppiumServerManager;
+import com.company.framework.utils.LogUtils;
+import org.testng.ISuite;
+import org.testng.xml.XmlTest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Khởi động Appium server của lifecycle "suite" ngay khi suite bắt đầu
+ * Mỗi port khai báo trong parameters của các &lt;test&gt; (mỗi worker) có một server riêng,
+ * test đầu tiên của worker không phải chờ server khởi động và không dùng nhầm server của worker khác
+ */
+public class SuiteServerStarter {
+
+    private SuiteServerStarter() {
+        // Ngăn chặn khởi tạo class
+    }
+
+    /**
+     * Khởi động server cho từng port của suite (gọi từ ISuiteListener.onStart(ISuite))
+     * Server không khởi động được sẽ được thử lại ở test đầu tiên dùng port đó (AppiumServerManager.prepareServer)
+     */
+    public static void startServers(ISuite suite) {
+        boolean localService = ConfigData.APPIUM_DRIVER_LOCAL_SERVICE != null
+                && ConfigData.APPIUM_DRIVER_LOCAL_SERVICE.trim().equalsIgnoreCase("true");
+        if (!localService || !AppiumServerManager.isSuiteLifecycle()) {
+            return;
+        }
+
+        Map<String, String> servers = new LinkedHashMap<>();
+        for (XmlTest test : suite.getXmlSuite().getTests()) {
+            Map<String, String> parameters = test.getAllParameters();
+            servers.putIfAbsent(parameters.get("port"), parameters.get("host"));
+        }
+        servers.forEach((port, host) -> {
+            try {
+                AppiumServerManager.ensureServerRunning(host, port);
+            } catch (RuntimeException e) {
+                LogUtils.warn("⚠️ [AppiumServer] Không khởi động được server cho port " + port + " khi bắt đầu suite: " + e.getMessage());
+            }
+        });
+    }
+}
@@ -3,16 +3,21 @@ package com.company.test.common.hybrid;
 import com.company.framework.constants.ConfigData;
 import com.company.framework.drivers.DriverManager;
 import com.company.framework.drivers.factory.DriverFactory;
+import com.company.framework.drivers.manager.AppResetManager;
 import com.company.framework.drivers.manager.AppiumServerManager;
+import com.company.framework.drivers.manager.DriverPoolManager;
 import com.company.framework.enums.AppType;
 import com.company.framework.enums.Platform;
+import com.company.framework.helpers.wait.WaitHelper;
 import com.company.framework.helpers.webview.WebViewHelper;
 import com.company.framework.utils.LogUtils;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Optional;
 import org.testng.annotations.Parameters;
 
+import java.lang.reflect.Method;
 import java.time.Duration;
 
 /**
@@ -48,13 +53,14 @@ public class BaseTestHybridApp {
             String port,
             @Optional String bundleId,
             @Optional String wdaLocalPort,
-            @Optional String systemPort) {
+            @Optional String systemPort,
+            Method testMethod) {
 
         LogUtils.info("🚀 Setting up Hybrid App driver...");
 
         // Khởi động Appium server nếu cần
         if (ConfigData.APPIUM_DRIVER_LOCAL_SERVICE.trim().equalsIgnoreCase("true")) {
-            AppiumServerManager.startServer(host, port);
+            port = AppiumServerManager.prepareServer(host, port);
         }
 
         // Parse platform
@@ -76,20 +82,18 @@ public class BaseTestHybridApp {
         config.wdaLocalPort = wdaLocalPort;
         config.bundleId = bundleId;
 
-        // Tạo driver cho Hybrid App
-        var driver = DriverFactory.createDriver(
+        // Lấy driver từ session pool (reset app theo @AppState của test) hoặc tạo mới nếu pool bị tắt
+        DriverPoolManager.acquireDriver(
                 AppType.HYBRID,
                 platform,
                 host,
                 port,
-                config
+                config,
+                AppResetManager.getRequiredLevel(testMethod)
         );
 
-        // Set driver vào DriverManager
-        DriverManager.setDriver(driver);
-
-        // Set implicit wait
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
+        // Tắt implicit wait, mọi thao tác chờ đi qua WaitHelper
+        WaitHelper.setImplicitWait(Duration.ZERO);
 
         LogUtils.info("✅ Hybrid App driver setup completed");
         LogUtils.info("ℹ️ Available contexts: " + WebViewHelper.getAvailableContexts());
@@ -110,13 +114,25 @@ public class BaseTestHybridApp {
         }
 
         if (DriverManager.getDriver() != null) {
-            DriverManager.quitDriver();
-            LogUtils.info("✅ Driver quit successfully");
+            DriverPoolManager.releaseDriver();
+            LogUtils.info("✅ Driver released successfully");
+        }
+
+        // Dừng Appium server nếu lifecycle theo method (giữ server khi lifecycle theo suite hoặc session được pool lại)
+        if (ConfigData.APPIUM_DRIVER_LOCAL_SERVICE.trim().equalsIgnoreCase("true")) {
+            AppiumServerManager.releaseServer();
         }
+    }
+
+    /**
+     * Đóng các session trong pool, dừng Appium server và in báo cáo server khi kết thúc suite
+     */
+    @AfterSuite(alwaysRun = true)
+    public void tearDownSuite() {
+        DriverPoolManager.shutdown();
 
-        // Dừng Appium server nếu đã khởi động
         if (ConfigData.APPIUM_DRIVER_LOCAL_SERVICE.trim().equalsIgnoreCase("true")) {
-            AppiumServerManager.stopServer();
+            AppiumServerManager.shutdown();
         }
     }
 }
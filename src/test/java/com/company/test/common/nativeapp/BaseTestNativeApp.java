@@ -3,15 +3,22 @@ package com.company.test.common.nativeapp;
 import com.company.framework.constants.ConfigData;
 import com.company.framework.drivers.DriverManager;
 import com.company.framework.drivers.factory.DriverFactory;
+import com.company.framework.drivers.manager.AppResetManager;
 import com.company.framework.drivers.manager.AppiumServerManager;
+import com.company.framework.drivers.manager.DeviceManager;
+import com.company.framework.drivers.manager.DriverPoolManager;
 import com.company.framework.enums.AppType;
 import com.company.framework.enums.Platform;
+import com.company.framework.helpers.wait.WaitHelper;
 import com.company.framework.utils.LogUtils;
+import com.company.test.common.DriverConfigResolver;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Optional;
 import org.testng.annotations.Parameters;
 
+import java.lang.reflect.Method;
 import java.time.Duration;
 
 /**
@@ -50,112 +57,53 @@ public class BaseTestNativeApp {
             @Optional String bundleId,
             @Optional String wdaLocalPort,
             @Optional String systemPort,
-            @Optional String deviceConfigName) {
+            @Optional String deviceConfigName,
+            Method testMethod) {
 
         LogUtils.info("🚀 Setting up Native App driver...");
 
-        String finalPlatformName;
-        String finalPlatformVersion;
-        String finalDeviceName;
-        String finalAutomationName;
-        String finalAppPackage;
-        String finalAppActivity;
-        String finalAppPath;
-        boolean finalNoReset;
-        boolean finalFullReset;
-        boolean finalAutoGrantPermissions;
-
-        // Nếu có deviceConfigName, đọc config từ device.json
-        if (deviceConfigName != null && !deviceConfigName.trim().isEmpty()) {
-            LogUtils.info("📋 Loading device configuration from device.json: " + deviceConfigName);
-
-            // Xác định platform (nếu không có trong parameter, thử lấy từ JSON hoặc default là "android")
-            if (platformName == null || platformName.trim().isEmpty()) {
-                // Thử đọc từ JSON, nếu không có thì default
-                try {
-                    finalPlatformName = ConfigData.getValueJsonConfig("android", deviceConfigName, "platformName");
-                    if (finalPlatformName == null || finalPlatformName.trim().isEmpty()) {
-                        finalPlatformName = "Android";
-                    }
-                } catch (Exception e) {
-                    finalPlatformName = "Android";
-                }
-            } else {
-                finalPlatformName = platformName;
+        // Nếu bật device scheduler và không chỉ định deviceConfigName, lease một device rảnh từ device.json
+        if ((deviceConfigName == null || deviceConfigName.trim().isEmpty()) && DeviceManager.isSchedulerEnabled()) {
+            DeviceManager.DeviceLease lease = DeviceManager.acquireDevice(platformName);
+            deviceConfigName = lease.getDeviceConfigName();
+            platformName = lease.getPlatformName();
+            if (udid == null || udid.trim().isEmpty()) {
+                udid = lease.getUdid();
+            }
+            if (systemPort == null || systemPort.trim().isEmpty()) {
+                systemPort = lease.getSystemPort();
+            }
+            if (wdaLocalPort == null || wdaLocalPort.trim().isEmpty()) {
+                wdaLocalPort = lease.getWdaLocalPort();
             }
-
-            String platformKey = finalPlatformName.toLowerCase();
-
-            // Đọc các config từ device.json
-            finalPlatformVersion = ConfigData.getValueJsonConfig(platformKey, deviceConfigName, "platformVersion");
-            finalDeviceName = ConfigData.getValueJsonConfig(platformKey, deviceConfigName, "deviceName");
-            finalAutomationName = ConfigData.getValueJsonConfig(platformKey, deviceConfigName, "automationName");
-            finalAppPackage = ConfigData.getValueJsonConfig(platformKey, deviceConfigName, "appPackage");
-            finalAppActivity = ConfigData.getValueJsonConfig(platformKey, deviceConfigName, "appActivity");
-
-            // Handle appPath - có thể là appAndroidPath hoặc appPath trong JSON
-            String appAndroidPath = ConfigData.getValueJsonConfig(platformKey, deviceConfigName, "appAndroidPath");
-            String appIOSPath = ConfigData.getValueJsonConfig(platformKey, deviceConfigName, "appPath");
-            finalAppPath = (appAndroidPath != null && !appAndroidPath.trim().isEmpty()) ? appAndroidPath : appIOSPath;
-
-            finalNoReset = ConfigData.getBooleanValueJsonConfig(platformKey, deviceConfigName, "noReset");
-            finalFullReset = ConfigData.getBooleanValueJsonConfig(platformKey, deviceConfigName, "fullReset");
-            finalAutoGrantPermissions = ConfigData.getBooleanValueJsonConfig(platformKey, deviceConfigName, "autoGrantPermissions");
-
-            LogUtils.info("✅ Loaded device config from device.json");
-        } else {
-            // Sử dụng parameters từ TestNG (backward compatibility)
-            LogUtils.info("📋 Using parameters from TestNG suite");
-            finalPlatformName = platformName;
-            finalPlatformVersion = platformVersion;
-            finalDeviceName = deviceName;
-            finalAutomationName = automationName;
-            finalAppPackage = appPackage;
-            finalAppActivity = appActivity;
-            finalAppPath = appPath;
-            finalNoReset = (noReset != null && !noReset.trim().isEmpty()) ? Boolean.parseBoolean(noReset) : false;
-            finalFullReset = (fullReset != null && !fullReset.trim().isEmpty()) ? Boolean.parseBoolean(fullReset) : false;
-            finalAutoGrantPermissions = (autoGrantPermissions != null && !autoGrantPermissions.trim().isEmpty()) ? Boolean.parseBoolean(autoGrantPermissions) : false;
         }
 
+        // Đọc config từ device.json (nếu có deviceConfigName) hoặc từ parameters TestNG
+        DriverConfigResolver.ResolvedConfig resolved = DriverConfigResolver.resolve(
+                AppType.NATIVE, platformName, platformVersion, deviceName, udid, automationName,
+                appPackage, appActivity, appPath, noReset, fullReset, autoGrantPermissions,
+                bundleId, wdaLocalPort, systemPort, deviceConfigName);
+
         // Khởi động Appium server nếu cần
         if (ConfigData.APPIUM_DRIVER_LOCAL_SERVICE.trim().equalsIgnoreCase("true")) {
-            AppiumServerManager.startServer(host, port);
+            port = AppiumServerManager.prepareServer(host, port);
         }
 
-        // Parse platform
-        Platform platform = Platform.fromString(finalPlatformName);
-
-        // Tạo driver config
-        DriverFactory.DriverConfig config = new DriverFactory.DriverConfig();
-        config.platformVersion = finalPlatformVersion;
-        config.deviceName = finalDeviceName;
-        config.udid = udid;
-        config.automationName = finalAutomationName;
-        config.appPackage = finalAppPackage;
-        config.appActivity = finalAppActivity;
-        config.appPath = finalAppPath;
-        config.noReset = finalNoReset;
-        config.fullReset = finalFullReset;
-        config.autoGrantPermissions = finalAutoGrantPermissions;
-        config.systemPort = systemPort;
-        config.wdaLocalPort = wdaLocalPort;
-        config.bundleId = bundleId;
-
-        // Tạo driver
-        var driver = DriverFactory.createDriver(
+        Platform platform = resolved.platform();
+        DriverFactory.DriverConfig config = resolved.config();
+
+        // Lấy driver từ session pool (reset app theo @AppState của test) hoặc tạo mới nếu pool bị tắt
+        DriverPoolManager.acquireDriver(
                 AppType.NATIVE,
                 platform,
                 host,
                 port,
-                config
+                config,
+                AppResetManager.getRequiredLevel(testMethod)
         );
 
-        // Set driver vào DriverManager
-        DriverManager.setDriver(driver);
-
-        // Set implicit wait
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
+        // Tắt implicit wait, mọi thao tác chờ đi qua WaitHelper
+        WaitHelper.setImplicitWait(Duration.ZERO);
 
         LogUtils.info("✅ Native App driver setup completed");
     }
@@ -166,13 +114,28 @@ public class BaseTestNativeApp {
     @AfterMethod(alwaysRun = true)
     public void tearDownDriver() {
         if (DriverManager.getDriver() != null) {
-            DriverManager.quitDriver();
-            LogUtils.info("✅ Driver quit successfully");
+            DriverPoolManager.releaseDriver();
+            LogUtils.info("✅ Driver released successfully");
+        }
+
+        // Trả device về scheduler (nếu test đã lease device)
+        DeviceManager.releaseDevice();
+
+        // Dừng Appium server nếu lifecycle theo method (giữ server khi lifecycle theo suite hoặc session được pool lại)
+        if (ConfigData.APPIUM_DRIVER_LOCAL_SERVICE.trim().equalsIgnoreCase("true")) {
+            AppiumServerManager.releaseServer();
         }
+    }
+
+    /**
+     * Đóng các session trong pool, dừng Appium server và in báo cáo server khi kết thúc suite
+     */
+    @AfterSuite(alwaysRun = true)
+    public void tearDownSuite() {
+        DriverPoolManager.shutdown();
 
-        // Dừng Appium server nếu đã khởi động
         if (ConfigData.APPIUM_DRIVER_LOCAL_SERVICE.trim().equalsIgnoreCase("true")) {
-            AppiumServerManager.stopServer();
+            AppiumServerManager.shutdown();
         }
     }
 }
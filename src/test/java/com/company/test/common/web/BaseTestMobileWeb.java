@@ -3,16 +3,22 @@ package com.company.test.common.web;
 import com.company.framework.constants.ConfigData;
 import com.company.framework.drivers.DriverManager;
 import com.company.framework.drivers.factory.DriverFactory;
+import com.company.framework.drivers.manager.AppResetManager;
 import com.company.framework.drivers.manager.AppiumServerManager;
 import com.company.framework.drivers.manager.ChromeDriverManager;
+import com.company.framework.drivers.manager.DriverPoolManager;
+import com.company.framework.enums.AppType;
 import com.company.framework.enums.BrowserType;
 import com.company.framework.enums.Platform;
+import com.company.framework.helpers.wait.WaitHelper;
 import com.company.framework.utils.LogUtils;
 import org.testng.annotations.AfterMethod;
+import org.testng.annotations.AfterSuite;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Optional;
 import org.testng.annotations.Parameters;
 
+import java.lang.reflect.Method;
 import java.time.Duration;
 
 /**
@@ -38,13 +44,14 @@ public class BaseTestMobileWeb {
             String host,
             String port,
             @Optional String wdaLocalPort,
-            @Optional String systemPort) {
+            @Optional String systemPort,
+            Method testMethod) {
 
         LogUtils.info("🚀 Setting up Mobile Web Browser driver...");
 
         // Khởi động Appium server nếu cần
         if (ConfigData.APPIUM_DRIVER_LOCAL_SERVICE.trim().equalsIgnoreCase("true")) {
-            AppiumServerManager.startServer(host, port);
+            port = AppiumServerManager.prepareServer(host, port);
         }
 
         // Parse platform
@@ -98,24 +105,27 @@ public class BaseTestMobileWeb {
             }
         }
 
-        // Tạo driver cho Mobile Web
-        var driver = DriverFactory.createMobileWebDriver(
+        // Tạo driver config cho Mobile Web
+        DriverFactory.DriverConfig config = new DriverFactory.DriverConfig();
+        config.platformVersion = platformVersion;
+        config.deviceName = deviceName;
+        config.udid = udid;
+        config.browserType = browser.getValue();
+        config.systemPort = systemPort;
+        config.wdaLocalPort = wdaLocalPort;
+
+        // Lấy driver từ session pool (reset app theo @AppState của test) hoặc tạo mới nếu pool bị tắt
+        DriverPoolManager.acquireDriver(
+                AppType.MOBILE_WEB,
                 platform,
-                browser,
                 host,
                 port,
-                platformVersion,
-                deviceName,
-                udid,
-                systemPort,
-                wdaLocalPort
+                config,
+                AppResetManager.getRequiredLevel(testMethod)
         );
 
-        // Set driver vào DriverManager
-        DriverManager.setDriver(driver);
-
-        // Set implicit wait
-        driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
+        // Tắt implicit wait, mọi thao tác chờ đi qua WaitHelper
+        WaitHelper.setImplicitWait(Duration.ZERO);
 
         LogUtils.info("✅ Mobile Web Browser driver setup completed");
         LogUtils.info("🌐 Browser: " + browser.getValue());
@@ -127,13 +137,25 @@ public class BaseTestMobileWeb {
     @AfterMethod(alwaysRun = true)
     public void tearDownDriver() {
         if (DriverManager.getDriver() != null) {
-            DriverManager.quitDriver();
-            LogUtils.info("✅ Driver quit successfully");
+            DriverPoolManager.releaseDriver();
+            LogUtils.info("✅ Driver released successfully");
+        }
+
+        // Dừng Appium server nếu lifecycle theo method (giữ server khi lifecycle theo suite hoặc session được pool lại)
+        if (ConfigData.APPIUM_DRIVER_LOCAL_SERVICE.trim().equalsIgnoreCase("true")) {
+            AppiumServerManager.releaseServer();
         }
+    }
+
+    /**
+     * Đóng các session trong pool, dừng Appium server và in báo cáo server khi kết thúc suite
+     */
+    @AfterSuite(alwaysRun = true)
+    public void tearDownSuite() {
+        DriverPoolManager.shutdown();
 
-        // Dừng Appium server nếu đã khởi động
         if (ConfigData.APPIUM_DRIVER_LOCAL_SERVICE.trim().equalsIgnoreCase("true")) {
-            AppiumServerManager.stopServer();
+            AppiumServerManager.shutdown();
         }
     }
 }
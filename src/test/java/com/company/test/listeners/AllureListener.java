@@ -1,12 +1,10 @@
 package com.company.test.listeners;
 
-import com.company.framework.drivers.DriverManager;
+import com.company.framework.helpers.screenshot.TestScreenshotCache;
 import io.qameta.allure.Allure;
 import io.qameta.allure.listener.TestLifecycleListener;
 import io.qameta.allure.model.Status;
 import io.qameta.allure.model.TestResult;
-import org.openqa.selenium.OutputType;
-import org.openqa.selenium.TakesScreenshot;
 
 import java.io.ByteArrayInputStream;
 
@@ -38,14 +36,17 @@ public class AllureListener implements TestLifecycleListener {
 
     @Override
     public void beforeTestStop(TestResult result) {
+        // Dùng chung frame cuối test với TestListener (không chụp lại)
         if (result.getStatus().equals(Status.PASSED)) {
-            if (DriverManager.getDriver() != null) {
-                Allure.addAttachment(result.getName() + "_Passed_Screenshot", new ByteArrayInputStream(((TakesScreenshot) DriverManager.getDriver()).getScreenshotAs(OutputType.BYTES)));
+            byte[] frame = TestScreenshotCache.getFrame();
+            if (frame != null) {
+                Allure.addAttachment(result.getName() + "_Passed_Screenshot", new ByteArrayInputStream(frame));
             }
         }
         if (result.getStatus().equals(Status.FAILED)) {
-            if (DriverManager.getDriver() != null) {
-                Allure.addAttachment(result.getName() + "_Failed_Screenshot", new ByteArrayInputStream(((TakesScreenshot) DriverManager.getDriver()).getScreenshotAs(OutputType.BYTES)));
+            byte[] frame = TestScreenshotCache.getFrame();
+            if (frame != null) {
+                Allure.addAttachment(result.getName() + "_Failed_Screenshot", new ByteArrayInputStream(frame));
             }
         }
     }
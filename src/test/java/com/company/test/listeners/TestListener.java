@@ -1,23 +1,70 @@
 package com.company.test.listeners;
 
 import com.company.framework.constants.ConfigData;
+import com.company.framework.drivers.factory.HttpClientFactory;
 import com.company.framework.helpers.CaptureHelpers;
 import com.company.framework.helpers.SystemHelpers;
-import com.company.framework.reports.AllureManager;
+import com.company.framework.helpers.locator.LocatorOptimizer;
+import com.company.framework.helpers.pacing.PacingHelper;
+import com.company.framework.helpers.screenshot.MjpegStreamReader;
+import com.company.framework.helpers.screenshot.ScreenshotPipeline;
+import com.company.framework.helpers.screenshot.TestScreenshotCache;
+import com.company.framework.helpers.snapshot.XPathEngine;
+import com.company.framework.helpers.wait.ElementCache;
+import com.company.framework.helpers.wait.WaitHelper;
+import com.company.framework.reports.CommandMetrics;
+import com.company.framework.reports.LocatorProfiler;
+import com.company.framework.reports.TimeAccounting;
+import com.company.framework.reports.TraceRecorder;
+import com.company.framework.reports.jfr.JfrRecorder;
 import com.company.framework.utils.DateUtils;
 import com.company.framework.utils.LogUtils;
+import com.company.test.common.SessionLookahead;
+import com.company.test.common.SuiteServerStarter;
+import org.testng.IInvokedMethod;
+import org.testng.IInvokedMethodListener;
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
 import org.testng.ITestContext;
 import org.testng.ITestListener;
+import org.testng.ITestNGMethod;
 import org.testng.ITestResult;
 
 import java.io.File;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
-public class TestListener implements ITestListener {
+public class TestListener implements ITestListener, ISuiteListener, IInvokedMethodListener {
 
     // ThreadLocal để lưu suite name cho mỗi thread (hỗ trợ parallel execution)
     private static final ThreadLocal<String> suiteName = new ThreadLocal<>();
+    // Ranh giới của test đang chạy trên thread: từ @BeforeMethod đầu tiên đến @AfterMethod cuối cùng
+    private static final ThreadLocal<TestBoundary> testBoundary = new ThreadLocal<>();
+
+    @Override
+    public void onStart(ISuite suite) {
+        // Bắt đầu JFR recording cho suite (nếu bật JFR_RECORDING_ENABLED)
+        JfrRecorder.start(suite.getName());
+        // Lifecycle "suite": khởi động sẵn Appium server cho từng port của suite
+        SuiteServerStarter.startServers(suite);
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+        JfrRecorder.stop();
+        // Thống kê tích lũy của các helper (in ở đây thay vì shutdown hook vì Log4j2 có thể đã dừng trước)
+        HttpClientFactory.logMetrics();
+        PacingHelper.logReport();
+        WaitHelper.logReport();
+        XPathEngine.logStats();
+        LocatorOptimizer.logReport();
+        ElementCache.logStats();
+        ScreenshotPipeline.logStats();
+        TestScreenshotCache.logStats();
+        MjpegStreamReader.logStats();
+        // Bảng phân bổ thời gian sleep / wait / device / artifact / overhead của suite
+        TimeAccounting.logSuiteSummary(suite.getName());
+    }
 
     @Override
     public void onStart(ITestContext result) {
@@ -28,19 +75,67 @@ public class TestListener implements ITestListener {
         String suite = result.getSuite().getName();
         suiteName.set(suite);
         LogUtils.info("📁 Suite name: " + suite + " - Screenshots/Videos sẽ lưu vào thư mục: " + SystemHelpers.makeSlug(suite));
+
+        // Đưa session của <test> kế tiếp vào hàng đợi pre-warm (nếu bật SESSION_PREWARM_ENABLED)
+        SessionLookahead.enqueueNext(result);
     }
 
     @Override
     public void onFinish(ITestContext result) {
         LogUtils.info("\uD83D\uDD06 Kết thúc chạy test: " + result.getEndDate());
 
+        // Ghi report locator chậm cạnh Allure results (dữ liệu tích lũy từ đầu lần chạy)
+        LocatorProfiler.writeReport();
+        CommandMetrics.writePrometheusFile();
+
+        // Test cuối chưa đóng được (ví dụ @AfterMethod bị skip)
+        closeTestBoundary();
+
         // Cleanup ThreadLocal
         suiteName.remove();
     }
 
+    /**
+     * Mở ranh giới test trước @BeforeMethod đầu tiên (hoặc trước test method nếu class không có @BeforeMethod),
+     * để trace và sổ thời gian gồm cả tạo session
+     */
+    @Override
+    public void beforeInvocation(IInvokedMethod method, ITestResult testResult) {
+        ITestNGMethod testMethod = method.getTestMethod();
+        if (!method.isTestMethod() && !testMethod.isBeforeMethodConfiguration()) {
+            return;
+        }
+        TestBoundary boundary = testBoundary.get();
+        if (boundary != null && !boundary.ended) {
+            // @BeforeMethod tiếp theo hoặc test method của test đang mở
+            return;
+        }
+        // Test trước chưa đóng được thì đóng lại trước khi mở test mới
+        closeTestBoundary();
+        testBoundary.set(new TestBoundary(testMethod.getTestClass().getAfterTestMethods().length));
+        TraceRecorder.startTest();
+        TimeAccounting.startTest();
+    }
+
+    /**
+     * Đóng ranh giới test sau @AfterMethod cuối cùng, để teardown không bị tính vào test kế tiếp
+     */
+    @Override
+    public void afterInvocation(IInvokedMethod method, ITestResult testResult) {
+        TestBoundary boundary = testBoundary.get();
+        if (boundary == null || !boundary.ended || !method.getTestMethod().isAfterMethodConfiguration()) {
+            return;
+        }
+        boundary.afterMethodsRun++;
+        if (boundary.afterMethodsRun >= boundary.afterMethodCount) {
+            closeTestBoundary();
+        }
+    }
+
     @Override
     public void onTestStart(ITestResult result) {
         LogUtils.info("➡\uFE0F Bắt đầu chạy test case: " + result.getName());
+        TestScreenshotCache.clear();
 
         if (ConfigData.RECORD_VIDEO.equalsIgnoreCase("true")) {
             CaptureHelpers.startRecording();
@@ -57,7 +152,7 @@ public class TestListener implements ITestListener {
         LogUtils.info("Thời gian: " + formattedDate);
 
         if (ConfigData.SCREENSHOT_PASS.equalsIgnoreCase("true")) {
-            CaptureHelpers.captureScreenshot(result.getName(), getSuiteName());
+            CaptureHelpers.saveScreenshot(TestScreenshotCache.getFrame(), result.getName(), getSuiteName());
         }
 
         String suiteFolder = getSuiteName();
@@ -66,14 +161,16 @@ public class TestListener implements ITestListener {
         String videoFileName = SystemHelpers.getCurrentDir() + videoPath + "recording_" + result.getName() + "_" + Thread.currentThread().getId() + "_" + SystemHelpers.makeSlug(DateUtils.getCurrentDateTime()) + ".mp4";
 
         if (ConfigData.RECORD_VIDEO.equalsIgnoreCase("true")) {
-            try {
-                Thread.sleep(2000); // Sleep 2 seconds - compatible with all app types
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            sleep(2000); // Sleep 2 seconds - compatible with all app types
             CaptureHelpers.stopRecording(videoFileName);
         }
 
+        // Histogram latency các command của test vào Allure
+        CommandMetrics.attachCurrentTest();
+        // Chờ các screenshot step ghi xong trước khi Allure kết thúc test
+        ScreenshotPipeline.flush();
+        endTestBoundary(result);
+
         // AllureListener sẽ tự động thêm screenshot vào Allure report HTML
         // (được load qua ServiceLoader - META-INF/services)
 
@@ -89,8 +186,9 @@ public class TestListener implements ITestListener {
         LogUtils.info("Thời gian lỗi: " + formattedDate);
         LogUtils.info("Nguyên nhân lỗi: " + result.getThrowable());
 
+        // Frame lỗi chụp một lần, dùng chung cho file và AllureListener (attachment Allure duy nhất của frame)
         if (ConfigData.SCREENSHOT_FAIL.equalsIgnoreCase("true")) {
-            CaptureHelpers.captureScreenshot(result.getName(), getSuiteName());
+            CaptureHelpers.saveScreenshot(TestScreenshotCache.getFrame(), result.getName(), getSuiteName());
         }
 
         String suiteFolder = getSuiteName();
@@ -98,23 +196,18 @@ public class TestListener implements ITestListener {
         SystemHelpers.createFolder(SystemHelpers.getCurrentDir() + videoPath);
         String videoFileName = SystemHelpers.getCurrentDir() + videoPath + "recording_" + result.getName() + "_" + Thread.currentThread().getId() + "_" + SystemHelpers.makeSlug(DateUtils.getCurrentDateTime()) + ".mp4";
 
-        try {
-            Thread.sleep(2000); // Sleep 2 seconds - compatible with all app types
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        sleep(2000); // Sleep 2 seconds - compatible with all app types
 
         if (ConfigData.RECORD_VIDEO.equalsIgnoreCase("true")) {
-            try {
-                Thread.sleep(2000); // Sleep 2 seconds - compatible with all app types
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            sleep(2000); // Sleep 2 seconds - compatible with all app types
             CaptureHelpers.stopRecording(videoFileName);
         }
 
-        //Add screenshot to Allure report (qua AllureManager)
-        AllureManager.saveScreenshotPNG();
+        // Histogram latency các command của test vào Allure
+        CommandMetrics.attachCurrentTest();
+        // Chờ các screenshot step ghi xong trước khi Allure kết thúc test
+        ScreenshotPipeline.flush();
+        endTestBoundary(result);
 
         // AllureListener sẽ tự động thêm screenshot vào Allure report HTML
         // (được load qua ServiceLoader - META-INF/services)
@@ -128,6 +221,7 @@ public class TestListener implements ITestListener {
     @Override
     public void onTestSkipped(ITestResult result) {
         LogUtils.info("⛔\uFE0F Test case " + result.getName() + " is skipped.");
+        CommandMetrics.attachCurrentTest();
 
         String suiteFolder = getSuiteName();
         String videoPath = ConfigData.RECORD_VIDEO_PATH + suiteFolder + File.separator;
@@ -135,13 +229,38 @@ public class TestListener implements ITestListener {
         String videoFileName = SystemHelpers.getCurrentDir() + videoPath + "recording_" + result.getName() + "_" + Thread.currentThread().getId() + "_" + SystemHelpers.makeSlug(DateUtils.getCurrentDateTime()) + ".mp4";
 
         if (ConfigData.RECORD_VIDEO.equalsIgnoreCase("true")) {
-            try {
-                Thread.sleep(2000); // Sleep 2 seconds - compatible with all app types
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            sleep(2000); // Sleep 2 seconds - compatible with all app types
             CaptureHelpers.stopRecording(videoFileName);
         }
+        // Chờ các screenshot step ghi xong trước khi Allure kết thúc test
+        ScreenshotPipeline.flush();
+        endTestBoundary(result);
+    }
+
+    /**
+     * Test method đã có kết quả (gọi từ onTestSuccess/onTestFailure/onTestSkipped, trước @AfterMethod)
+     * Đăng ký attachment trace khi Allure result của test còn mở, ranh giới vẫn mở cho @AfterMethod
+     */
+    private static void endTestBoundary(ITestResult result) {
+        TraceRecorder.endTest(result.getName());
+        TimeAccounting.endTest(result.getName(), result.getTestContext().getSuite().getName());
+        TestBoundary boundary = testBoundary.get();
+        if (boundary == null) {
+            return;
+        }
+        boundary.ended = true;
+        if (boundary.afterMethodCount == 0) {
+            closeTestBoundary();
+        }
+    }
+
+    private static void closeTestBoundary() {
+        if (testBoundary.get() == null) {
+            return;
+        }
+        testBoundary.remove();
+        TraceRecorder.closeTest();
+        TimeAccounting.closeTest();
     }
 
     /**
@@ -156,4 +275,27 @@ public class TestListener implements ITestListener {
         return SystemHelpers.makeSlug(suite);
     }
 
-}
\ No newline at end of file
+    /**
+     * Sleep chờ app ổn định trước khi dừng ghi video (hiển thị là span sleep trên trace của test)
+     */
+    private void sleep(long millis) {
+        try (TraceRecorder.Span ignored = TraceRecorder.begin("TestListener.sleep", TraceRecorder.SLEEP, millis + "ms")) {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Trạng thái ranh giới test trên một thread
+     */
+    private static class TestBoundary {
+        private final int afterMethodCount;
+        private int afterMethodsRun;
+        private boolean ended;
+
+        private TestBoundary(int afterMethodCount) {
+            this.afterMethodCount = afterMethodCount;
+        }
+    }
+}